@@ -0,0 +1,30 @@
+package Ori.Coval.Logging.Logger;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * The outputs benchmarks log to, chosen by a {@code sink} parameter.
+ */
+final class BenchmarkSinks {
+    static final String NULL = "null";
+    static final String FILE = "file";
+
+    private BenchmarkSinks() {
+    }
+
+    /**
+     * @param kind {@link #NULL} to measure encoding alone, {@link #FILE} to include a real write
+     */
+    static LogSink open(String kind) throws IOException {
+        if (NULL.equals(kind)) {
+            return new NullSink();
+        }
+        if (FILE.equals(kind)) {
+            File file = File.createTempFile("koala-bench", ".wpilog");
+            file.deleteOnExit();
+            return new FileSink(file);
+        }
+        throw new IllegalArgumentException("unknown sink: " + kind);
+    }
+}
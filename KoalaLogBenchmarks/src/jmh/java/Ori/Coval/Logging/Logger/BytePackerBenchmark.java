@@ -0,0 +1,117 @@
+package Ori.Coval.Logging.Logger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+
+/**
+ * Payload encoding on its own, into a reused buffer (as the logger does) and into a new array.
+ */
+@State(Scope.Thread)
+public class BytePackerBenchmark {
+
+    @Param({"1", "64", "4096"})
+    public int length;
+
+    private boolean[] booleans;
+    private long[] longs;
+    private int[] ints;
+    private float[] floats;
+    private double[] doubles;
+    private String[] strings;
+    private byte[] dst;
+
+    private double scalar = 1.5;
+
+    @Setup
+    public void fill() {
+        booleans = new boolean[length];
+        longs = new long[length];
+        ints = new int[length];
+        floats = new float[length];
+        doubles = new double[length];
+        strings = new String[length];
+        for (int i = 0; i < length; i++) {
+            booleans[i] = (i & 1) == 0;
+            longs[i] = i * 31L;
+            ints[i] = i * 31;
+            floats[i] = i * 0.5f;
+            doubles[i] = i * 0.25;
+            strings[i] = "value" + i;
+        }
+        dst = new byte[BytePacker.stringsSize(strings) + 8 * length + 64];
+    }
+
+    // --- Scalars ---
+
+    @Benchmark
+    public int packDouble() {
+        return BytePacker.packDoubles(scalar++, dst, 0);
+    }
+
+    @Benchmark
+    public int packLong() {
+        return BytePacker.packLongs((long) scalar++, dst, 0);
+    }
+
+    @Benchmark
+    public int packFloat() {
+        return BytePacker.packFloats((float) scalar++, dst, 0);
+    }
+
+    @Benchmark
+    public int packBoolean() {
+        return BytePacker.packBooleans(((long) scalar++ & 1) == 0, dst, 0);
+    }
+
+    @Benchmark
+    public byte[] packDoubleAllocating() {
+        return BytePacker.packDoubles(scalar++);
+    }
+
+    // --- Arrays ---
+
+    @Benchmark
+    public int packDoubleArray() {
+        return BytePacker.packDoubles(doubles, dst, 0);
+    }
+
+    @Benchmark
+    public int packLongArray() {
+        return BytePacker.packLongs(longs, dst, 0);
+    }
+
+    @Benchmark
+    public int packIntArrayAsLongs() {
+        return BytePacker.packLongs(ints, dst, 0);
+    }
+
+    @Benchmark
+    public int packFloatArray() {
+        return BytePacker.packFloats(floats, dst, 0);
+    }
+
+    @Benchmark
+    public int packBooleanArray() {
+        return BytePacker.packBooleans(booleans, dst, 0);
+    }
+
+    @Benchmark
+    public int packStringArray() {
+        return BytePacker.packStrings(strings, dst, 0);
+    }
+
+    @Benchmark
+    public byte[] packDoubleArrayAllocating() {
+        return BytePacker.packDoubles(doubles);
+    }
+
+    @Benchmark
+    public byte[] packStringArrayAllocating() throws IOException {
+        return BytePacker.packStrings(strings);
+    }
+}
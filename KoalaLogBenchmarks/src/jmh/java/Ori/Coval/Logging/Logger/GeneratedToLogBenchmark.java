@@ -0,0 +1,58 @@
+package Ori.Coval.Logging.Logger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+
+/**
+ * One loop's worth of {@code @AutoLog} logging: the processor-generated {@code toLog()} of
+ * {@link WideSubsystem}, 250 entries per call.
+ */
+@State(Scope.Thread)
+public class GeneratedToLogBenchmark {
+
+    @Param({BenchmarkSinks.NULL, BenchmarkSinks.FILE})
+    public String sink;
+
+    private WideSubsystemAutoLogged subsystem;
+
+    @Setup(Level.Trial)
+    public void createSubsystem() {
+        KoalaLogCore.disableAsyncWriting();
+        subsystem = new WideSubsystemAutoLogged();
+    }
+
+    @Setup(Level.Iteration)
+    public void openSink() throws IOException {
+        KoalaLogCore.setup(BenchmarkSinks.open(sink));
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeSink() {
+        KoalaLogCore.shutdown();
+    }
+
+    @Benchmark
+    public void toLog() {
+        subsystem.step();
+        subsystem.toLog();
+    }
+
+    // as AutoLogManager.periodic() does in frame mode: one timestamp, one write
+    @Benchmark
+    public void toLogFramed() {
+        subsystem.step();
+        KoalaLogCore.beginFrame();
+        try {
+            subsystem.toLog();
+        } finally {
+            KoalaLogCore.endFrame();
+        }
+    }
+}
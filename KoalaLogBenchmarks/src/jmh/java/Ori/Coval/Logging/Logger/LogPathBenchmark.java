@@ -0,0 +1,168 @@
+package Ori.Coval.Logging.Logger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+
+/**
+ * One logged value, end to end: name lookup, change tracking, encoding and the write.
+ * <p>
+ * The {@code byName} benchmarks take the same path as the matching {@link KoalaLog} overload,
+ * the {@code handle} ones append through a cached {@link LogEntry}, and the {@code write} ones
+ * time the record encoding alone.
+ */
+@State(Scope.Thread)
+public class LogPathBenchmark {
+
+    private static final int ARRAY_LENGTH = 16;
+
+    @Param({BenchmarkSinks.NULL, BenchmarkSinks.FILE})
+    public String sink;
+
+    private DoubleEntry doubleHandle;
+    private LongEntry longHandle;
+    private DoubleArrayEntry doubleArrayHandle;
+    private Pose2dEntry poseHandle;
+
+    private final boolean[] booleans = new boolean[ARRAY_LENGTH];
+    private final long[] longs = new long[ARRAY_LENGTH];
+    private final float[] floats = new float[ARRAY_LENGTH];
+    private final double[] doubles = new double[ARRAY_LENGTH];
+    private final String[] strings = new String[ARRAY_LENGTH];
+    private final byte[] payload = new byte[8];
+
+    // changes every call, so no value is ever skipped as a repeat
+    private long tick;
+
+    @Setup(Level.Trial)
+    public void createEntries() {
+        KoalaLogCore.disableAsyncWriting();
+        doubleHandle = KoalaLogCore.entry("Bench/handleDouble", EntryType.DOUBLE);
+        longHandle = KoalaLogCore.entry("Bench/handleLong", EntryType.LONG);
+        doubleArrayHandle = KoalaLogCore.entry("Bench/handleDoubleArray", EntryType.DOUBLE_ARRAY);
+        poseHandle = KoalaLogCore.entry("Bench/handlePose2d", EntryType.POSE2D);
+        for (int i = 0; i < ARRAY_LENGTH; i++) {
+            strings[i] = "value" + i;
+        }
+    }
+
+    // a fresh file each iteration keeps the file sink from growing without bound
+    @Setup(Level.Iteration)
+    public void openSink() throws IOException {
+        KoalaLogCore.setup(BenchmarkSinks.open(sink));
+        doubleHandle.append(0.0); // the write benchmarks need the start record out already
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeSink() {
+        KoalaLogCore.shutdown();
+    }
+
+    // --- By name, as KoalaLog.log ---
+
+    @Benchmark
+    public void byNameBoolean() {
+        KoalaLogCore.entry("Bench/boolean", EntryType.BOOLEAN).append((tick++ & 1) == 0, false);
+    }
+
+    @Benchmark
+    public void byNameLong() {
+        KoalaLogCore.entry("Bench/long", EntryType.LONG).append(tick++, false);
+    }
+
+    @Benchmark
+    public void byNameFloat() {
+        KoalaLogCore.entry("Bench/float", EntryType.FLOAT).append((float) tick++, false);
+    }
+
+    @Benchmark
+    public void byNameDouble() {
+        KoalaLogCore.entry("Bench/double", EntryType.DOUBLE).append(tick++ * 0.5, false);
+    }
+
+    @Benchmark
+    public void byNameString() {
+        KoalaLogCore.entry("Bench/string", EntryType.STRING).append(strings[(int) (tick++ & (ARRAY_LENGTH - 1))], false);
+    }
+
+    @Benchmark
+    public void byNameBooleanArray() {
+        booleans[0] = (tick++ & 1) == 0;
+        KoalaLogCore.entry("Bench/booleanArray", EntryType.BOOLEAN_ARRAY).append(booleans, false);
+    }
+
+    @Benchmark
+    public void byNameLongArray() {
+        longs[0] = tick++;
+        KoalaLogCore.entry("Bench/longArray", EntryType.LONG_ARRAY).append(longs, false);
+    }
+
+    @Benchmark
+    public void byNameFloatArray() {
+        floats[0] = tick++;
+        KoalaLogCore.entry("Bench/floatArray", EntryType.FLOAT_ARRAY).append(floats, false);
+    }
+
+    @Benchmark
+    public void byNameDoubleArray() {
+        doubles[0] = tick++;
+        KoalaLogCore.entry("Bench/doubleArray", EntryType.DOUBLE_ARRAY).append(doubles, false);
+    }
+
+    @Benchmark
+    public void byNameStringArray() {
+        strings[0] = strings[(int) (++tick & (ARRAY_LENGTH - 1))];
+        KoalaLogCore.entry("Bench/stringArray", EntryType.STRING_ARRAY).append(strings, false);
+    }
+
+    @Benchmark
+    public void byNamePose2d() {
+        double t = tick++;
+        KoalaLogCore.entry("Bench/pose2d", EntryType.POSE2D).append(t, t * 0.5, t * 0.001, false);
+    }
+
+    // --- Through a handle ---
+
+    @Benchmark
+    public void handleDouble() {
+        doubleHandle.append(tick++ * 0.5);
+    }
+
+    @Benchmark
+    public void handleLong() {
+        longHandle.append(tick++);
+    }
+
+    @Benchmark
+    public void handleDoubleArray() {
+        doubles[0] = tick++;
+        doubleArrayHandle.append(doubles);
+    }
+
+    @Benchmark
+    public void handlePose2d() {
+        double t = tick++;
+        poseHandle.append(t, t * 0.5, t * 0.001);
+    }
+
+    // --- Encoding and write only ---
+
+    @Benchmark
+    public void writeValueDouble() {
+        long t = tick++;
+        KoalaLogCore.writeValue(doubleHandle.id, t * 0.5, t);
+    }
+
+    @Benchmark
+    public void writeRecord() {
+        long t = tick++;
+        payload[0] = (byte) t;
+        KoalaLogCore.writeRecord(doubleHandle.id, payload, t);
+    }
+}
@@ -0,0 +1,511 @@
+package Ori.Coval.Logging.Logger;
+
+import Ori.Coval.Logging.AutoLog;
+import Ori.Coval.Logging.DoNotLog;
+
+/**
+ * A subsystem with 250 logged fields of the usual kinds, for timing its generated {@code toLog()}.
+ */
+@AutoLog(postToFtcDashboard = false)
+public class WideSubsystem {
+    double d000 = 0.5;
+    double d001 = 1.5;
+    double d002 = 2.5;
+    double d003 = 3.5;
+    double d004 = 4.5;
+    double d005 = 5.5;
+    double d006 = 6.5;
+    double d007 = 7.5;
+    double d008 = 8.5;
+    double d009 = 9.5;
+    double d010 = 10.5;
+    double d011 = 11.5;
+    double d012 = 12.5;
+    double d013 = 13.5;
+    double d014 = 14.5;
+    double d015 = 15.5;
+    double d016 = 16.5;
+    double d017 = 17.5;
+    double d018 = 18.5;
+    double d019 = 19.5;
+    double d020 = 20.5;
+    double d021 = 21.5;
+    double d022 = 22.5;
+    double d023 = 23.5;
+    double d024 = 24.5;
+    double d025 = 25.5;
+    double d026 = 26.5;
+    double d027 = 27.5;
+    double d028 = 28.5;
+    double d029 = 29.5;
+    double d030 = 30.5;
+    double d031 = 31.5;
+    double d032 = 32.5;
+    double d033 = 33.5;
+    double d034 = 34.5;
+    double d035 = 35.5;
+    double d036 = 36.5;
+    double d037 = 37.5;
+    double d038 = 38.5;
+    double d039 = 39.5;
+    double d040 = 40.5;
+    double d041 = 41.5;
+    double d042 = 42.5;
+    double d043 = 43.5;
+    double d044 = 44.5;
+    double d045 = 45.5;
+    double d046 = 46.5;
+    double d047 = 47.5;
+    double d048 = 48.5;
+    double d049 = 49.5;
+    double d050 = 50.5;
+    double d051 = 51.5;
+    double d052 = 52.5;
+    double d053 = 53.5;
+    double d054 = 54.5;
+    double d055 = 55.5;
+    double d056 = 56.5;
+    double d057 = 57.5;
+    double d058 = 58.5;
+    double d059 = 59.5;
+    double d060 = 60.5;
+    double d061 = 61.5;
+    double d062 = 62.5;
+    double d063 = 63.5;
+    double d064 = 64.5;
+    double d065 = 65.5;
+    double d066 = 66.5;
+    double d067 = 67.5;
+    double d068 = 68.5;
+    double d069 = 69.5;
+    double d070 = 70.5;
+    double d071 = 71.5;
+    double d072 = 72.5;
+    double d073 = 73.5;
+    double d074 = 74.5;
+    double d075 = 75.5;
+    double d076 = 76.5;
+    double d077 = 77.5;
+    double d078 = 78.5;
+    double d079 = 79.5;
+    double d080 = 80.5;
+    double d081 = 81.5;
+    double d082 = 82.5;
+    double d083 = 83.5;
+    double d084 = 84.5;
+    double d085 = 85.5;
+    double d086 = 86.5;
+    double d087 = 87.5;
+    double d088 = 88.5;
+    double d089 = 89.5;
+    double d090 = 90.5;
+    double d091 = 91.5;
+    double d092 = 92.5;
+    double d093 = 93.5;
+    double d094 = 94.5;
+    double d095 = 95.5;
+    double d096 = 96.5;
+    double d097 = 97.5;
+    double d098 = 98.5;
+    double d099 = 99.5;
+    double d100 = 100.5;
+    double d101 = 101.5;
+    double d102 = 102.5;
+    double d103 = 103.5;
+    double d104 = 104.5;
+    double d105 = 105.5;
+    double d106 = 106.5;
+    double d107 = 107.5;
+    double d108 = 108.5;
+    double d109 = 109.5;
+    double d110 = 110.5;
+    double d111 = 111.5;
+    double d112 = 112.5;
+    double d113 = 113.5;
+    double d114 = 114.5;
+    double d115 = 115.5;
+    double d116 = 116.5;
+    double d117 = 117.5;
+    double d118 = 118.5;
+    double d119 = 119.5;
+    long l000 = 0L;
+    long l001 = 1L;
+    long l002 = 2L;
+    long l003 = 3L;
+    long l004 = 4L;
+    long l005 = 5L;
+    long l006 = 6L;
+    long l007 = 7L;
+    long l008 = 8L;
+    long l009 = 9L;
+    long l010 = 10L;
+    long l011 = 11L;
+    long l012 = 12L;
+    long l013 = 13L;
+    long l014 = 14L;
+    long l015 = 15L;
+    long l016 = 16L;
+    long l017 = 17L;
+    long l018 = 18L;
+    long l019 = 19L;
+    long l020 = 20L;
+    long l021 = 21L;
+    long l022 = 22L;
+    long l023 = 23L;
+    long l024 = 24L;
+    long l025 = 25L;
+    long l026 = 26L;
+    long l027 = 27L;
+    long l028 = 28L;
+    long l029 = 29L;
+    long l030 = 30L;
+    long l031 = 31L;
+    long l032 = 32L;
+    long l033 = 33L;
+    long l034 = 34L;
+    long l035 = 35L;
+    long l036 = 36L;
+    long l037 = 37L;
+    long l038 = 38L;
+    long l039 = 39L;
+    int i000 = 0;
+    int i001 = 1;
+    int i002 = 2;
+    int i003 = 3;
+    int i004 = 4;
+    int i005 = 5;
+    int i006 = 6;
+    int i007 = 7;
+    int i008 = 8;
+    int i009 = 9;
+    int i010 = 10;
+    int i011 = 11;
+    int i012 = 12;
+    int i013 = 13;
+    int i014 = 14;
+    int i015 = 15;
+    int i016 = 16;
+    int i017 = 17;
+    int i018 = 18;
+    int i019 = 19;
+    int i020 = 20;
+    int i021 = 21;
+    int i022 = 22;
+    int i023 = 23;
+    int i024 = 24;
+    int i025 = 25;
+    int i026 = 26;
+    int i027 = 27;
+    int i028 = 28;
+    int i029 = 29;
+    int i030 = 30;
+    int i031 = 31;
+    int i032 = 32;
+    int i033 = 33;
+    int i034 = 34;
+    int i035 = 35;
+    int i036 = 36;
+    int i037 = 37;
+    int i038 = 38;
+    int i039 = 39;
+    boolean b000 = false;
+    boolean b001 = false;
+    boolean b002 = false;
+    boolean b003 = false;
+    boolean b004 = false;
+    boolean b005 = false;
+    boolean b006 = false;
+    boolean b007 = false;
+    boolean b008 = false;
+    boolean b009 = false;
+    boolean b010 = false;
+    boolean b011 = false;
+    boolean b012 = false;
+    boolean b013 = false;
+    boolean b014 = false;
+    boolean b015 = false;
+    boolean b016 = false;
+    boolean b017 = false;
+    boolean b018 = false;
+    boolean b019 = false;
+    boolean b020 = false;
+    boolean b021 = false;
+    boolean b022 = false;
+    boolean b023 = false;
+    boolean b024 = false;
+    boolean b025 = false;
+    boolean b026 = false;
+    boolean b027 = false;
+    boolean b028 = false;
+    boolean b029 = false;
+    String s000 = "idle";
+    String s001 = "idle";
+    String s002 = "idle";
+    String s003 = "idle";
+    String s004 = "idle";
+    String s005 = "idle";
+    String s006 = "idle";
+    String s007 = "idle";
+    String s008 = "idle";
+    String s009 = "idle";
+    double[] a000 = new double[8];
+    double[] a001 = new double[8];
+    double[] a002 = new double[8];
+    double[] a003 = new double[8];
+    double[] a004 = new double[8];
+    double[] a005 = new double[8];
+    double[] a006 = new double[8];
+    double[] a007 = new double[8];
+    double[] a008 = new double[8];
+    double[] a009 = new double[8];
+
+    public WideSubsystem() {
+    }
+
+    /**
+     * Changes every numeric and boolean field, as one loop of robot code would.
+     */
+    @DoNotLog
+    public void step() {
+        d000 += 0.001;
+        d001 += 0.001;
+        d002 += 0.001;
+        d003 += 0.001;
+        d004 += 0.001;
+        d005 += 0.001;
+        d006 += 0.001;
+        d007 += 0.001;
+        d008 += 0.001;
+        d009 += 0.001;
+        d010 += 0.001;
+        d011 += 0.001;
+        d012 += 0.001;
+        d013 += 0.001;
+        d014 += 0.001;
+        d015 += 0.001;
+        d016 += 0.001;
+        d017 += 0.001;
+        d018 += 0.001;
+        d019 += 0.001;
+        d020 += 0.001;
+        d021 += 0.001;
+        d022 += 0.001;
+        d023 += 0.001;
+        d024 += 0.001;
+        d025 += 0.001;
+        d026 += 0.001;
+        d027 += 0.001;
+        d028 += 0.001;
+        d029 += 0.001;
+        d030 += 0.001;
+        d031 += 0.001;
+        d032 += 0.001;
+        d033 += 0.001;
+        d034 += 0.001;
+        d035 += 0.001;
+        d036 += 0.001;
+        d037 += 0.001;
+        d038 += 0.001;
+        d039 += 0.001;
+        d040 += 0.001;
+        d041 += 0.001;
+        d042 += 0.001;
+        d043 += 0.001;
+        d044 += 0.001;
+        d045 += 0.001;
+        d046 += 0.001;
+        d047 += 0.001;
+        d048 += 0.001;
+        d049 += 0.001;
+        d050 += 0.001;
+        d051 += 0.001;
+        d052 += 0.001;
+        d053 += 0.001;
+        d054 += 0.001;
+        d055 += 0.001;
+        d056 += 0.001;
+        d057 += 0.001;
+        d058 += 0.001;
+        d059 += 0.001;
+        d060 += 0.001;
+        d061 += 0.001;
+        d062 += 0.001;
+        d063 += 0.001;
+        d064 += 0.001;
+        d065 += 0.001;
+        d066 += 0.001;
+        d067 += 0.001;
+        d068 += 0.001;
+        d069 += 0.001;
+        d070 += 0.001;
+        d071 += 0.001;
+        d072 += 0.001;
+        d073 += 0.001;
+        d074 += 0.001;
+        d075 += 0.001;
+        d076 += 0.001;
+        d077 += 0.001;
+        d078 += 0.001;
+        d079 += 0.001;
+        d080 += 0.001;
+        d081 += 0.001;
+        d082 += 0.001;
+        d083 += 0.001;
+        d084 += 0.001;
+        d085 += 0.001;
+        d086 += 0.001;
+        d087 += 0.001;
+        d088 += 0.001;
+        d089 += 0.001;
+        d090 += 0.001;
+        d091 += 0.001;
+        d092 += 0.001;
+        d093 += 0.001;
+        d094 += 0.001;
+        d095 += 0.001;
+        d096 += 0.001;
+        d097 += 0.001;
+        d098 += 0.001;
+        d099 += 0.001;
+        d100 += 0.001;
+        d101 += 0.001;
+        d102 += 0.001;
+        d103 += 0.001;
+        d104 += 0.001;
+        d105 += 0.001;
+        d106 += 0.001;
+        d107 += 0.001;
+        d108 += 0.001;
+        d109 += 0.001;
+        d110 += 0.001;
+        d111 += 0.001;
+        d112 += 0.001;
+        d113 += 0.001;
+        d114 += 0.001;
+        d115 += 0.001;
+        d116 += 0.001;
+        d117 += 0.001;
+        d118 += 0.001;
+        d119 += 0.001;
+        l000++;
+        l001++;
+        l002++;
+        l003++;
+        l004++;
+        l005++;
+        l006++;
+        l007++;
+        l008++;
+        l009++;
+        l010++;
+        l011++;
+        l012++;
+        l013++;
+        l014++;
+        l015++;
+        l016++;
+        l017++;
+        l018++;
+        l019++;
+        l020++;
+        l021++;
+        l022++;
+        l023++;
+        l024++;
+        l025++;
+        l026++;
+        l027++;
+        l028++;
+        l029++;
+        l030++;
+        l031++;
+        l032++;
+        l033++;
+        l034++;
+        l035++;
+        l036++;
+        l037++;
+        l038++;
+        l039++;
+        i000++;
+        i001++;
+        i002++;
+        i003++;
+        i004++;
+        i005++;
+        i006++;
+        i007++;
+        i008++;
+        i009++;
+        i010++;
+        i011++;
+        i012++;
+        i013++;
+        i014++;
+        i015++;
+        i016++;
+        i017++;
+        i018++;
+        i019++;
+        i020++;
+        i021++;
+        i022++;
+        i023++;
+        i024++;
+        i025++;
+        i026++;
+        i027++;
+        i028++;
+        i029++;
+        i030++;
+        i031++;
+        i032++;
+        i033++;
+        i034++;
+        i035++;
+        i036++;
+        i037++;
+        i038++;
+        i039++;
+        b000 = !b000;
+        b001 = !b001;
+        b002 = !b002;
+        b003 = !b003;
+        b004 = !b004;
+        b005 = !b005;
+        b006 = !b006;
+        b007 = !b007;
+        b008 = !b008;
+        b009 = !b009;
+        b010 = !b010;
+        b011 = !b011;
+        b012 = !b012;
+        b013 = !b013;
+        b014 = !b014;
+        b015 = !b015;
+        b016 = !b016;
+        b017 = !b017;
+        b018 = !b018;
+        b019 = !b019;
+        b020 = !b020;
+        b021 = !b021;
+        b022 = !b022;
+        b023 = !b023;
+        b024 = !b024;
+        b025 = !b025;
+        b026 = !b026;
+        b027 = !b027;
+        b028 = !b028;
+        b029 = !b029;
+        a000[0] += 1;
+        a001[0] += 1;
+        a002[0] += 1;
+        a003[0] += 1;
+        a004[0] += 1;
+        a005[0] += 1;
+        a006[0] += 1;
+        a007[0] += 1;
+        a008[0] += 1;
+        a009[0] += 1;
+    }
+}
@@ -0,0 +1,159 @@
+package Ori.Coval.Logging.Puller;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs {@code adb} commands against one device.
+ * <p>
+ * Everything goes through the executable it was given, so any program that answers the same
+ * commands, such as a script serving files from a folder, can stand in for a real device.
+ */
+class Adb {
+
+    /**
+     * A log on the device.
+     */
+    static final class RemoteFile {
+        final String path;
+        final long size;
+        final long modified;
+
+        RemoteFile(String path, long size, long modified) {
+            this.path = path;
+            this.size = size;
+            this.modified = modified;
+        }
+
+        String name() {
+            return path.substring(path.lastIndexOf('/') + 1);
+        }
+    }
+
+    private final String executable;
+    private final String serial;
+
+    /**
+     * @param serial the device to talk to, or null for the only one connected
+     */
+    Adb(String executable, String serial) {
+        this.executable = executable;
+        this.serial = serial;
+    }
+
+    /**
+     * @return every {@code .wpilog} and {@code .wpilog.gz} file under {@code root}
+     */
+    List<RemoteFile> listLogs(String root) throws IOException {
+        String out = shell("find " + quote(root) + " -type f \\( -name '*.wpilog' -o -name '*.wpilog.gz' \\)"
+                + " -exec stat -c '%s %Y %n' {} + 2>/dev/null", true);
+        List<RemoteFile> files = new ArrayList<>();
+        for (String line : out.split("\n")) {
+            line = line.trim();
+            if (line.isEmpty()) continue;
+            String[] parts = line.split(" ", 3);
+            if (parts.length < 3) throw new IOException("unexpected stat output: " + line);
+            try {
+                files.add(new RemoteFile(parts[2], Long.parseLong(parts[0]), Long.parseLong(parts[1])));
+            } catch (NumberFormatException e) {
+                throw new IOException("unexpected stat output: " + line, e);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * @return the MD5 of the file on the device, as lowercase hex
+     */
+    String md5(String path) throws IOException {
+        String out = shell("md5sum " + quote(path), false).trim();
+        int space = out.indexOf(' ');
+        String hash = space < 0 ? out : out.substring(0, space);
+        if (hash.length() != 32) throw new IOException("unexpected md5sum output: " + out);
+        return hash.toLowerCase();
+    }
+
+    /**
+     * Streams the file from byte {@code offset} on into {@code out}.
+     *
+     * @return how many bytes were copied
+     */
+    long copy(String path, long offset, OutputStream out) throws IOException {
+        String command = offset == 0 ? "cat " + quote(path) : "tail -c +" + (offset + 1) + " " + quote(path);
+        Process process = start("exec-out", command);
+        long copied = 0;
+        try (InputStream in = process.getInputStream()) {
+            byte[] buf = new byte[64 * 1024];
+            int n;
+            while ((n = in.read(buf)) > 0) {
+                out.write(buf, 0, n);
+                copied += n;
+            }
+        }
+        finish(process, command);
+        return copied;
+    }
+
+    void delete(String path) throws IOException {
+        shell("rm " + quote(path), false);
+    }
+
+    private String shell(String command, boolean allowFailure) throws IOException {
+        Process process = start("shell", command);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = process.getInputStream()) {
+            byte[] buf = new byte[8192];
+            int n;
+            while ((n = in.read(buf)) > 0) out.write(buf, 0, n);
+        }
+        int code = waitFor(process);
+        if (code != 0 && !allowFailure) throw new IOException("adb shell " + command + " failed with exit code " + code);
+        // adb on older devices turns \n into \r\n on the shell channel
+        return new String(out.toByteArray(), StandardCharsets.UTF_8).replace("\r", "");
+    }
+
+    private Process start(String... args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(executable);
+        if (serial != null) {
+            command.add("-s");
+            command.add(serial);
+        }
+        command.addAll(Arrays.asList(args));
+        ProcessBuilder builder = new ProcessBuilder(command);
+        builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+        try {
+            return builder.start();
+        } catch (IOException e) {
+            throw new IOException("could not run adb at " + executable, e);
+        }
+    }
+
+    private void finish(Process process, String command) throws IOException {
+        int code = waitFor(process);
+        if (code != 0) throw new IOException("adb " + command + " failed with exit code " + code);
+    }
+
+    private static int waitFor(Process process) throws IOException {
+        try {
+            return process.waitFor();
+        } catch (InterruptedException e) {
+            process.destroy();
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted", e);
+        }
+    }
+
+    /**
+     * @return {@code s} quoted for the device shell
+     */
+    static String quote(String s) {
+        return "'" + s.replace("'", "'\\''") + "'";
+    }
+}
@@ -0,0 +1,291 @@
+package Ori.Coval.Logging.Puller;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Copies robot logs from the Control Hub over ADB, on any OS with a JVM.
+ * <p>
+ * Only logs that are new or have grown since the last run are transferred. A log that grew is
+ * continued from where the local copy ends, and an interrupted transfer is continued from its
+ * {@code .part} file. Every copy is checked against the MD5 of the file on the device before it is
+ * kept, and only then, if asked, deleted from the device.
+ *
+ * <pre>
+ * koala-pull --dest ~/logs [--adb path/to/adb] [--serial id] [--remote /sdcard/Android/data]
+ *            [--parallel 3] [--delete]
+ * </pre>
+ */
+public final class LogPuller {
+
+    private static final String DEFAULT_REMOTE = "/sdcard/Android/data";
+    private static final String PART_SUFFIX = ".part";
+
+    private enum Outcome { SKIPPED, PULLED, RESUMED, FAILED }
+
+    private final Adb adb;
+    private final File dest;
+    private final String remoteRoot;
+    private final int parallel;
+    private final boolean delete;
+    private Manifest manifest;
+
+    LogPuller(Adb adb, File dest, String remoteRoot, int parallel, boolean delete) {
+        this.adb = adb;
+        this.dest = dest;
+        this.remoteRoot = remoteRoot;
+        this.parallel = parallel;
+        this.delete = delete;
+    }
+
+    public static void main(String[] args) {
+        String adbPath = System.getenv("ADB") != null ? System.getenv("ADB") : "adb";
+        String serial = null;
+        String remote = DEFAULT_REMOTE;
+        File dest = null;
+        int parallel = 3;
+        boolean delete = false;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--adb":
+                        adbPath = value(args, ++i);
+                        break;
+                    case "--serial":
+                        serial = value(args, ++i);
+                        break;
+                    case "--remote":
+                        remote = value(args, ++i);
+                        break;
+                    case "--dest":
+                        dest = new File(value(args, ++i));
+                        break;
+                    case "--parallel":
+                        parallel = Integer.parseInt(value(args, ++i));
+                        if (parallel < 1) throw new IllegalArgumentException("--parallel must be at least 1");
+                        break;
+                    case "--delete":
+                        delete = true;
+                        break;
+                    case "--help":
+                        usage();
+                        return;
+                    default:
+                        throw new IllegalArgumentException("unknown option " + args[i]);
+                }
+            }
+            if (dest == null) throw new IllegalArgumentException("--dest is required");
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            usage();
+            System.exit(2);
+            return;
+        }
+
+        try {
+            int failed = new LogPuller(new Adb(adbPath, serial), dest, remote, parallel, delete).run();
+            System.exit(failed == 0 ? 0 : 1);
+        } catch (IOException e) {
+            System.err.println("error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) throw new IllegalArgumentException(args[i - 1] + " needs a value");
+        return args[i];
+    }
+
+    private static void usage() {
+        System.err.println("usage: koala-pull --dest <dir> [--adb <path>] [--serial <id>] [--remote <dir>]"
+                + " [--parallel <n>] [--delete]");
+        System.err.println("  --adb       adb executable, default $ADB or adb on the PATH");
+        System.err.println("  --remote    device folder searched for logs, default " + DEFAULT_REMOTE);
+        System.err.println("  --parallel  logs transferred at once, default 3");
+        System.err.println("  --delete    delete each log from the device once its copy is verified");
+    }
+
+    /**
+     * @return how many logs failed
+     */
+    int run() throws IOException {
+        if (!dest.isDirectory() && !dest.mkdirs()) throw new IOException("could not create " + dest);
+        manifest = Manifest.load(dest);
+
+        List<Adb.RemoteFile> logs = adb.listLogs(remoteRoot);
+        if (logs.isEmpty()) {
+            System.out.println("No logs found in " + remoteRoot);
+            return 0;
+        }
+
+        // names are chosen up front so two logs with the same name never race for one file
+        Set<String> names = new HashSet<>();
+        ExecutorService pool = Executors.newFixedThreadPool(parallel);
+        List<Future<Outcome>> results = new ArrayList<>();
+        for (Adb.RemoteFile log : logs) {
+            String name = localName(log, names);
+            results.add(pool.submit(() -> sync(log, name)));
+        }
+        pool.shutdown();
+
+        int[] counts = new int[Outcome.values().length];
+        for (Future<Outcome> result : results) {
+            try {
+                counts[result.get().ordinal()]++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted", e);
+            } catch (ExecutionException e) {
+                counts[Outcome.FAILED.ordinal()]++;
+            }
+        }
+        System.out.printf(Locale.US, "%d pulled, %d resumed, %d up to date, %d failed%n",
+                counts[Outcome.PULLED.ordinal()], counts[Outcome.RESUMED.ordinal()],
+                counts[Outcome.SKIPPED.ordinal()], counts[Outcome.FAILED.ordinal()]);
+        return counts[Outcome.FAILED.ordinal()];
+    }
+
+    private String localName(Adb.RemoteFile log, Set<String> taken) {
+        Manifest.Entry known = manifest.get(log.path);
+        String name = known != null ? known.localName : log.name();
+        if (known == null && (taken.contains(name) || manifest.isTaken(name, log.path))) {
+            // the same name in another app's folder
+            String parent = log.path.substring(0, log.path.length() - log.name().length() - 1);
+            String prefix = parent.substring(parent.lastIndexOf('/') + 1) + "_";
+            name = prefix + log.name();
+            for (int i = 2; taken.contains(name) || manifest.isTaken(name, log.path); i++) {
+                name = prefix + i + "_" + log.name();
+            }
+        }
+        taken.add(name);
+        return name;
+    }
+
+    private Outcome sync(Adb.RemoteFile log, String name) {
+        try {
+            return transfer(log, name);
+        } catch (IOException e) {
+            System.err.println("Failed " + name + ": " + e.getMessage());
+            return Outcome.FAILED;
+        }
+    }
+
+    private Outcome transfer(Adb.RemoteFile log, String name) throws IOException {
+        File local = new File(dest, name);
+        File part = new File(dest, name + PART_SUFFIX);
+        Manifest.Entry known = manifest.get(log.path);
+
+        if (known != null && known.size == log.size && known.modified == log.modified
+                && local.length() == log.size) {
+            if (delete) deleteRemote(log, known);
+            return Outcome.SKIPPED;
+        }
+
+        long offset = 0;
+        if (part.exists() && part.length() <= log.size) {
+            offset = part.length();
+        } else if (local.exists() && local.length() <= log.size) {
+            // grown since the last pull, or pulled by an older tool: continue the copy we have
+            Files.move(local.toPath(), part.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            offset = part.length();
+        } else {
+            Files.deleteIfExists(part.toPath());
+        }
+
+        String md5 = offset == log.size ? null : copy(log, part, offset);
+        String remoteMd5 = adb.md5(log.path);
+        if (md5 == null) md5 = md5(part);
+        if (!md5.equals(remoteMd5) && offset > 0) {
+            // the start changed, not just the end; take it again from scratch
+            Files.delete(part.toPath());
+            offset = 0;
+            md5 = copy(log, part, 0);
+            remoteMd5 = adb.md5(log.path);
+        }
+        if (!md5.equals(remoteMd5)) {
+            Files.delete(part.toPath());
+            throw new IOException("copy does not match the device, is it still being written?");
+        }
+
+        Files.move(part.toPath(), local.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        long size = local.length();
+        Manifest.Entry entry = new Manifest.Entry(log.path, size, log.modified, md5, name, false);
+        manifest.put(entry);
+        if (offset == size) {
+            // only the modification time changed
+            if (delete) deleteRemote(log, entry);
+            return Outcome.SKIPPED;
+        }
+        System.out.printf(Locale.US, "%s %s (%.1f MB)%n", offset > 0 ? "Resumed" : "Pulled", name, size / 1e6);
+
+        if (delete) deleteRemote(log, entry);
+        return offset > 0 ? Outcome.RESUMED : Outcome.PULLED;
+    }
+
+    /**
+     * Appends the device file from {@code offset} on to {@code part}.
+     *
+     * @return the MD5 of all of {@code part} afterwards
+     */
+    private String copy(Adb.RemoteFile log, File part, long offset) throws IOException {
+        MessageDigest digest = newMd5();
+        if (offset > 0) update(digest, part);
+        try (OutputStream out = new DigestOutputStream(new FileOutputStream(part, true), digest)) {
+            adb.copy(log.path, offset, out);
+        }
+        return hex(digest.digest());
+    }
+
+    private void deleteRemote(Adb.RemoteFile log, Manifest.Entry entry) throws IOException {
+        if (entry.deleted) return;
+        adb.delete(log.path);
+        manifest.put(new Manifest.Entry(entry.remotePath, entry.size, entry.modified, entry.md5, entry.localName, true));
+        System.out.println("Deleted " + log.path + " from the device");
+    }
+
+    private static String md5(File f) throws IOException {
+        MessageDigest digest = newMd5();
+        update(digest, f);
+        return hex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, File f) throws IOException {
+        try (InputStream in = new FileInputStream(f)) {
+            byte[] buf = new byte[64 * 1024];
+            int n;
+            while ((n = in.read(buf)) > 0) digest.update(buf, 0, n);
+        }
+    }
+
+    private static MessageDigest newMd5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("every JVM has MD5", e);
+        }
+    }
+
+    private static String hex(byte[] b) {
+        StringBuilder s = new StringBuilder(b.length * 2);
+        for (byte x : b) s.append(String.format("%02x", x));
+        return s.toString();
+    }
+}
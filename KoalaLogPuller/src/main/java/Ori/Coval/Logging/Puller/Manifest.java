@@ -0,0 +1,107 @@
+package Ori.Coval.Logging.Puller;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * What has been pulled into a folder, so later runs only transfer what is new or has grown.
+ * <p>
+ * Stored next to the logs as tab-separated lines: remote path, size, modification time, MD5,
+ * local file name and whether the log was deleted from the device. Every change is saved at
+ * once, through a temporary file, so an interrupted run never leaves it half written.
+ */
+class Manifest {
+
+    static final String FILE_NAME = ".koala-pull-manifest.tsv";
+    private static final String HEADER = "# koala-pull manifest v1";
+
+    static final class Entry {
+        final String remotePath;
+        final long size;
+        final long modified;
+        final String md5;
+        final String localName;
+        final boolean deleted;
+
+        Entry(String remotePath, long size, long modified, String md5, String localName, boolean deleted) {
+            this.remotePath = remotePath;
+            this.size = size;
+            this.modified = modified;
+            this.md5 = md5;
+            this.localName = localName;
+            this.deleted = deleted;
+        }
+    }
+
+    private final File file;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    private Manifest(File file) {
+        this.file = file;
+    }
+
+    static Manifest load(File dir) throws IOException {
+        Manifest manifest = new Manifest(new File(dir, FILE_NAME));
+        if (!manifest.file.exists()) return manifest;
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new FileInputStream(manifest.file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] f = line.split("\t", -1);
+                if (f.length != 6) throw new IOException("bad manifest line in " + manifest.file + ": " + line);
+                try {
+                    manifest.entries.put(f[0], new Entry(f[0], Long.parseLong(f[1]), Long.parseLong(f[2]),
+                            f[3], f[4], Boolean.parseBoolean(f[5])));
+                } catch (NumberFormatException e) {
+                    throw new IOException("bad manifest line in " + manifest.file + ": " + line, e);
+                }
+            }
+        }
+        return manifest;
+    }
+
+    synchronized Entry get(String remotePath) {
+        return entries.get(remotePath);
+    }
+
+    /**
+     * @return whether another remote log already uses this local name
+     */
+    synchronized boolean isTaken(String localName, String remotePath) {
+        for (Entry e : entries.values()) {
+            if (e.localName.equals(localName) && !e.remotePath.equals(remotePath)) return true;
+        }
+        return false;
+    }
+
+    synchronized void put(Entry entry) throws IOException {
+        entries.put(entry.remotePath, entry);
+        save();
+    }
+
+    private void save() throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8))) {
+            out.write(HEADER);
+            out.write('\n');
+            for (Entry e : entries.values()) {
+                out.write(e.remotePath + '\t' + e.size + '\t' + e.modified + '\t' + e.md5 + '\t'
+                        + e.localName + '\t' + e.deleted + '\n');
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,171 @@
+package Ori.Coval.Logging.Puller;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Pulls from a folder standing in for the device, through the {@code fake-adb} script.
+ */
+public class LogPullerTest {
+
+    private static final String LOG = "FIRST/match1.wpilog";
+
+    private File root;
+    private File device;
+    private File dest;
+    private File adb;
+    private PrintStream stdout;
+    private ByteArrayOutputStream printed;
+
+    @Before
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("koala-pull").toFile();
+        device = new File(root, "device");
+        dest = new File(root, "dest");
+        adb = new File(root, "fake-adb");
+        try (InputStream in = LogPullerTest.class.getResourceAsStream("/fake-adb")) {
+            Files.copy(in, adb.toPath());
+        }
+        assertTrue(adb.setExecutable(true));
+        assertTrue(new File(device, "FIRST").mkdirs());
+
+        stdout = System.out;
+        printed = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(printed, true, "UTF-8"));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        System.setOut(stdout);
+        delete(root);
+    }
+
+    @Test
+    public void freshLogIsPulled() throws IOException {
+        byte[] log = log(100_000, 1);
+        put(LOG, log, 1000);
+
+        assertEquals(0, pull(false));
+        assertPrinted("Pulled match1.wpilog");
+        assertArrayEquals(log, local("match1.wpilog"));
+        assertFalse(new File(dest, "match1.wpilog.part").exists());
+
+        assertEquals(0, pull(false));
+        assertPrinted("0 pulled, 0 resumed, 1 up to date, 0 failed");
+    }
+
+    @Test
+    public void interruptedTransferIsResumedFromItsPart() throws IOException {
+        byte[] log = log(100_000, 1);
+        put(LOG, log, 1000);
+        assertTrue(dest.mkdirs());
+        Files.write(new File(dest, "match1.wpilog.part").toPath(), Arrays.copyOf(log, 40_000));
+
+        assertEquals(0, pull(false));
+        assertPrinted("Resumed match1.wpilog");
+        assertArrayEquals(log, local("match1.wpilog"));
+        assertFalse(new File(dest, "match1.wpilog.part").exists());
+    }
+
+    @Test
+    public void grownLogIsContinued() throws IOException {
+        byte[] log = log(100_000, 1);
+        put(LOG, Arrays.copyOf(log, 60_000), 1000);
+        assertEquals(0, pull(false));
+
+        put(LOG, log, 2000);
+        assertEquals(0, pull(false));
+        assertPrinted("Resumed match1.wpilog");
+        assertArrayEquals(log, local("match1.wpilog"));
+    }
+
+    @Test
+    public void rewrittenLogIsPulledAgain() throws IOException {
+        put(LOG, log(60_000, 1), 1000);
+        assertEquals(0, pull(false));
+
+        // longer than the local copy, so it is continued first; the MD5 then shows the start changed
+        byte[] rewritten = log(100_000, 7);
+        put(LOG, rewritten, 2000);
+        assertEquals(0, pull(false));
+        assertPrinted("Pulled match1.wpilog");
+        assertArrayEquals(rewritten, local("match1.wpilog"));
+        assertFalse(new File(dest, "match1.wpilog.part").exists());
+    }
+
+    @Test
+    public void deleteRemovesOnlyVerifiedLogs() throws IOException {
+        byte[] log = log(100_000, 1);
+        put(LOG, log, 1000);
+        put("SECOND/match1.wpilog.gz", log(5_000, 3), 1000);
+
+        assertEquals(0, pull(true));
+        assertArrayEquals(log, local("match1.wpilog"));
+        assertArrayEquals(log(5_000, 3), local("match1.wpilog.gz"));
+        assertFalse(new File(device, LOG).exists());
+        assertFalse(new File(device, "SECOND/match1.wpilog.gz").exists());
+
+        Manifest manifest = Manifest.load(dest);
+        assertTrue(manifest.get(new File(device, LOG).getPath()).deleted);
+
+        assertEquals(0, pull(true));
+        assertPrinted("No logs found");
+        assertArrayEquals(log, local("match1.wpilog"));
+    }
+
+    private int pull(boolean delete) throws IOException {
+        printed.reset();
+        return new LogPuller(new Adb(adb.getPath(), null), dest, device.getPath(), 2, delete).run();
+    }
+
+    private void assertPrinted(String text) {
+        String out = new String(printed.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(out, out.contains(text));
+    }
+
+    private void put(String path, byte[] content, long modifiedSeconds) throws IOException {
+        File f = new File(device, path);
+        f.getParentFile().mkdirs();
+        File tmp = new File(root, "upload");
+        Files.write(tmp.toPath(), content, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        Files.move(tmp.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        assertTrue(f.setLastModified(modifiedSeconds * 1000));
+    }
+
+    private byte[] local(String name) throws IOException {
+        return Files.readAllBytes(new File(dest, name).toPath());
+    }
+
+    private static byte[] log(int size, int seed) {
+        byte[] b = new byte[size];
+        for (int i = 0; i < size; i++) {
+            b[i] = (byte) (i * 31 + seed);
+        }
+        return b;
+    }
+
+    private static void delete(File f) throws IOException {
+        File[] children = f.listFiles();
+        if (children != null) {
+            for (File child : children) delete(child);
+        }
+        Files.deleteIfExists(f.toPath());
+    }
+}
@@ -0,0 +1,97 @@
+package Ori.Coval.Logging.Reader;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * One entry of a log, from its start record, with the offsets of all its records.
+ * <p>
+ * An entry ID may be reused after the entry is finished; each start is its own {@code EntryInfo}.
+ */
+public final class EntryInfo {
+    private final int id;
+    private final String name;
+    private final String type;
+    private String metadata;
+    final long startOffset;
+    long finishOffset = -1;
+
+    int[] offsets = new int[16];
+    int count;
+    // record offsets are in file order; sorted by timestamp the first time a time range is asked for
+    private boolean sorted;
+
+    EntryInfo(int id, String name, String type, String metadata, long startOffset) {
+        this.id = id;
+        this.name = name;
+        this.type = type;
+        this.metadata = metadata;
+        this.startOffset = startOffset;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the WPILOG type string, e.g. {@code double[]} or {@code struct:Pose2d}
+     */
+    public String getType() {
+        return type;
+    }
+
+    public String getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * @return how many data records the entry has
+     */
+    public int getRecordCount() {
+        return count;
+    }
+
+    /**
+     * @return whether the log finishes the entry before it ends
+     */
+    public boolean isFinished() {
+        return finishOffset >= 0;
+    }
+
+    void setMetadata(String metadata) {
+        this.metadata = metadata;
+    }
+
+    void add(int offset) {
+        if (count == offsets.length) offsets = Arrays.copyOf(offsets, count * 2);
+        offsets[count++] = offset;
+    }
+
+    /**
+     * Puts the record offsets in timestamp order, keeping file order between equal timestamps.
+     */
+    synchronized void sortByTime(WpiLogReader reader) {
+        if (sorted) return;
+        sorted = true;
+        boolean inOrder = true;
+        for (int i = 1; i < count && inOrder; i++) {
+            inOrder = reader.timestampAt(offsets[i - 1]) <= reader.timestampAt(offsets[i]);
+        }
+        if (inOrder) return;
+
+        // records from different threads may reach the file slightly out of order
+        Integer[] boxed = new Integer[count];
+        for (int i = 0; i < count; i++) boxed[i] = offsets[i];
+        Arrays.sort(boxed, Comparator.comparingLong(reader::timestampAt));
+        for (int i = 0; i < count; i++) offsets[i] = boxed[i];
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + type + ", " + count + " records)";
+    }
+}
@@ -0,0 +1,161 @@
+package Ori.Coval.Logging.Reader;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One data record, read straight from the mapped log when a value is asked for.
+ * Values are decoded as the WPILOG type says; asking for another type reinterprets the bytes.
+ */
+public final class LogRecord {
+    private final WpiLogReader reader;
+    private final EntryInfo entry;
+    private final long timestamp;
+    private final int payload;
+    private final int size;
+
+    LogRecord(WpiLogReader reader, EntryInfo entry, long timestamp, int payload, int size) {
+        this.reader = reader;
+        this.entry = entry;
+        this.timestamp = timestamp;
+        this.payload = payload;
+        this.size = size;
+    }
+
+    public EntryInfo getEntry() {
+        return entry;
+    }
+
+    /**
+     * @return microseconds since the log was set up
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return payload size in bytes
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public byte[] getRaw() {
+        byte[] b = new byte[size];
+        view().get(b);
+        return b;
+    }
+
+    public boolean getBoolean() {
+        return reader.buffer().get(payload) != 0;
+    }
+
+    public long getLong() {
+        return reader.buffer().getLong(payload);
+    }
+
+    public float getFloat() {
+        return reader.buffer().getFloat(payload);
+    }
+
+    public double getDouble() {
+        return reader.buffer().getDouble(payload);
+    }
+
+    public String getString() {
+        return new String(getRaw(), StandardCharsets.UTF_8);
+    }
+
+    public boolean[] getBooleanArray() {
+        ByteBuffer v = view();
+        boolean[] a = new boolean[size];
+        for (int i = 0; i < a.length; i++) a[i] = v.get() != 0;
+        return a;
+    }
+
+    public long[] getLongArray() {
+        long[] a = new long[size / 8];
+        view().asLongBuffer().get(a);
+        return a;
+    }
+
+    public float[] getFloatArray() {
+        float[] a = new float[size / 4];
+        view().asFloatBuffer().get(a);
+        return a;
+    }
+
+    public double[] getDoubleArray() {
+        double[] a = new double[size / 8];
+        view().asDoubleBuffer().get(a);
+        return a;
+    }
+
+    /**
+     * @throws IllegalStateException if the payload is not a valid string array
+     */
+    public String[] getStringArray() {
+        ByteBuffer v = view();
+        if (size < 4) throw new IllegalStateException("not a string array");
+        int n = v.getInt();
+        if (n < 0 || n > (size - 4) / 4) throw new IllegalStateException("not a string array");
+        String[] a = new String[n];
+        for (int i = 0; i < n; i++) {
+            int len = v.remaining() >= 4 ? v.getInt() : -1;
+            if (len < 0 || len > v.remaining()) throw new IllegalStateException("not a string array");
+            byte[] b = new byte[len];
+            v.get(b);
+            a[i] = new String(b, StandardCharsets.UTF_8);
+        }
+        return a;
+    }
+
+    /**
+     * Decodes a {@code struct:Name} value with the schema logged under {@code /.schema/struct:Name}.
+     *
+     * @return field names to values, see {@link StructSchema#decode}
+     * @throws IllegalStateException if the entry is not a struct or its schema is not in the log
+     */
+    public Map<String, Object> getStruct() {
+        return schema(false).decode(reader.buffer(), payload);
+    }
+
+    /**
+     * Decodes a {@code struct:Name[]} value.
+     */
+    public List<Map<String, Object>> getStructArray() {
+        StructSchema schema = schema(true);
+        int n = schema.getSize() == 0 ? 0 : size / schema.getSize();
+        List<Map<String, Object>> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            list.add(schema.decode(reader.buffer(), payload + i * schema.getSize()));
+        }
+        return list;
+    }
+
+    private StructSchema schema(boolean array) {
+        String type = entry.getType();
+        if (!type.startsWith("struct:") || type.endsWith("[]") != array) {
+            throw new IllegalStateException(entry.getName() + " is " + type);
+        }
+        String name = type.substring("struct:".length(), type.length() - (array ? 2 : 0));
+        StructSchema schema = reader.getStructSchema(name);
+        if (schema == null) throw new IllegalStateException("no schema for struct " + name + " in the log");
+        return schema;
+    }
+
+    private ByteBuffer view() {
+        ByteBuffer v = reader.buffer().duplicate();
+        v.limit(payload + size).position(payload);
+        return v.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    public String toString() {
+        return entry.getName() + " @ " + timestamp;
+    }
+}
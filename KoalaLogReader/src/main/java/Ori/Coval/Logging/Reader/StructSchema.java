@@ -0,0 +1,276 @@
+package Ori.Coval.Logging.Reader;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A WPILib struct schema, such as {@code double x;double y;Rotation2d rotation}, that decodes
+ * packed struct values.
+ * <p>
+ * Integers decode to {@link Long}, {@code float} to {@link Float}, {@code double} to
+ * {@link Double}, {@code bool} to {@link Boolean}, a {@code char} array to a {@link String},
+ * other arrays to a {@link List} and nested structs to a {@link Map}. Enum fields decode to their
+ * integer value. Bit-field members are unpacked from their shared storage.
+ */
+public final class StructSchema {
+
+    /**
+     * One declared member of the struct.
+     */
+    public static final class Field {
+        private final String name;
+        private final String type;
+        private final int arrayLength;
+        private final int bitWidth;
+        // filled in when the schema is resolved
+        StructSchema struct;
+        int offset;
+        int bitShift;
+
+        Field(String name, String type, int arrayLength, int bitWidth) {
+            this.name = name;
+            this.type = type;
+            this.arrayLength = arrayLength;
+            this.bitWidth = bitWidth;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the element type, e.g. {@code double} or {@code Translation2d}
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * @return the array length, or 0 if the field is not an array
+         */
+        public int getArrayLength() {
+            return arrayLength;
+        }
+
+        /**
+         * @return the bit-field width, or 0 if the field is not a bit-field
+         */
+        public int getBitWidth() {
+            return bitWidth;
+        }
+
+        int elementSize() {
+            return struct != null ? struct.size : primitiveSize(type);
+        }
+    }
+
+    private final String name;
+    private final List<Field> fields;
+    private int size = -1;
+
+    private StructSchema(String name, List<Field> fields) {
+        this.name = name;
+        this.fields = Collections.unmodifiableList(fields);
+    }
+
+    /**
+     * @param name   the struct name, without {@code struct:}
+     * @param schema the schema text
+     * @throws IllegalArgumentException if the schema text is malformed
+     */
+    public static StructSchema parse(String name, String schema) {
+        List<Field> fields = new ArrayList<>();
+        for (String decl : schema.split(";")) {
+            decl = decl.trim();
+            if (decl.isEmpty()) continue;
+            if (decl.startsWith("enum")) {
+                // the values only name the integers, which is all that is decoded
+                int close = decl.indexOf('}');
+                if (close < 0) throw new IllegalArgumentException("unclosed enum in " + name + ": " + decl);
+                decl = decl.substring(close + 1).trim();
+            }
+
+            int bitWidth = 0;
+            int colon = decl.indexOf(':');
+            if (colon >= 0) {
+                bitWidth = Integer.parseInt(decl.substring(colon + 1).trim());
+                decl = decl.substring(0, colon).trim();
+            }
+            int arrayLength = 0;
+            int bracket = decl.indexOf('[');
+            if (bracket >= 0) {
+                int end = decl.indexOf(']', bracket);
+                if (end < 0) throw new IllegalArgumentException("unclosed array in " + name + ": " + decl);
+                arrayLength = Integer.parseInt(decl.substring(bracket + 1, end).trim());
+                decl = decl.substring(0, bracket).trim();
+            }
+            String[] parts = decl.split("\\s+");
+            if (parts.length != 2) throw new IllegalArgumentException("bad declaration in " + name + ": " + decl);
+            fields.add(new Field(parts[1], parts[0], arrayLength, bitWidth));
+        }
+        return new StructSchema(name, fields);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Field> getFields() {
+        return fields;
+    }
+
+    /**
+     * @return the packed size in bytes
+     * @throws IllegalStateException if the schema has not been resolved
+     */
+    public int getSize() {
+        if (size < 0) throw new IllegalStateException("struct " + name + " is not resolved");
+        return size;
+    }
+
+    /**
+     * Looks up nested structs and lays out the fields.
+     *
+     * @param structs finds another struct's schema by name, or returns null
+     * @throws IllegalArgumentException if a nested struct is missing or a field type is unknown
+     */
+    void resolve(Function<String, StructSchema> structs) {
+        resolve(structs, new ArrayList<>());
+    }
+
+    private void resolve(Function<String, StructSchema> structs, List<String> resolving) {
+        if (size >= 0) return;
+        if (resolving.contains(name)) throw new IllegalArgumentException("struct " + name + " contains itself");
+        resolving.add(name);
+
+        int offset = 0;
+        // the open bit-field storage unit: its offset, size and bits used so far
+        int unitOffset = -1, unitSize = 0, unitBits = 0;
+        for (Field f : fields) {
+            if (primitiveSize(f.type) == 0) {
+                StructSchema nested = structs.apply(f.type);
+                if (nested == null) throw new IllegalArgumentException("unknown type " + f.type + " in " + name);
+                nested.resolve(structs, resolving);
+                f.struct = nested;
+            }
+            if (f.bitWidth > 0) {
+                if (f.struct != null || f.arrayLength > 0) {
+                    throw new IllegalArgumentException("bad bit-field " + f.name + " in " + name);
+                }
+                int storage = f.elementSize();
+                if (unitOffset < 0 || storage != unitSize || unitBits + f.bitWidth > storage * 8) {
+                    unitOffset = offset;
+                    unitSize = storage;
+                    unitBits = 0;
+                    offset += storage;
+                }
+                f.offset = unitOffset;
+                f.bitShift = unitBits;
+                unitBits += f.bitWidth;
+            } else {
+                unitOffset = -1;
+                f.offset = offset;
+                offset += f.elementSize() * Math.max(f.arrayLength, 1);
+            }
+        }
+        size = offset;
+        resolving.remove(name);
+    }
+
+    /**
+     * @param off where the packed value starts in {@code buf}, which must be little-endian
+     * @return field names to values, in declaration order
+     */
+    public Map<String, Object> decode(ByteBuffer buf, int off) {
+        getSize();
+        Map<String, Object> value = new LinkedHashMap<>();
+        for (Field f : fields) {
+            int p = off + f.offset;
+            if (f.bitWidth > 0) {
+                long unit = readInteger(buf, p, f.elementSize(), false);
+                long bits = unit >>> f.bitShift & (f.bitWidth == 64 ? -1L : (1L << f.bitWidth) - 1);
+                value.put(f.name, f.type.equals("bool") ? (Object) (bits != 0) : (Object) bits);
+            } else if (f.arrayLength > 0 && f.type.equals("char")) {
+                byte[] b = new byte[f.arrayLength];
+                for (int i = 0; i < b.length; i++) b[i] = buf.get(p + i);
+                int len = b.length;
+                while (len > 0 && b[len - 1] == 0) len--;
+                value.put(f.name, new String(b, 0, len, StandardCharsets.UTF_8));
+            } else if (f.arrayLength > 0) {
+                List<Object> list = new ArrayList<>(f.arrayLength);
+                for (int i = 0; i < f.arrayLength; i++) list.add(decodeOne(f, buf, p + i * f.elementSize()));
+                value.put(f.name, list);
+            } else {
+                value.put(f.name, decodeOne(f, buf, p));
+            }
+        }
+        return value;
+    }
+
+    private static Object decodeOne(Field f, ByteBuffer buf, int p) {
+        if (f.struct != null) return f.struct.decode(buf, p);
+        switch (f.type) {
+            case "bool":
+                return buf.get(p) != 0;
+            case "char":
+                return String.valueOf((char) (buf.get(p) & 0xFF));
+            case "float":
+            case "float32":
+                return buf.getFloat(p);
+            case "double":
+            case "float64":
+                return buf.getDouble(p);
+            default:
+                return readInteger(buf, p, primitiveSize(f.type), f.type.startsWith("int"));
+        }
+    }
+
+    private static long readInteger(ByteBuffer buf, int p, int size, boolean signed) {
+        long v = 0;
+        for (int i = 0; i < size; i++) v |= (buf.get(p + i) & 0xFFL) << (i * 8);
+        if (signed && size < 8) {
+            int unused = 64 - size * 8;
+            v = v << unused >> unused;
+        }
+        return v;
+    }
+
+    /**
+     * @return the size of a built-in type, or 0 for a struct name
+     */
+    static int primitiveSize(String type) {
+        switch (type) {
+            case "bool":
+            case "char":
+            case "int8":
+            case "uint8":
+                return 1;
+            case "int16":
+            case "uint16":
+                return 2;
+            case "int32":
+            case "uint32":
+            case "float":
+            case "float32":
+                return 4;
+            case "int64":
+            case "uint64":
+            case "double":
+            case "float64":
+                return 8;
+            default:
+                return 0;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "struct:" + name;
+    }
+}
@@ -0,0 +1,380 @@
+package Ori.Coval.Logging.Reader;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads a WPILOG file through a read-only memory map.
+ * <p>
+ * Opening indexes the offset of every record by entry, so values are only decoded when asked for
+ * and a time range is found by binary search. If the file ends with the index KoalaLog appends
+ * with {@code KoalaLog.setFooterIndex}, opening reads that instead of scanning the whole file.
+ * A log cut off by a crash is read up to its last complete record.
+ * <p>
+ * Once open, a reader is safe to use from several threads. Files over 2 GB are not supported.
+ *
+ * <pre> {@code
+ * try (WpiLogReader log = WpiLogReader.open(new File("match.wpilog"))) {
+ *     EntryInfo x = log.getEntry("Drive/pose");
+ *     for (LogRecord r : log.getRecords(x, 10_000_000, 20_000_000)) {
+ *         Map<String, Object> pose = r.getStruct();
+ *     }
+ * }
+ * }</pre>
+ */
+public final class WpiLogReader implements Closeable {
+
+    static final String INDEX_ENTRY = "/.koala/index";
+    private static final byte[] INDEX_MAGIC = "KOALAIDX".getBytes(StandardCharsets.US_ASCII);
+    private static final int INDEX_VERSION = 1;
+    private static final String SCHEMA_PREFIX = "/.schema/struct:";
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buf;
+    private final int length;
+    private final String extraHeader;
+    private final int headerEnd;
+    private final boolean footerIndex;
+
+    private final List<EntryInfo> entries = new ArrayList<>();
+    private final Map<String, EntryInfo> byName = new HashMap<>();
+    private final Map<String, StructSchema> structs = new ConcurrentHashMap<>();
+
+    private WpiLogReader(RandomAccessFile file, MappedByteBuffer buf, int length) throws IOException {
+        this.file = file;
+        this.buf = buf;
+        this.length = length;
+
+        if (length < 12 || !startsWithMagic()) throw new IOException("not a WPILOG file");
+        int extraLen = buf.getInt(8);
+        if (extraLen < 0 || extraLen > length - 12) throw new IOException("WPILOG header is cut off");
+        byte[] extra = new byte[extraLen];
+        for (int i = 0; i < extraLen; i++) extra[i] = buf.get(12 + i);
+        extraHeader = new String(extra, StandardCharsets.UTF_8);
+        headerEnd = 12 + extraLen;
+
+        footerIndex = readFooterIndex();
+        if (!footerIndex) scan();
+    }
+
+    /**
+     * Maps and indexes a log.
+     *
+     * @throws IOException if the file cannot be read, is not a WPILOG, or is over 2 GB
+     */
+    public static WpiLogReader open(File f) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(f, "r");
+        try {
+            long length = file.length();
+            if (length > Integer.MAX_VALUE) throw new IOException("logs over 2 GB are not supported");
+            MappedByteBuffer buf = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+            return new WpiLogReader(file, buf, (int) length);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the extra header string of the file
+     */
+    public String getExtraHeader() {
+        return extraHeader;
+    }
+
+    /**
+     * @return whether the file was opened from its footer index rather than scanned
+     */
+    public boolean hasFooterIndex() {
+        return footerIndex;
+    }
+
+    /**
+     * @return every entry, in the order they were started
+     */
+    public List<EntryInfo> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * @return the last entry started with this name, or null
+     */
+    public EntryInfo getEntry(String name) {
+        return byName.get(name);
+    }
+
+    /**
+     * @return every record of the entry, in file order
+     */
+    public List<LogRecord> getRecords(EntryInfo entry) {
+        int[] offsets;
+        synchronized (entry) {
+            offsets = Arrays.copyOf(entry.offsets, entry.count);
+        }
+        // a time range asked for earlier leaves them in timestamp order
+        Arrays.sort(offsets);
+        List<LogRecord> records = new ArrayList<>(offsets.length);
+        for (int offset : offsets) records.add(recordAt(entry, offset));
+        return records;
+    }
+
+    /**
+     * @param startMicros first timestamp included
+     * @param endMicros   first timestamp no longer included
+     * @return the entry's records in the time range, in timestamp order
+     */
+    public List<LogRecord> getRecords(EntryInfo entry, long startMicros, long endMicros) {
+        entry.sortByTime(this);
+        int from = lowerBound(entry, startMicros);
+        int to = lowerBound(entry, endMicros);
+        List<LogRecord> records = new ArrayList<>(Math.max(to - from, 0));
+        for (int i = from; i < to; i++) records.add(recordAt(entry, entry.offsets[i]));
+        return records;
+    }
+
+    /**
+     * @return the entry's last record at or before {@code micros}, or null
+     */
+    public LogRecord getLatest(EntryInfo entry, long micros) {
+        entry.sortByTime(this);
+        int i = lowerBound(entry, micros + 1) - 1;
+        return i >= 0 ? recordAt(entry, entry.offsets[i]) : null;
+    }
+
+    /**
+     * @param name the struct name, without {@code struct:}
+     * @return its schema from the last {@code /.schema/struct:} record for it, or null if the
+     * log has none
+     * @throws IllegalArgumentException if the schema or one it contains is malformed
+     */
+    public StructSchema getStructSchema(String name) {
+        StructSchema schema = structs.get(name);
+        if (schema != null) return schema;
+        synchronized (structs) {
+            schema = structs.get(name);
+            if (schema != null) return schema;
+            Map<String, StructSchema> parsed = new HashMap<>();
+            schema = parseSchema(name, parsed);
+            if (schema == null) return null;
+            schema.resolve(n -> parseSchema(n, parsed));
+            structs.putAll(parsed);
+            return schema;
+        }
+    }
+
+    private StructSchema parseSchema(String name, Map<String, StructSchema> parsed) {
+        StructSchema schema = structs.get(name);
+        if (schema == null) schema = parsed.get(name);
+        if (schema != null) return schema;
+        EntryInfo entry = byName.get(SCHEMA_PREFIX + name);
+        if (entry == null || entry.count == 0) return null;
+        schema = StructSchema.parse(name, recordAt(entry, entry.offsets[entry.count - 1]).getString());
+        parsed.put(name, schema);
+        return schema;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // the mapping itself is released once the buffer is unreachable
+        file.close();
+    }
+
+    ByteBuffer buffer() {
+        return buf;
+    }
+
+    long timestampAt(int offset) {
+        int bits = buf.get(offset) & 0xFF;
+        int idLen = (bits & 0x3) + 1;
+        int sizeLen = (bits >> 2 & 0x3) + 1;
+        return readLe(offset + 1 + idLen + sizeLen, (bits >> 4 & 0x7) + 1);
+    }
+
+    private LogRecord recordAt(EntryInfo entry, int offset) {
+        int bits = buf.get(offset) & 0xFF;
+        int idLen = (bits & 0x3) + 1;
+        int sizeLen = (bits >> 2 & 0x3) + 1;
+        int tsLen = (bits >> 4 & 0x7) + 1;
+        int size = (int) readLe(offset + 1 + idLen, sizeLen);
+        long ts = readLe(offset + 1 + idLen + sizeLen, tsLen);
+        return new LogRecord(this, entry, ts, offset + 1 + idLen + sizeLen + tsLen, size);
+    }
+
+    private int lowerBound(EntryInfo entry, long micros) {
+        int lo = 0, hi = entry.count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (timestampAt(entry.offsets[mid]) < micros) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // --- Indexing ---
+
+    /**
+     * Walks every record once, stopping at the first one that is incomplete.
+     */
+    private void scan() {
+        Map<Integer, EntryInfo> open = new HashMap<>();
+        int p = headerEnd;
+        while (p < length) {
+            int bits = buf.get(p) & 0xFF;
+            int idLen = (bits & 0x3) + 1;
+            int sizeLen = (bits >> 2 & 0x3) + 1;
+            int tsLen = (bits >> 4 & 0x7) + 1;
+            int payload = p + 1 + idLen + sizeLen + tsLen;
+            if (payload > length) return;
+            long id = readLe(p + 1, idLen);
+            long size = readLe(p + 1 + idLen, sizeLen);
+            if (size > length - payload) return;
+
+            if (id == 0) {
+                if (!control(open, p, payload, (int) size)) return;
+            } else {
+                EntryInfo entry = open.get((int) id);
+                if (entry != null) entry.add(p);
+            }
+            p = payload + (int) size;
+        }
+    }
+
+    /**
+     * @return false if the control record is malformed, which ends the readable part of the log
+     */
+    private boolean control(Map<Integer, EntryInfo> open, int record, int p, int size) {
+        if (size < 5) return false;
+        int kind = buf.get(p) & 0xFF;
+        int id = buf.getInt(p + 1);
+        if (kind == 0) {
+            EntryInfo entry = readStart(id, record, p, size);
+            if (entry == null) return false;
+            open.put(id, entry);
+            if (!entry.getName().equals(INDEX_ENTRY)) {
+                entries.add(entry);
+                byName.put(entry.getName(), entry);
+            }
+        } else if (kind == 1) {
+            EntryInfo entry = open.remove(id);
+            if (entry != null) entry.finishOffset = record;
+        } else if (kind == 2) {
+            String[] metadata = readStrings(p + 5, p + size, 1);
+            EntryInfo entry = open.get(id);
+            if (metadata == null) return false;
+            if (entry != null) entry.setMetadata(metadata[0]);
+        }
+        return true;
+    }
+
+    private EntryInfo readStart(int id, int record, int p, int size) {
+        String[] s = readStrings(p + 5, p + size, 3);
+        return s == null ? null : new EntryInfo(id, s[0], s[1], s[2], record);
+    }
+
+    /**
+     * @return {@code n} length-prefixed strings from {@code [p, end)}, or null if they do not fit
+     */
+    private String[] readStrings(int p, int end, int n) {
+        String[] s = new String[n];
+        for (int i = 0; i < n; i++) {
+            if (end - p < 4) return null;
+            int len = buf.getInt(p);
+            if (len < 0 || len > end - p - 4) return null;
+            byte[] b = new byte[len];
+            for (int j = 0; j < len; j++) b[j] = buf.get(p + 4 + j);
+            s[i] = new String(b, StandardCharsets.UTF_8);
+            p += 4 + len;
+        }
+        return s;
+    }
+
+    /**
+     * Loads the index KoalaLog appends at close. Anything inconsistent means the file is scanned
+     * instead.
+     */
+    private boolean readFooterIndex() {
+        if (length - headerEnd < 20) return false;
+        for (int i = 0; i < INDEX_MAGIC.length; i++) {
+            if (buf.get(length - INDEX_MAGIC.length + i) != INDEX_MAGIC[i]) return false;
+        }
+        int payloadLen = buf.getInt(length - INDEX_MAGIC.length - 4);
+        int p = length - payloadLen;
+        if (payloadLen < 20 || p < headerEnd || buf.getInt(p) != INDEX_VERSION) return false;
+        int blocks = buf.getInt(p + 4);
+        p += 8;
+        int end = length - INDEX_MAGIC.length - 4;
+
+        List<EntryInfo> found = new ArrayList<>();
+        for (int b = 0; b < blocks; b++) {
+            if (end - p < 16) return false;
+            int id = buf.getInt(p);
+            int start = buf.getInt(p + 4);
+            int finish = buf.getInt(p + 8);
+            int count = buf.getInt(p + 12);
+            p += 16;
+            if (start < headerEnd || start >= length || count < 0 || count > (end - p) / 4) return false;
+
+            EntryInfo entry = startAt(id, start);
+            if (entry == null) return false;
+            entry.finishOffset = finish;
+            entry.offsets = new int[Math.max(count, 1)];
+            for (int i = 0; i < count; i++) {
+                int offset = buf.getInt(p + i * 4);
+                if (offset < headerEnd || offset >= length) return false;
+                entry.offsets[i] = offset;
+            }
+            entry.count = count;
+            p += count * 4;
+            found.add(entry);
+        }
+        if (p != end) return false;
+
+        for (EntryInfo entry : found) {
+            entries.add(entry);
+            byName.put(entry.getName(), entry);
+        }
+        return true;
+    }
+
+    private EntryInfo startAt(int id, int record) {
+        int bits = buf.get(record) & 0xFF;
+        int idLen = (bits & 0x3) + 1;
+        int sizeLen = (bits >> 2 & 0x3) + 1;
+        int payload = record + 1 + idLen + sizeLen + (bits >> 4 & 0x7) + 1;
+        if (payload > length || readLe(record + 1, idLen) != 0) return null;
+        int size = (int) readLe(record + 1 + idLen, sizeLen);
+        if (size < 5 || size > length - payload || buf.get(payload) != 0 || buf.getInt(payload + 1) != id) return null;
+        return readStart(id, record, payload, size);
+    }
+
+    private boolean startsWithMagic() {
+        byte[] magic = "WPILOG".getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < magic.length; i++) {
+            if (buf.get(i) != magic[i]) return false;
+        }
+        return true;
+    }
+
+    private long readLe(int off, int len) {
+        long v = 0;
+        for (int i = 0; i < len; i++) {
+            v |= (buf.get(off + i) & 0xFFL) << (i * 8);
+        }
+        return v;
+    }
+}
@@ -0,0 +1,276 @@
+package Ori.Coval.Logging.Replay;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import Ori.Coval.Logging.AutoLogManager;
+import Ori.Coval.Logging.ReplaySource;
+import Ori.Coval.Logging.Logger.KoalaLogCore;
+import Ori.Coval.Logging.Reader.EntryInfo;
+import Ori.Coval.Logging.Reader.LogRecord;
+import Ori.Coval.Logging.Reader.WpiLogReader;
+
+/**
+ * Replays a recorded log through robot code, as fast as the CPU allows.
+ * <p>
+ * The log is cut into loop cycles. For each cycle the replay clock is set to the cycle's time,
+ * {@code @ReplayInput} fields and methods of every registered {@code @AutoLog} class take their
+ * recorded values, and the loop runs once. Everything the loop logs goes to a new log with the
+ * recorded timestamps, so changed logic can be compared with the original run value by value.
+ * <pre>
+ * Drive drive = new DriveAutoLogged();
+ * try (LogReplay replay = LogReplay.open(new File("match.wpilog"))) {
+ *     replay.setCycleEntry("Drive/loopCount");
+ *     replay.run(new File("match-replayed.wpilog"), () -&gt; {
+ *         drive.update();
+ *         AutoLogManager.periodic();
+ *     });
+ * }
+ * </pre>
+ * Only the values of loggable types are replayed; supplier fields read hardware as usual.
+ */
+public final class LogReplay implements ReplaySource, Closeable {
+
+    private static final String POSE2D_TYPE = "struct:Pose2d";
+
+    private final WpiLogReader reader;
+    private final Map<String, EntryInfo> entries = new HashMap<>();
+    private String cycleEntry;
+    private long cycleGapMicros = 1_000;
+    private volatile long now;
+
+    private LogReplay(WpiLogReader reader) {
+        this.reader = reader;
+        // filled once, so inputs can be read from parallel sampling threads
+        for (EntryInfo entry : reader.getEntries()) entries.put(entry.getName(), entry);
+    }
+
+    /**
+     * @throws IOException if the file cannot be read or is not a WPILOG
+     */
+    public static LogReplay open(File log) throws IOException {
+        return new LogReplay(WpiLogReader.open(log));
+    }
+
+    /**
+     * Run one cycle per record of {@code name}, an entry the robot code logged exactly once per
+     * loop. The most reliable way to find the loops, and the only one for logs without frame mode
+     * whose loops log for longer than the {@link #setCycleGap gap}.
+     */
+    public LogReplay setCycleEntry(String name) {
+        cycleEntry = name;
+        return this;
+    }
+
+    /**
+     * Without a {@link #setCycleEntry cycle entry}, records closer than {@code micros} to the
+     * previous one belong to the same cycle. 1 ms by default; a frame-mode log needs 0.
+     */
+    public LogReplay setCycleGap(long micros) {
+        if (micros < 0) throw new IllegalArgumentException("micros must not be negative");
+        cycleGapMicros = micros;
+        return this;
+    }
+
+    /**
+     * @return the times of the cycles, in microseconds: each one the last record time in its
+     * cycle, so every value the recorded loop logged is visible when it is replayed
+     * @throws IllegalArgumentException if the cycle entry is not in the log
+     */
+    public long[] getCycles() {
+        if (cycleEntry != null) {
+            EntryInfo entry = entries.get(cycleEntry);
+            if (entry == null) throw new IllegalArgumentException("No entry named " + cycleEntry);
+            List<LogRecord> records = reader.getRecords(entry);
+            long[] cycles = new long[records.size()];
+            for (int i = 0; i < cycles.length; i++) cycles[i] = records.get(i).getTimestamp();
+            return cycles;
+        }
+
+        int total = 0;
+        for (EntryInfo entry : reader.getEntries()) total += entry.getRecordCount();
+        long[] times = new long[total];
+        int n = 0;
+        for (EntryInfo entry : reader.getEntries()) {
+            if (entry.getName().startsWith("/.")) continue;
+            for (LogRecord record : reader.getRecords(entry)) times[n++] = record.getTimestamp();
+        }
+        Arrays.sort(times, 0, n);
+
+        long[] cycles = new long[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (count > 0 && times[i] - cycles[count - 1] <= cycleGapMicros) {
+                cycles[count - 1] = times[i];
+            } else {
+                cycles[count++] = times[i];
+            }
+        }
+        return Arrays.copyOf(cycles, count);
+    }
+
+    /**
+     * Replays every cycle of the log through {@code loop} and writes what it logs to
+     * {@code output}. The loop should do what the robot's loop did, including calling
+     * {@link AutoLogManager#periodic()}. Any log already open is closed first.
+     *
+     * @return how many cycles were replayed
+     * @throws IOException if the output cannot be created
+     */
+    public int run(File output, Runnable loop) throws IOException {
+        long[] cycles = getCycles();
+
+        now = cycles.length > 0 ? cycles[0] : 0;
+        KoalaLogCore.setTimeSource(() -> now);
+        AutoLogManager.setReplaySource(this);
+        try {
+            OutputStream out = new BufferedOutputStream(new FileOutputStream(output), 1 << 16);
+            try {
+                KoalaLogCore.setup(out);
+            } catch (RuntimeException e) {
+                // shutdown() below only closes the stream if setup got far enough to take it
+                // over, which it does not when, say, the live port is busy
+                out.close();
+                throw e;
+            }
+            for (long time : cycles) {
+                now = time;
+                AutoLogManager.readInputs();
+                loop.run();
+            }
+        } finally {
+            try {
+                KoalaLogCore.shutdown();
+            } finally {
+                AutoLogManager.setReplaySource(null);
+                KoalaLogCore.setTimeSource(null);
+            }
+        }
+        return cycles.length;
+    }
+
+    /**
+     * @return the replay clock: the time of the cycle being replayed, in microseconds
+     */
+    public long getTime() {
+        return now;
+    }
+
+    @Override
+    public boolean has(String key) {
+        return latest(key) != null;
+    }
+
+    @Override
+    public boolean getBoolean(String key) {
+        LogRecord record = latest(key);
+        if (record == null) return false;
+        return record.getEntry().getType().equals("boolean") ? record.getBoolean() : number(record) != 0;
+    }
+
+    @Override
+    public long getLong(String key) {
+        LogRecord record = latest(key);
+        if (record == null) return 0;
+        return record.getEntry().getType().equals("int64") ? record.getLong() : (long) number(record);
+    }
+
+    @Override
+    public float getFloat(String key) {
+        LogRecord record = latest(key);
+        return record == null ? 0 : (float) number(record);
+    }
+
+    @Override
+    public double getDouble(String key) {
+        LogRecord record = latest(key);
+        return record == null ? 0 : number(record);
+    }
+
+    @Override
+    public String getString(String key) {
+        LogRecord record = latest(key);
+        return record == null ? null : record.getString();
+    }
+
+    @Override
+    public boolean[] getBooleanArray(String key) {
+        LogRecord record = latest(key);
+        return record == null ? null : record.getBooleanArray();
+    }
+
+    @Override
+    public long[] getLongArray(String key) {
+        LogRecord record = latest(key);
+        return record == null ? null : record.getLongArray();
+    }
+
+    @Override
+    public float[] getFloatArray(String key) {
+        LogRecord record = latest(key);
+        return record == null ? null : record.getFloatArray();
+    }
+
+    @Override
+    public double[] getDoubleArray(String key) {
+        LogRecord record = latest(key);
+        return record == null ? null : record.getDoubleArray();
+    }
+
+    @Override
+    public String[] getStringArray(String key) {
+        LogRecord record = latest(key);
+        return record == null ? null : record.getStringArray();
+    }
+
+    /**
+     * @throws IllegalStateException if the entry is not a {@code struct:Pose2d}
+     */
+    @Override
+    public double[] getPose2d(String key) {
+        LogRecord record = latest(key);
+        if (record == null) return null;
+        if (!record.getEntry().getType().equals(POSE2D_TYPE)) {
+            throw new IllegalStateException(key + " is " + record.getEntry().getType() + ", not " + POSE2D_TYPE);
+        }
+        // x, y and rotation are the struct's three doubles in order
+        return record.getDoubleArray();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private LogRecord latest(String key) {
+        EntryInfo entry = entries.get(key);
+        return entry == null ? null : reader.getLatest(entry, now);
+    }
+
+    /**
+     * @throws IllegalStateException if the entry is not a scalar number or boolean
+     */
+    private static double number(LogRecord record) {
+        switch (record.getEntry().getType()) {
+            case "double":
+                return record.getDouble();
+            case "float":
+                return record.getFloat();
+            case "int64":
+                return record.getLong();
+            case "boolean":
+                return record.getBoolean() ? 1 : 0;
+            default:
+                throw new IllegalStateException(record.getEntry().getName() + " is "
+                        + record.getEntry().getType() + ", not a number");
+        }
+    }
+}
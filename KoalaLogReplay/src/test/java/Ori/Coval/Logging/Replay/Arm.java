@@ -0,0 +1,23 @@
+package Ori.Coval.Logging.Replay;
+
+import Ori.Coval.Logging.AutoLog;
+import Ori.Coval.Logging.ReplayInput;
+
+/**
+ * A proportional arm controller: its position is read from hardware, its power computed.
+ */
+@AutoLog(postToFtcDashboard = false)
+public class Arm {
+    @ReplayInput
+    public double position;
+    public double target = 90;
+    private double gain = 0.5;
+
+    public void setGain(double gain) {
+        this.gain = gain;
+    }
+
+    public double getPower() {
+        return gain * (target - position);
+    }
+}
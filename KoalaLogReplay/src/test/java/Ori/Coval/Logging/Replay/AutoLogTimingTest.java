@@ -0,0 +1,92 @@
+package Ori.Coval.Logging.Replay;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import Ori.Coval.Logging.AutoLogManager;
+import Ori.Coval.Logging.Logger.KoalaLogCore;
+import Ori.Coval.Logging.Logger.MemorySink;
+import Ori.Coval.Logging.Reader.LogRecord;
+import Ori.Coval.Logging.Reader.WpiLogReader;
+
+public class AutoLogTimingTest {
+
+    private File file;
+
+    @After
+    public void tearDown() {
+        KoalaLogCore.shutdown();
+        KoalaLogCore.setTimeSource(null);
+        if (file != null) file.delete();
+    }
+
+    /**
+     * Each loop logs {count, total ms, max ms} for the calls since the last one, under its own
+     * entry per overload, and nothing for a loop without calls.
+     */
+    @Test
+    public void timedCallsAreLoggedOncePerLoop() throws Exception {
+        DriveAutoLogged drive = new DriveAutoLogged();
+        long[] clock = new long[1];
+        MemorySink sink = new MemorySink();
+        KoalaLogCore.setTimeSource(() -> clock[0]);
+        KoalaLogCore.setup(sink);
+
+        clock[0] = 20_000;
+        for (int i = 0; i < 3; i++) drive.update();
+        drive.update(5);
+        AutoLogManager.periodic();
+
+        clock[0] = 40_000;
+        drive.update();
+        drive.readHeading();
+        drive.readHeading();
+        AutoLogManager.periodic();
+
+        clock[0] = 60_000;
+        AutoLogManager.periodic();
+        KoalaLogCore.shutdown();
+
+        file = File.createTempFile("timing", ".wpilog");
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(sink.toByteArray());
+        }
+        try (WpiLogReader reader = WpiLogReader.open(file)) {
+            List<LogRecord> update = reader.getRecords(reader.getEntry("Timing/Drive/update"));
+            assertEquals(2, update.size());
+            assertSlot(update.get(0), 20_000, 3);
+            assertSlot(update.get(1), 40_000, 1);
+
+            List<LogRecord> sleeping = reader.getRecords(reader.getEntry("Timing/Drive/update2"));
+            assertEquals(1, sleeping.size());
+            double[] timing = assertSlot(sleeping.get(0), 20_000, 1);
+            assertTrue(timing[2] >= 5);
+            assertEquals(timing[1], timing[2], 0);
+
+            List<LogRecord> heading = reader.getRecords(reader.getEntry("Timing/Drive/readHeading"));
+            assertEquals(1, heading.size());
+            assertSlot(heading.get(0), 40_000, 2);
+            // timed, but its value is not logged
+            assertNull(reader.getEntry("Drive/readHeading"));
+        }
+    }
+
+    private static double[] assertSlot(LogRecord record, long timestamp, int calls) {
+        assertEquals(timestamp, record.getTimestamp());
+        double[] timing = record.getDoubleArray();
+        assertEquals(3, timing.length);
+        assertEquals(calls, timing[0], 0);
+        assertTrue(timing[1] >= timing[2] && timing[2] >= 0);
+        return timing;
+    }
+}
@@ -0,0 +1,27 @@
+package Ori.Coval.Logging.Replay;
+
+import Ori.Coval.Logging.AutoLog;
+import Ori.Coval.Logging.AutoLogTiming;
+import Ori.Coval.Logging.DoNotLog;
+
+/**
+ * A drivetrain whose update and sensor read are timed, but whose values are not logged.
+ */
+@AutoLog(postToFtcDashboard = false)
+public class Drive {
+
+    @AutoLogTiming
+    public void update() {
+    }
+
+    @AutoLogTiming
+    public void update(long sleepMillis) throws InterruptedException {
+        Thread.sleep(sleepMillis);
+    }
+
+    @AutoLogTiming
+    @DoNotLog
+    public double readHeading() {
+        return 1;
+    }
+}
@@ -0,0 +1,86 @@
+package Ori.Coval.Logging.Replay;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import Ori.Coval.Logging.AutoLogManager;
+import Ori.Coval.Logging.Logger.KoalaLogCore;
+import Ori.Coval.Logging.Logger.MemorySink;
+import Ori.Coval.Logging.Reader.LogRecord;
+import Ori.Coval.Logging.Reader.WpiLogReader;
+
+public class LogReplayTest {
+
+    private static final long[] LOOP_TIMES = {20_000, 40_000, 60_000, 80_000, 100_000};
+
+    private File recorded;
+    private File replayed;
+
+    @After
+    public void tearDown() {
+        KoalaLogCore.shutdown();
+        KoalaLogCore.setTimeSource(null);
+        if (recorded != null) recorded.delete();
+        if (replayed != null) replayed.delete();
+    }
+
+    /**
+     * Records an arm's loop, then replays it with a changed gain: the recorded positions come back
+     * as inputs, and the power is recomputed from them at the recorded loop times.
+     */
+    @Test
+    public void replayRecomputesOutputsFromRecordedInputs() throws IOException {
+        ArmAutoLogged arm = new ArmAutoLogged();
+        long[] clock = new long[1];
+        MemorySink sink = new MemorySink();
+        KoalaLogCore.setTimeSource(() -> clock[0]);
+        KoalaLogCore.setup(sink);
+        for (int i = 0; i < LOOP_TIMES.length; i++) {
+            clock[0] = LOOP_TIMES[i];
+            arm.position = 10 * i;
+            arm.getPower();
+            AutoLogManager.periodic();
+        }
+        KoalaLogCore.shutdown();
+        KoalaLogCore.setTimeSource(null);
+
+        recorded = File.createTempFile("recorded", ".wpilog");
+        try (OutputStream out = new FileOutputStream(recorded)) {
+            out.write(sink.toByteArray());
+        }
+
+        arm.position = -1;
+        arm.setGain(2);
+        replayed = File.createTempFile("replayed", ".wpilog");
+        try (LogReplay replay = LogReplay.open(recorded)) {
+            assertArrayEquals(LOOP_TIMES, replay.getCycles());
+            int cycles = replay.run(replayed, () -> {
+                arm.getPower();
+                AutoLogManager.periodic();
+            });
+            assertEquals(LOOP_TIMES.length, cycles);
+        }
+
+        try (WpiLogReader reader = WpiLogReader.open(replayed)) {
+            List<LogRecord> positions = reader.getRecords(reader.getEntry("Arm/position"));
+            List<LogRecord> powers = reader.getRecords(reader.getEntry("Arm/getPower"));
+            assertEquals(LOOP_TIMES.length, positions.size());
+            assertEquals(LOOP_TIMES.length, powers.size());
+            for (int i = 0; i < LOOP_TIMES.length; i++) {
+                assertEquals(LOOP_TIMES[i], positions.get(i).getTimestamp());
+                assertEquals(10.0 * i, positions.get(i).getDouble(), 0);
+                assertEquals(LOOP_TIMES[i], powers.get(i).getTimestamp());
+                assertEquals(2 * (90 - 10.0 * i), powers.get(i).getDouble(), 0);
+            }
+        }
+    }
+}
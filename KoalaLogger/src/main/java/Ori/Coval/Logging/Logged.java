@@ -1,5 +0,0 @@
-package Ori.Coval.Logging;
-
-public interface Logged {
-    public void toLog();
-}
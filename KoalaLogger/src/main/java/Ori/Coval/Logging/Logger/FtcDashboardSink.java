@@ -0,0 +1,23 @@
+package Ori.Coval.Logging.Logger;
+
+import com.acmerobotics.dashboard.FtcDashboard;
+import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
+
+/**
+ * Shows posted entries on FTC Dashboard, one telemetry packet per update.
+ */
+class FtcDashboardSink implements DashboardSink {
+    private TelemetryPacket packet = new TelemetryPacket();
+
+    @Override
+    public void put(String name, Object value) {
+        packet.put(name, value);
+    }
+
+    @Override
+    public void update() {
+        FtcDashboard dashboard = FtcDashboard.getInstance();
+        if (dashboard != null) dashboard.sendTelemetryPacket(packet);
+        packet = new TelemetryPacket();
+    }
+}
@@ -1,11 +1,15 @@
 package Ori.Coval.Logging.Logger;
 
-import com.acmerobotics.dashboard.FtcDashboard;
+import android.content.Context;
+import android.os.Environment;
+
 import com.qualcomm.robotcore.hardware.HardwareMap;
 
-import java.io.IOException;
-import java.util.Arrays;
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 import java.util.Locale;
+import java.util.zip.Deflater;
 
 /**
  * WpiLog: write WPILOG-format files for Advantage Scope.
@@ -13,251 +17,402 @@ import java.util.Locale;
  */
 @SuppressWarnings("unused")
 public class KoalaLog {
+    static {
+        KoalaLogCore.setDashboardSink(new FtcDashboardSink());
+    }
+
     /**
-     * Set up logging to a file named 'robot.wpilog' in SD or internal.
+     * Set up logging to a file named by the current timestamp in SD or internal.
      */
     public static void setup(HardwareMap hardwareMap) {
-        KoalaLogCore.setup(hardwareMap);
+        String timeStamp = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss", Locale.US)
+                .format(new Date());
+        setup(hardwareMap, timeStamp + ".wpilog");
     }
 
     /**
      * Set up logging to the given filename, choosing SD if present.
      */
     public static void setup(HardwareMap hardwareMap, String filename) {
-        KoalaLogCore.setup(hardwareMap, filename);
+        KoalaLogCore.setup(new File(chooseLogDir(hardwareMap.appContext), filename));
+    }
+
+    /**
+     * Write the log from a background thread so the loop never waits on the SD card.
+     * Call before {@link #setup}.
+     *
+     * @param capacityBytes size of the buffer between the loop and the writer thread
+     * @param policy        what happens to new values when the buffer is full
+     */
+    public static void setAsyncWriting(int capacityBytes, OverflowPolicy policy) {
+        KoalaLogCore.setAsyncWriting(capacityBytes, policy);
+    }
+
+    /**
+     * Write the log directly on the calling thread (the default). Call before {@link #setup}.
+     */
+    public static void disableAsyncWriting() {
+        KoalaLogCore.disableAsyncWriting();
+    }
+
+    /**
+     * When logging from several threads with async writing on, how long records wait so the
+     * writer can put them in timestamp order. Defaults to 20 ms. Call before {@link #setup}.
+     */
+    public static void setMergeHoldBack(long micros) {
+        KoalaLogCore.setMergeHoldBack(micros);
+    }
+
+    /**
+     * Write the log file through memory-mapped chunks: the file is grown a chunk at a time and
+     * writes become memory copies instead of syscalls. Call before {@link #setup}.
+     *
+     * @param chunkBytes how much of the file to preallocate at a time, e.g. 4 MiB
+     */
+    public static void setMemoryMappedOutput(int chunkBytes) {
+        if (chunkBytes <= 0) throw new IllegalArgumentException("chunkBytes must be positive");
+        LogFileManager.setMemoryMapped(chunkBytes);
+    }
+
+    /**
+     * Write the log file with a plain file stream (the default). Call before {@link #setup}.
+     */
+    public static void disableMemoryMappedOutput() {
+        LogFileManager.setMemoryMapped(0);
+    }
+
+    /**
+     * Split each session into numbered segment files ({@code name_000.wpilog}, {@code name_001.wpilog}, ...).
+     * Every segment opens on its own in Advantage Scope. Call before {@link #setup}.
+     *
+     * @param maxBytes  start a new segment before one grows past this size, 0 for no limit
+     * @param maxMillis start a new segment after this much logging time, 0 for no limit
+     */
+    public static void setSegmentRotation(long maxBytes, long maxMillis) {
+        LogFileManager.setSegmentRotation(maxBytes, maxMillis);
+    }
+
+    /**
+     * Write each session to a single file (the default). Call before {@link #setup}.
+     */
+    public static void disableSegmentRotation() {
+        LogFileManager.setSegmentRotation(0, 0);
+    }
+
+    /**
+     * Keep the log directory under a size limit by removing the oldest logs in the background.
+     * Call before {@link #setup}.
+     *
+     * @param quotaBytes the most all logs together may take up
+     * @param compress   gzip old logs first, and only delete once that is not enough
+     */
+    public static void setRetention(long quotaBytes, boolean compress) {
+        if (quotaBytes <= 0) throw new IllegalArgumentException("quotaBytes must be positive");
+        LogFileManager.setRetention(quotaBytes, compress);
+    }
+
+    /**
+     * Never remove old logs (the default). Call before {@link #setup}.
+     */
+    public static void disableRetention() {
+        LogFileManager.setRetention(0, false);
+    }
+
+    /**
+     * Bound how much of the log a brownout or power loss can lose, by forcing it to storage
+     * from a background thread. The logging threads never wait on the disk. Without this the OS
+     * decides when data reaches storage. Call before {@link #setup}.
+     *
+     * @param maxMillis force at least this often, 0 for no time limit
+     * @param maxBytes  force once this many bytes are waiting, 0 for no size limit
+     */
+    public static void setDurability(long maxMillis, long maxBytes) {
+        if (maxMillis <= 0 && maxBytes <= 0) throw new IllegalArgumentException("set at least one limit");
+        LogFileManager.setDurability(maxMillis, maxBytes);
+    }
+
+    /**
+     * Leave flushing to storage to the OS (the default). Call before {@link #setup}.
+     */
+    public static void disableDurability() {
+        LogFileManager.setDurability(0, 0);
+    }
+
+    /**
+     * On {@link #setup}, repair in the background any earlier log that was cut off mid-record by
+     * a crash, so it opens in Advantage Scope. Only logs that were not closed cleanly are read.
+     * See {@link LogRecovery} to repair logs on a computer.
+     */
+    public static void setRecoverLogsOnSetup(boolean enabled) {
+        LogFileManager.setRecoverOnSetup(enabled);
+    }
+
+    /**
+     * Append an index of every record to each log file when it is closed, so KoalaLogReader
+     * opens large logs without scanning them. Costs 4 bytes of memory per record until the file
+     * is closed. The log still opens everywhere else as usual. Call before {@link #setup}.
+     */
+    public static void setFooterIndex(boolean enabled) {
+        LogFileManager.setFooterIndex(enabled);
+    }
+
+    /**
+     * Gzip the log as it is written, to {@code .wpilog.gz}. Logs are typically several times
+     * smaller, at the cost of compressing on the writer thread. A crash can lose the last few
+     * kilobytes the compressor still held. Call before {@link #setup}.
+     *
+     * @param level 1 (fastest) to 9 (smallest), 0 for none, or -1 for the default of 6
+     */
+    public static void setStreamingCompression(int level) {
+        LogFileManager.setStreamingCompression(true, level);
+    }
+
+    /**
+     * Write the log uncompressed (the default). Call before {@link #setup}.
+     */
+    public static void disableStreamingCompression() {
+        LogFileManager.setStreamingCompression(false, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Gzip each log to {@code .wpilog.gz} on a low-priority background thread once it is
+     * closed, by {@link #close} or by segment rotation. Nothing is compressed while the robot
+     * is writing it. Call before {@link #setup}.
+     *
+     * @param level 1 (fastest) to 9 (smallest), 0 for none, or -1 for the default of 6
+     */
+    public static void setCompressClosedLogs(int level) {
+        LogFileManager.setCompressClosedLogs(true, level);
+    }
+
+    /**
+     * Leave closed logs uncompressed (the default). Call before {@link #setup}.
+     */
+    public static void disableCompressClosedLogs() {
+        LogFileManager.setCompressClosedLogs(false, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Be told the ratio and time taken of every log that finishes compressing, whether live,
+     * after closing, or by retention. Called on the compressing thread; null to stop.
+     */
+    public static void setCompressionListener(CompressionListener listener) {
+        LogCompressor.setListener(listener);
+    }
+
+    /**
+     * @return how the log being written has compressed so far, or null without
+     * {@link #setStreamingCompression streaming compression}
+     */
+    public static CompressionStats getLiveCompressionStats() {
+        return LogFileManager.getLiveCompressionStats();
+    }
+
+    /**
+     * Also stream the log live over TCP, e.g. to a laptop on the robot Wi-Fi. Each client gets a
+     * WPILOG stream: the header, the entries open when it connected, then every record as it is
+     * written, so it can be saved or viewed as a log file. A slow client misses records rather
+     * than slowing the robot. Call before {@link #setup}.
+     *
+     * @param port the TCP port to listen on
+     */
+    public static void setLiveStreaming(int port) {
+        KoalaLogCore.setLiveStreaming(port, 1 << 20);
+    }
+
+    /**
+     * Stop streaming the log over TCP (the default). Call before {@link #setup}.
+     */
+    public static void disableLiveStreaming() {
+        KoalaLogCore.disableLiveStreaming();
+    }
+
+    /**
+     * Only log values that changed since they were last written. Most fields (mode flags,
+     * setpoints, config) rarely change, so this cuts the log size a lot. Every entry still writes
+     * its value at least once per keyframe interval, so scrubbing Advantage Scope always shows it.
+     * Entries and annotations can override this with their own {@code changeOnly} setting.
+     *
+     * @param keyframeMillis longest gap between two writes of an unchanged value
+     */
+    public static void setChangeOnlyLogging(boolean enabled, long keyframeMillis) {
+        KoalaLogCore.setChangeOnlyLogging(enabled, keyframeMillis);
+    }
+
+    /**
+     * How many times per second values logged with {@code post} are sent to FTC Dashboard.
+     * Only the latest value of each entry is sent, formatted off the loop thread. Defaults to 20.
+     */
+    public static void setDashboardRate(double hz) {
+        KoalaLogCore.setDashboardRate(hz);
+    }
+
+    /**
+     * Measure what logging costs the robot, and write it into the log under
+     * {@code /.koala/stats/}: records and bytes per second, encode and write latency histograms,
+     * dropped records and how full the async buffer got. Call before {@link #setup}.
+     *
+     * @param emitPeriodMillis how often to write the stats, 0 to only measure for {@link #getStats()}
+     */
+    public static void setSelfStats(long emitPeriodMillis) {
+        KoalaLogCore.setSelfStats(emitPeriodMillis);
+    }
+
+    /**
+     * Stop measuring logging (the default).
+     */
+    public static void disableSelfStats() {
+        KoalaLogCore.disableSelfStats();
+    }
+
+    /**
+     * @return what logging has done and cost since {@link #setup}, while {@link #setSelfStats}
+     * is on
+     */
+    public static LogStats getStats() {
+        return KoalaLogCore.getStats();
+    }
+
+    /**
+     * Flush everything still buffered and close the log file.
+     */
+    public static void close() {
+        KoalaLogCore.shutdown();
+    }
+
+    /**
+     * Get a handle to an entry, for logging it every loop without looking the name up each time.
+     *
+     * <pre> {@code
+     * private final DoubleEntry leftVel = KoalaLog.entry("Drive/leftVel", EntryType.DOUBLE);
+     * ...
+     * leftVel.append(leftMotor.getVelocity());
+     * }</pre>
+     *
+     * @throws IllegalArgumentException if the name is already logged with a different type
+     */
+    public static <E extends LogEntry> E entry(String name, EntryType<E> type) {
+        return KoalaLogCore.entry(name, type);
     }
 
     // Scalars
     public static boolean log(String name, boolean value, boolean post) {
-        return KoalaLogCore.doLog(
-                name, value, "boolean",
-                (id, v) -> KoalaLogCore.writeRecord(id, BytePacker.packBooleans(v), KoalaLogCore.nowMicros()),
-                (n, v) -> FtcDashboard.getInstance().getTelemetry().addData(n, v),
-                post
-        );
+        KoalaLogCore.entry(name, EntryType.BOOLEAN).append(value, post);
+        return value;
     }
 
     public static long log(String name, long value, boolean post) {
-        return KoalaLogCore.doLog(
-                name, value, "int64",
-                (id, v) -> KoalaLogCore.writeRecord(id, BytePacker.packLongs(v), KoalaLogCore.nowMicros()),
-                (n, v) -> FtcDashboard.getInstance().getTelemetry().addData(n, v),
-                post
-        );
+        KoalaLogCore.entry(name, EntryType.LONG).append(value, post);
+        return value;
     }
 
     public static int log(String name, int value, boolean post) {
-        return KoalaLogCore.doLog(
-                name, value, "int32",
-                (id, v) -> KoalaLogCore.writeRecord(id, BytePacker.packInts(v), KoalaLogCore.nowMicros()),
-                (n, v) -> FtcDashboard.getInstance().getTelemetry().addData(n, v),
-                post
-        );
+        KoalaLogCore.entry(name, EntryType.LONG).append(value, post);
+        return value;
     }
     public static Integer log(String name, Integer value, boolean post) {
-        return KoalaLogCore.doLog(
-                name, value, "int32",
-                (id, v) -> KoalaLogCore.writeRecord(id, BytePacker.packInts(v), KoalaLogCore.nowMicros()),
-                (n, v) -> FtcDashboard.getInstance().getTelemetry().addData(n, v),
-                post
-        );
+        KoalaLogCore.entry(name, EntryType.LONG).append(value, post);
+        return value;
     }
 
     public static float log(String name, float value, boolean post) {
-        return KoalaLogCore.doLog(
-                name, value, "float",
-                (id, v) -> KoalaLogCore.writeRecord(id, BytePacker.packFloats(v), KoalaLogCore.nowMicros()),
-                (n, v) -> FtcDashboard.getInstance().getTelemetry().addData(n, v),
-                post
-        );
+        KoalaLogCore.entry(name, EntryType.FLOAT).append(value, post);
+        return value;
     }
 
     public static double log(String name, double value, boolean post) {
-        return KoalaLogCore.doLog(
-                name, value, "double",
-                (id, v) -> KoalaLogCore.writeRecord(id, BytePacker.packDoubles(new double[]{v}), KoalaLogCore.nowMicros()),
-                (n, v) -> FtcDashboard.getInstance().getTelemetry().addData(n, v),
-                post
-        );
+        KoalaLogCore.entry(name, EntryType.DOUBLE).append(value, post);
+        return value;
     }
 
     public static String log(String name, String value, boolean post) {
-        return KoalaLogCore.doLog(
-                name, value, "string",
-                (id, v) -> {
-                    try {
-                        KoalaLogCore.writeRecord(id, BytePacker.packStrings(v), KoalaLogCore.nowMicros());
-                    } catch (IOException e) {
-                        throw new RuntimeException(e);
-                    }
-                },
-                (n, v) -> FtcDashboard.getInstance().getTelemetry().addData(n, v),
-                post
-        );
+        KoalaLogCore.entry(name, EntryType.STRING).append(value, post);
+        return value;
     }
 
     // Arrays
     public static boolean[] log(String name, boolean[] value, boolean post) {
-        return KoalaLogCore.doLog(
-                name, value, "boolean[]",
-                (id, v) -> KoalaLogCore.writeRecord(id, BytePacker.packBooleans(v), KoalaLogCore.nowMicros()),
-                (n, v) -> FtcDashboard.getInstance().getTelemetry().addData(n, Arrays.toString(v)),
-                post
-        );
+        KoalaLogCore.entry(name, EntryType.BOOLEAN_ARRAY).append(value, post);
+        return value;
     }
     public static Boolean[] log(String name, Boolean[] value, boolean post) {
-        return KoalaLogCore.doLog(
-                name, value, "boolean[]",
-                (id, v) -> KoalaLogCore.writeRecord(id, BytePacker.packBooleans(v), KoalaLogCore.nowMicros()),
-                (n, v) -> FtcDashboard.getInstance().getTelemetry().addData(n, Arrays.toString(v)),
-                post
-        );
+        KoalaLogCore.entry(name, EntryType.BOOLEAN_ARRAY).append(value, post);
+        return value;
     }
 
     public static long[] log(String name, long[] value, boolean post) {
-        return KoalaLogCore.doLog(
-                name, value, "int64[]",
-                (id, v) -> KoalaLogCore.writeRecord(id, BytePacker.packLongs(v), KoalaLogCore.nowMicros()),
-                (n, v) -> FtcDashboard.getInstance().getTelemetry().addData(n, Arrays.toString(v)),
-                post
-        );
+        KoalaLogCore.entry(name, EntryType.LONG_ARRAY).append(value, post);
+        return value;
     }
     public static Long[] log(String name, Long[] value, boolean post) {
-        return KoalaLogCore.doLog(
-                name, value, "int64[]",
-                (id, v) -> KoalaLogCore.writeRecord(id, BytePacker.packLongs(v), KoalaLogCore.nowMicros()),
-                (n, v) -> FtcDashboard.getInstance().getTelemetry().addData(n, Arrays.toString(v)),
-                post
-        );
+        KoalaLogCore.entry(name, EntryType.LONG_ARRAY).append(value, post);
+        return value;
     }
 
     public static int[] log(String name, int[] value, boolean post) {
-        return KoalaLogCore.doLog(
-                name, value, "int64[]",
-                (id, v) -> KoalaLogCore.writeRecord(id, BytePacker.packInts(v), KoalaLogCore.nowMicros()),
-                (n, v) -> FtcDashboard.getInstance().getTelemetry().addData(n, Arrays.toString(v)),
-                post
-        );
+        KoalaLogCore.entry(name, EntryType.LONG_ARRAY).append(value, post);
+        return value;
     }
     public static Integer[] log(String name, Integer[] value, boolean post) {
-        return KoalaLogCore.doLog(
-                name, value, "int64[]",
-                (id, v) -> KoalaLogCore.writeRecord(id, BytePacker.packInts(v), KoalaLogCore.nowMicros()),
-                (n, v) -> FtcDashboard.getInstance().getTelemetry().addData(n, Arrays.toString(v)),
-                post
-        );
+        KoalaLogCore.entry(name, EntryType.LONG_ARRAY).append(value, post);
+        return value;
     }
 
     public static float[] log(String name, float[] value, boolean post) {
-        return KoalaLogCore.doLog(
-                name, value, "float[]",
-                (id, v) -> KoalaLogCore.writeRecord(id, BytePacker.packFloats(v), KoalaLogCore.nowMicros()),
-                (n, v) -> FtcDashboard.getInstance().getTelemetry().addData(n, Arrays.toString(v)),
-                post
-        );
+        KoalaLogCore.entry(name, EntryType.FLOAT_ARRAY).append(value, post);
+        return value;
     }
     public static Float[] log(String name, Float[] value, boolean post) {
-        return KoalaLogCore.doLog(
-                name, value, "float[]",
-                (id, v) -> KoalaLogCore.writeRecord(id, BytePacker.packFloats(v), KoalaLogCore.nowMicros()),
-                (n, v) -> FtcDashboard.getInstance().getTelemetry().addData(n, Arrays.toString(v)),
-                post
-        );
+        KoalaLogCore.entry(name, EntryType.FLOAT_ARRAY).append(value, post);
+        return value;
     }
 
     public static double[] log(String name, double[] value, boolean post) {
-        return KoalaLogCore.doLog(
-                name, value, "double[]",
-                (id, v) -> KoalaLogCore.writeRecord(id, BytePacker.packDoubles(v), KoalaLogCore.nowMicros()),
-                (n, v) -> FtcDashboard.getInstance().getTelemetry().addData(n, Arrays.toString(v)),
-                post
-        );
+        KoalaLogCore.entry(name, EntryType.DOUBLE_ARRAY).append(value, post);
+        return value;
     }
     public static Double[] log(String name, Double[] value, boolean post) {
-        return KoalaLogCore.doLog(
-                name, value, "double[]",
-                (id, v) -> KoalaLogCore.writeRecord(id, BytePacker.packDoubles(v), KoalaLogCore.nowMicros()),
-                (n, v) -> FtcDashboard.getInstance().getTelemetry().addData(n, Arrays.toString(v)),
-                post
-        );
+        KoalaLogCore.entry(name, EntryType.DOUBLE_ARRAY).append(value, post);
+        return value;
     }
 
     public static String[] log(String name, String[] value, boolean post) {
-        return KoalaLogCore.doLog(
-                name, value, "string[]",
-                (id, v) -> {
-                    try {
-                        KoalaLogCore.writeRecord(id, BytePacker.packStrings(v), KoalaLogCore.nowMicros());
-                    } catch (IOException e) {
-                        throw new RuntimeException(e);
-                    }
-                },
-                (n, v) -> FtcDashboard.getInstance().getTelemetry().addData(n, Arrays.toString(v)),
-                post
-        );
+        KoalaLogCore.entry(name, EntryType.STRING_ARRAY).append(value, post);
+        return value;
     }
 
     /**
      * Logs a 2D translation (two doubles) as struct:Translation2d
      */
     public static void logTranslation2d(String name, double x, double y, boolean post) {
-        KoalaLogCore.doLog(
-                name,
-                new double[]{x, y},
-                "struct:Translation2d",
-                (id, v) -> {
-                    // pack two doubles in little‐endian
-                    byte[] payload = BytePacker.packDoubles(v);
-                    KoalaLogCore.writeRecord(id, payload, KoalaLogCore.nowMicros());
-                },
-                (n, v) -> FtcDashboard
-                        .getInstance()
-                        .getTelemetry()
-                        .addData(n, String.format(Locale.US, "x=%.2f,y=%.2f", v[0], v[1])),
-                post
-        );
+        KoalaLogCore.entry(name, EntryType.TRANSLATION2D).append(x, y, post);
     }
 
     /**
      * Logs a 2D rotation (one double) as struct:Rotation2d
      */
     public static void logRotation2d(String name, double rotation, boolean post) {
-        KoalaLogCore.doLog(
-                name,
-                new double[]{rotation},
-                "struct:Rotation2d",
-                (id, v) -> {
-                    // pack one double in little‐endian
-                    byte[] payload = BytePacker.packDoubles(v);
-                    KoalaLogCore.writeRecord(id, payload, KoalaLogCore.nowMicros());
-                },
-                (n, v) -> FtcDashboard
-                        .getInstance()
-                        .getTelemetry()
-                        .addData(n, String.format(Locale.US, "θ=%.2f", v[0])),
-                post
-        );
+        KoalaLogCore.entry(name, EntryType.ROTATION2D).append(rotation, post);
     }
 
     /**
      * Logs a full Pose2d (three doubles) as struct:Pose2d
      */
     public static void logPose2d(String name, double x, double y, double rot, boolean post) {
-        KoalaLogCore.doLog(
-                name,
-                new double[]{x, y, rot},
-                "struct:Pose2d",
-                (id, v) -> {
-                    // pack three doubles in little‐endian
-                    byte[] payload = BytePacker.packDoubles(v);
-                    KoalaLogCore.writeRecord(id, payload, KoalaLogCore.nowMicros());
-                },
-                (n, v) -> FtcDashboard
-                        .getInstance()
-                        .getTelemetry()
-                        .addData(n, String.format(Locale.US, "x=%.2f,y=%.2f,θ=%.2f", v[0], v[1], v[2])),
-                post
-        );
+        KoalaLogCore.entry(name, EntryType.POSE2D).append(x, y, rot, post);
+    }
+
+    /**
+     * @return the app's directory on a removable SD card if there is one, otherwise on internal storage
+     */
+    private static File chooseLogDir(Context context) {
+        File[] extDirs = context.getExternalFilesDirs(null);
+        for (File d : extDirs) {
+            if (d != null && Environment.isExternalStorageRemovable(d) && d.exists()) {
+                return d;
+            }
+        }
+        return extDirs[0];
     }
     
 }
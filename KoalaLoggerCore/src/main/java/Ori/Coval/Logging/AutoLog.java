@@ -0,0 +1,45 @@
+package Ori.Coval.Logging;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class for which an AutoLogged subclass will be generated.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface AutoLog {
+    boolean postToFtcDashboard() default true;
+    boolean logSuperClasses() default true;
+
+    /**
+     * Whether {@code toLog()} may run on a worker thread when parallel sampling is on. Set it to
+     * false for classes that must be read on the loop thread.
+     */
+    boolean parallelSampling() default true;
+
+    /**
+     * How calls to this class's logged methods are written. Getters called many times per loop
+     * can use {@link MethodLogMode#LAST} to write one record per loop instead of one per call.
+     */
+    MethodLogMode methodLogMode() default MethodLogMode.EVERY_CALL;
+
+    /**
+     * Skip unchanged values for every entry of this class that does not choose for itself.
+     */
+    ChangeOnly changeOnly() default ChangeOnly.DEFAULT;
+
+    /**
+     * Minimum time between two writes of each entry of this class that does not set its own, 0 for none.
+     */
+    long minPeriodMs() default 0;
+
+    /**
+     * Skip numeric values within this much of the last value written, for each entry of this
+     * class that does not set its own. 0 for none.
+     */
+    double deadband() default 0;
+
+}
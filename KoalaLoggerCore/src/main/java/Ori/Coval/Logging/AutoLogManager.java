@@ -0,0 +1,217 @@
+package Ori.Coval.Logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import Ori.Coval.Logging.Logger.DoubleArrayEntry;
+import Ori.Coval.Logging.Logger.EntryType;
+import Ori.Coval.Logging.Logger.KoalaLogCore;
+import Ori.Coval.Logging.Logger.LogCapture;
+
+public class AutoLogManager {
+    private static final List<Logged> loggedClasses = new ArrayList<>();
+    private static final List<Sampler> samplers = new ArrayList<>();
+    private static volatile boolean frameMode = false;
+    private static volatile ExecutorService samplingPool;
+    private static volatile ReplaySource replaySource;
+    private static volatile boolean loopTiming = false;
+    // loop thread only: the last periodic() time and the smoothed period, both in microseconds
+    private static long lastLoopMicros = -1;
+    private static double meanPeriodMicros;
+    private static final double[] loopTimes = new double[2];
+    private static DoubleArrayEntry loopEntry;
+
+    public static void register(Logged logged){
+        loggedClasses.add(logged);
+        samplers.add(new Sampler(logged));
+    }
+
+    /**
+     * Log each {@link #periodic()} call as one frame: every value it records gets the same
+     * timestamp, so a loop's values line up in Advantage Scope, and they are written to the log
+     * in a single write at the end instead of one by one.
+     */
+    public static void setFrameMode(boolean enabled) {
+        frameMode = enabled;
+    }
+
+    /**
+     * Run the registered instances' {@code toLog()} in parallel, on one worker thread per CPU
+     * core, so slow sensor reads in getters overlap instead of adding up. Their values are still
+     * written in registration order. Instances whose {@link Logged#sampleOnLoopThread()} is true
+     * (see {@code @AutoLog(parallelSampling = false)}) keep running on the loop thread.
+     */
+    public static synchronized void setParallelSampling(boolean enabled) {
+        if (enabled == (samplingPool != null)) return;
+        if (enabled) {
+            AtomicInteger count = new AtomicInteger();
+            samplingPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+                Thread t = new Thread(r, "KoalaLog-sampler-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        } else {
+            samplingPool.shutdown();
+            samplingPool = null;
+        }
+    }
+
+    /**
+     * Log {period ms, jitter ms} of every {@link #periodic()} call to {@code Timing/loop}. Jitter
+     * is how far the period is from its running average, so a spike shows which loop overran.
+     */
+    public static void setLoopTiming(boolean enabled) {
+        loopTiming = enabled;
+        lastLoopMicros = -1;
+        meanPeriodMicros = 0;
+    }
+
+    /**
+     * Replay recorded inputs instead of reading hardware: {@link ReplayInput} methods return
+     * values from {@code source}, and {@link #readInputs()} sets input fields from it.
+     * Null to go back to reading hardware. Set by the replay engine.
+     */
+    public static void setReplaySource(ReplaySource source) {
+        replaySource = source;
+    }
+
+    /**
+     * @return the log being replayed, or null when running live
+     */
+    public static ReplaySource getReplaySource() {
+        return replaySource;
+    }
+
+    /**
+     * Sets the input fields of every registered instance from the log being replayed.
+     * Does nothing when running live.
+     */
+    public static void readInputs() {
+        ReplaySource source = replaySource;
+        if (source == null) return;
+        for (Logged loggedClass : loggedClasses) {
+            loggedClass.fromLog(source);
+        }
+    }
+
+    /** Records values from all registered fields. */
+    public static void periodic() {
+        boolean frame = frameMode && KoalaLogCore.beginFrame();
+        try {
+            if (loopTiming) logLoopTiming();
+            ExecutorService pool = samplingPool;
+            if (pool != null && samplers.size() > 1) {
+                sampleInParallel(pool);
+            } else {
+                for (Logged loggedClass : loggedClasses) {
+                    loggedClass.toLog();
+                }
+            }
+        } finally {
+            if (frame) KoalaLogCore.endFrame();
+        }
+    }
+
+    private static void logLoopTiming() {
+        long now = KoalaLogCore.getTimestamp();
+        long last = lastLoopMicros;
+        lastLoopMicros = now;
+        if (last < 0) return;
+
+        double period = now - last;
+        meanPeriodMicros = meanPeriodMicros == 0 ? period : meanPeriodMicros + (period - meanPeriodMicros) / 16;
+        if (loopEntry == null) {
+            loopEntry = KoalaLogCore.entry("Timing/loop", EntryType.DOUBLE_ARRAY);
+            loopEntry.setChangeOnly(false);
+        }
+        loopTimes[0] = period / 1e3;
+        loopTimes[1] = Math.abs(period - meanPeriodMicros) / 1e3;
+        loopEntry.append(loopTimes);
+    }
+
+    private static void sampleInParallel(ExecutorService pool) {
+        int parallel = 0;
+        for (Sampler sampler : samplers) {
+            sampler.onLoopThread = sampler.logged.sampleOnLoopThread();
+            if (!sampler.onLoopThread) parallel++;
+        }
+
+        CountDownLatch done = new CountDownLatch(parallel);
+        for (Sampler sampler : samplers) {
+            if (sampler.onLoopThread) continue;
+            sampler.done = done;
+            pool.execute(sampler);
+        }
+        for (Sampler sampler : samplers) {
+            if (sampler.onLoopThread) sampler.sample();
+        }
+
+        // every worker must be finished before its capture is committed
+        boolean interrupted = false;
+        while (true) {
+            try {
+                done.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+
+        Throwable failure = null;
+        for (Sampler sampler : samplers) {
+            sampler.capture.commit();
+            if (failure == null) failure = sampler.failure;
+            sampler.failure = null;
+        }
+        if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+        if (failure instanceof Error) throw (Error) failure;
+    }
+
+    /**
+     * Samples one registered instance into its own capture.
+     */
+    private static final class Sampler implements Runnable {
+        final Logged logged;
+        final LogCapture capture = new LogCapture();
+        boolean onLoopThread;
+        CountDownLatch done;
+        Throwable failure;
+
+        Sampler(Logged logged) {
+            this.logged = logged;
+        }
+
+        void sample() {
+            capture.begin();
+            try {
+                logged.toLog();
+            } catch (Throwable t) {
+                failure = t;
+            } finally {
+                capture.end();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                sample();
+            } finally {
+                done.countDown();
+            }
+        }
+    }
+
+    static {
+        try {
+            Class.forName("Ori.Coval.AutoLog.AutoLogStaticRegistry");
+        } catch (ClassNotFoundException e) {
+            // no statics registered—ignore
+        }
+    }
+}
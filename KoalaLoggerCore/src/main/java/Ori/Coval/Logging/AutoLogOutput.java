@@ -17,5 +17,21 @@ public @interface AutoLogOutput {
      * Post to the FTC Dashboard?
      */
     boolean postToFtcDashboard() default true;
+
+    /**
+     * Skip values that have not changed since they were last written?
+     */
+    ChangeOnly changeOnly() default ChangeOnly.DEFAULT;
+
+    /**
+     * Minimum time between two writes, in milliseconds. 0 logs every cycle.
+     */
+    long minPeriodMs() default 0;
+
+    /**
+     * Skip values within this much of the last value written (per element for arrays and poses).
+     * 0 for none.
+     */
+    double deadband() default 0;
 }
 
@@ -0,0 +1,20 @@
+package Ori.Coval.Logging;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Times a method of an {@code @AutoLog} class. Each loop logs a {@code double[]} of
+ * {count, total ms, max ms} for the calls made since the last one, under
+ * {@code Timing/<Class>/<method>}. Works on void methods and with {@link DoNotLog}.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.METHOD)
+public @interface AutoLogTiming {
+    /**
+     * Post to the FTC Dashboard?
+     */
+    boolean postToFtcDashboard() default false;
+}
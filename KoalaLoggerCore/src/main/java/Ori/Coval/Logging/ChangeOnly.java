@@ -0,0 +1,14 @@
+package Ori.Coval.Logging;
+
+/**
+ * Whether an entry skips values that have not changed since they were last written.
+ * Unchanged values are still written once per keyframe interval.
+ */
+public enum ChangeOnly {
+    /** Follow the enclosing {@link AutoLog} class, or else {@code KoalaLog.setChangeOnlyLogging}. */
+    DEFAULT,
+    /** Only write values that changed. */
+    ON,
+    /** Write every value. */
+    OFF
+}
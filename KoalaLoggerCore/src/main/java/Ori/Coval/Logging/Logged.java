@@ -0,0 +1,21 @@
+package Ori.Coval.Logging;
+
+public interface Logged {
+    public void toLog();
+
+    /**
+     * @return true if {@link #toLog()} must run on the loop thread even when
+     * {@link AutoLogManager#setParallelSampling parallel sampling} is on, e.g. because it reads
+     * hardware that is not safe to touch from another thread
+     */
+    default boolean sampleOnLoopThread() {
+        return false;
+    }
+
+    /**
+     * Sets this instance's {@link ReplayInput inputs} from a replayed log. Called before each
+     * replayed loop; does nothing for classes without inputs.
+     */
+    default void fromLog(ReplaySource source) {
+    }
+}
@@ -0,0 +1,481 @@
+package Ori.Coval.Logging.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Moves log I/O off the logging threads.
+ * <p>
+ * Every thread that logs gets its own preallocated single-producer ring buffer (a lane), so
+ * producers never contend with each other. A dedicated writer thread merges whole records from all
+ * lanes in timestamp order and writes them to the output stream in large blocks. A record is held
+ * back until it is {@code holdBackMicros} old, which gives a slower thread time to publish records
+ * stamped before it; records later than that are still written, just slightly out of order.
+ * <p>
+ * Control records go through one shared lane under a lock. They are rare, never dropped, and
+ * always written before any data record published after them.
+ * <p>
+ * A frame or capture too large for a lane is split into runs of whole records, which the overflow
+ * policy then applies to one by one. A single data record too large for a lane is dropped under
+ * the drop policies. Under
+ * {@link OverflowPolicy#BLOCK} its thread waits for its lane to drain and then hands the record
+ * straight to the writer thread, so nothing is lost.
+ * <p>
+ * A lane outlives its thread only until the writer thread has drained it, so short-lived threads
+ * do not pile up lanes.
+ */
+class AsyncLogWriter implements Closeable {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final int laneCapacity;
+    private final OutputStream out;
+    private final OverflowPolicy policy;
+    private final LongSupplier clock;
+    private final long holdBackMicros;
+    private final Thread writerThread;
+
+    private final Lane controlLane;
+    // copied on every change under laneLock, so the writer and stats sampling read it without a
+    // lock or an iterator
+    private volatile Lane[] lanes = new Lane[0];
+    private final Object laneLock = new Object();
+    private final ThreadLocal<Lane> threadLane = new ThreadLocal<Lane>() {
+        @Override
+        protected Lane initialValue() {
+            Lane lane = new Lane(laneCapacity, Thread.currentThread());
+            synchronized (laneLock) {
+                Lane[] grown = Arrays.copyOf(lanes, lanes.length + 1);
+                grown[lanes.length] = lane;
+                lanes = grown;
+            }
+            return lane;
+        }
+    };
+    // what the lanes of dead threads counted, kept once they are retired; only the writer adds to them
+    private volatile long retiredDropped;
+    private volatile long retiredHighWater;
+
+    // one oversized record at a time, handed from a BLOCK producer to the writer thread
+    private final Object largeLock = new Object();
+    private volatile byte[] largeRecord;
+    private int largeOff;
+    private int largeLen;
+
+    // set by a producer waiting for its lane to empty: drain without the hold-back until it has
+    private volatile boolean flushRequested;
+
+    private byte[] block;
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    /**
+     * @param out            the stream records are drained to, only touched by the writer thread
+     * @param capacityBytes  ring size of each logging thread, rounded up to a power of two
+     * @param policy         what to do with data records when a thread's ring is full
+     * @param clock          the clock record timestamps are taken from, in microseconds
+     * @param holdBackMicros how old a record must be before it is merged into the output
+     */
+    AsyncLogWriter(OutputStream out, int capacityBytes, OverflowPolicy policy,
+                   LongSupplier clock, long holdBackMicros) {
+        this.laneCapacity = Integer.highestOneBit(Math.max(capacityBytes, 1024) - 1) << 1;
+        this.out = out;
+        this.policy = policy;
+        this.clock = clock;
+        this.holdBackMicros = holdBackMicros;
+        this.controlLane = new Lane(Math.min(laneCapacity, 64 * 1024), null);
+        this.block = new byte[Math.min(laneCapacity, 64 * 1024)];
+
+        writerThread = new Thread(this::drainLoop, "KoalaLog-writer");
+        writerThread.setDaemon(true);
+        writerThread.setPriority(Thread.NORM_PRIORITY - 1);
+        writerThread.start();
+    }
+
+    /**
+     * Queues one complete record from the calling thread.
+     *
+     * @param timestamp the record's timestamp, used to merge it with other threads' records
+     * @param control   true for control records, which wait for space regardless of the policy
+     */
+    void write(byte[] record, int off, int len, long timestamp, boolean control) {
+        if (closed) throw new IllegalStateException("log writer is closed");
+        if (failure != null) throw new RuntimeException("log writer failed", failure);
+
+        if (control) {
+            synchronized (controlLane) {
+                controlLane.write(record, off, len, timestamp, true);
+            }
+        } else if (len > laneCapacity - Lane.PREFIX) {
+            writeSplit(threadLane.get(), record, off, len, timestamp);
+        } else {
+            threadLane.get().write(record, off, len, timestamp, false);
+        }
+    }
+
+    /**
+     * Writes a batch too large for a lane as consecutive runs of whole records, each as large as
+     * a lane can take, instead of losing the entire batch.
+     */
+    private void writeSplit(Lane lane, byte[] records, int off, int len, long timestamp) {
+        int max = laneCapacity - Lane.PREFIX;
+        int end = off + len;
+        int runStart = off;
+        int p = off;
+        while (p < end) {
+            int bits = records[p] & 0xFF;
+            int idLen = (bits & 0x3) + 1;
+            int sizeLen = (bits >> 2 & 0x3) + 1;
+            int tsLen = (bits >> 4 & 0x7) + 1;
+            int next = p + 1 + idLen + sizeLen + tsLen + (int) Utils.readLe(records, p + 1 + idLen, sizeLen);
+            if (next - runStart > max && p > runStart) {
+                lane.write(records, runStart, p - runStart, timestamp, false);
+                runStart = p;
+            }
+            p = next;
+        }
+        lane.write(records, runStart, end - runStart, timestamp, false);
+    }
+
+    /**
+     * @return how many data records were discarded because a ring was full
+     */
+    long getDroppedRecords() {
+        long dropped = retiredDropped;
+        // indexed, since an iterator would allocate on every stats sample
+        Lane[] lanes = this.lanes;
+        for (int i = 0; i < lanes.length; i++) dropped += lanes[i].droppedRecords;
+        return dropped;
+    }
+
+    /**
+     * @return the most bytes any ring has held at once
+     */
+    long getHighWaterBytes() {
+        long high = Math.max(controlLane.highWater, retiredHighWater);
+        Lane[] lanes = this.lanes;
+        for (int i = 0; i < lanes.length; i++) high = Math.max(high, lanes[i].highWater);
+        return high;
+    }
+
+    /**
+     * Drains everything still buffered, then closes the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            out.flush();
+        } finally {
+            out.close();
+        }
+        if (failure != null) throw failure;
+    }
+
+    // --- Writer thread ---
+
+    private void drainLoop() {
+        long[] tails = new long[0];
+        try {
+            while (true) {
+                boolean finishing = closed;
+                boolean flushing = flushRequested;
+                if (flushing) flushRequested = false;
+                // before the control tail, so the start record of a handed over record is drained first
+                byte[] large = largeRecord;
+                Lane[] snapshot = lanes;
+                if (tails.length < snapshot.length) tails = new long[snapshot.length];
+
+                // data tails first: every start record a data record depends on is then already
+                // in the control lane when it is drained below
+                boolean pending = false;
+                for (int i = 0; i < snapshot.length; i++) {
+                    tails[i] = snapshot[i].tail.get();
+                    pending |= tails[i] != snapshot[i].head.get();
+                }
+                long controlTail = controlLane.tail.get();
+                pending |= controlTail != controlLane.head.get() || large != null;
+
+                if (!pending) {
+                    flushOut();
+                    if (finishing) return;
+                    retireDeadLanes(snapshot);
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    continue;
+                }
+
+                int n = drainControl(controlTail);
+                long cutoff = finishing || flushing ? Long.MAX_VALUE : clock.getAsLong() - holdBackMicros;
+                n = merge(snapshot, tails, cutoff, n);
+                if (n > 0) writeOut(n);
+                if (large != null) {
+                    writeOut(large, largeOff, largeLen);
+                    largeRecord = null;
+                    continue;
+                }
+
+                retireDeadLanes(snapshot);
+                if (!finishing && n == 0) {
+                    // everything queued is still inside the hold-back window
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(Math.max(holdBackMicros / 2, 1)));
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Drops the lanes whose thread has died once they are empty: nothing can be written to them
+     * anymore, and they would otherwise hold their ring and slow every merge for good.
+     */
+    private void retireDeadLanes(Lane[] snapshot) {
+        for (Lane lane : snapshot) {
+            Thread owner = lane.owner.get();
+            if ((owner == null || !owner.isAlive()) && lane.head.get() == lane.tail.get()) {
+                retire(lane);
+            }
+        }
+    }
+
+    private void retire(Lane lane) {
+        synchronized (laneLock) {
+            Lane[] current = lanes;
+            Lane[] kept = new Lane[current.length - 1];
+            int k = 0;
+            for (Lane l : current) {
+                if (l != lane) kept[k++] = l;
+            }
+            retiredDropped += lane.droppedRecords;
+            retiredHighWater = Math.max(retiredHighWater, lane.highWater);
+            lanes = kept;
+        }
+    }
+
+    private int drainControl(long tail) throws IOException {
+        int n = 0;
+        long h;
+        while ((h = controlLane.head.get()) != tail) {
+            int len = controlLane.readInt(h);
+            n = reserve(n, len);
+            controlLane.copyOut(h + Lane.PREFIX, block, n, len);
+            controlLane.head.set(h + Lane.PREFIX + len);
+            n += len;
+        }
+        return n;
+    }
+
+    /**
+     * Copies records from all lanes into {@link #block} oldest first, up to each lane's tail
+     * snapshot and no newer than {@code cutoff}. A lane more than half full is drained regardless
+     * of the cutoff, so the hold-back never makes it overflow.
+     */
+    private int merge(Lane[] lanes, long[] tails, long cutoff, int n) throws IOException {
+        while (true) {
+            Lane oldest = null;
+            long oldestTs = 0;
+            int oldestIndex = -1;
+            for (int i = 0; i < lanes.length; i++) {
+                Lane lane = lanes[i];
+                long h = lane.head.get();
+                if (h == tails[i] || tails[i] - h < Lane.PREFIX) continue;
+                long ts = lane.readLong(h + 4);
+                if (ts > cutoff && tails[i] - h <= lane.ring.length / 2) continue;
+                if (oldest == null || ts < oldestTs) {
+                    oldest = lane;
+                    oldestTs = ts;
+                    oldestIndex = i;
+                }
+            }
+            if (oldest == null) return n;
+
+            long h = oldest.head.get();
+            int len = oldest.readInt(h);
+            if (len < 0 || len > tails[oldestIndex] - h - Lane.PREFIX) {
+                // torn read, the producer dropped this record meanwhile; look again
+                continue;
+            }
+            n = reserve(n, len);
+            oldest.copyOut(h + Lane.PREFIX, block, n, len);
+            // under DROP_OLDEST the producer may have discarded it while we copied
+            if (oldest.head.compareAndSet(h, h + Lane.PREFIX + len)) n += len;
+        }
+    }
+
+    /**
+     * Makes room for {@code len} more bytes in {@link #block}, writing it out if it is full.
+     */
+    private int reserve(int n, int len) throws IOException {
+        if (n + len <= block.length) return n;
+        if (n > 0) writeOut(n);
+        if (len > block.length) block = new byte[len];
+        return 0;
+    }
+
+    private void writeOut(int n) throws IOException {
+        writeOut(block, 0, n);
+    }
+
+    private void writeOut(byte[] data, int off, int len) throws IOException {
+        if (!SelfStats.enabled) {
+            out.write(data, off, len);
+            return;
+        }
+        long start = System.nanoTime();
+        out.write(data, off, len);
+        SelfStats.write.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Waits until the writer thread has written a record that no lane can hold. The producer's
+     * own lane is drained first, so its records stay in order. The writer drains it without
+     * holding records back, since the clock may not move while this thread waits, as in a replay.
+     */
+    private void writeLarge(Lane lane, byte[] record, int off, int len) {
+        awaitWriter(lane);
+        synchronized (largeLock) {
+            largeOff = off;
+            largeLen = len;
+            largeRecord = record;
+            awaitWriter(lane);
+        }
+    }
+
+    private void awaitWriter(Lane lane) {
+        while (lane.head.get() != lane.tail.get() || largeRecord != null) {
+            if (failure != null) throw new RuntimeException("log writer failed", failure);
+            flushRequested = true;
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+    }
+
+    private void flushOut() throws IOException {
+        if (!SelfStats.enabled) {
+            out.flush();
+            return;
+        }
+        long start = System.nanoTime();
+        out.flush();
+        SelfStats.write.record(System.nanoTime() - start);
+    }
+
+    /**
+     * A single-producer ring of length- and timestamp-prefixed records.
+     */
+    private final class Lane {
+        static final int PREFIX = 12;
+
+        final byte[] ring;
+        final int mask;
+        // the producing thread, null for the shared control lane, which is never retired
+        final WeakReference<Thread> owner;
+        // read position; owned by the writer thread, but advanced by the producer under DROP_OLDEST
+        final AtomicLong head = new AtomicLong();
+        // write position; only ever advanced by the producer
+        final AtomicLong tail = new AtomicLong();
+        volatile long droppedRecords;
+        // only ever raised by the producer
+        volatile long highWater;
+
+        Lane(int capacity, Thread owner) {
+            ring = new byte[capacity];
+            mask = capacity - 1;
+            this.owner = new WeakReference<>(owner);
+        }
+
+        void write(byte[] record, int off, int len, long timestamp, boolean control) {
+            int needed = len + PREFIX;
+            if (needed > ring.length) {
+                if (control) throw new IllegalArgumentException("control record larger than the log buffer");
+                if (policy == OverflowPolicy.BLOCK) {
+                    writeLarge(this, record, off, len);
+                } else {
+                    droppedRecords++;
+                }
+                return;
+            }
+
+            long t = tail.get();
+            while (true) {
+                long h = head.get();
+                if (ring.length - (t - h) >= needed) break;
+
+                if (control || policy == OverflowPolicy.BLOCK) {
+                    if (failure != null) throw new RuntimeException("log writer failed", failure);
+                    LockSupport.unpark(writerThread);
+                    LockSupport.parkNanos(FULL_PARK_NANOS);
+                } else if (policy == OverflowPolicy.DROP_NEWEST) {
+                    droppedRecords++;
+                    return;
+                } else if (head.compareAndSet(h, h + PREFIX + readInt(h))) {
+                    droppedRecords++;
+                }
+            }
+
+            writeInt(t, len);
+            writeLong(t + 4, timestamp);
+            copyIn(t + PREFIX, record, off, len);
+            long used = t + needed - head.get();
+            tail.lazySet(t + needed);
+            if (used > highWater) highWater = used;
+
+            // wake the writer once the ring is half full rather than on every record
+            if (used >= ring.length / 2 && used - needed < ring.length / 2) {
+                LockSupport.unpark(writerThread);
+            }
+        }
+
+        void writeInt(long pos, int v) {
+            for (int i = 0; i < 4; i++) {
+                ring[(int) (pos + i) & mask] = (byte) (v >> (i * 8));
+            }
+        }
+
+        void writeLong(long pos, long v) {
+            for (int i = 0; i < 8; i++) {
+                ring[(int) (pos + i) & mask] = (byte) (v >> (i * 8));
+            }
+        }
+
+        int readInt(long pos) {
+            return (ring[(int) pos & mask] & 0xFF)
+                    | (ring[(int) (pos + 1) & mask] & 0xFF) << 8
+                    | (ring[(int) (pos + 2) & mask] & 0xFF) << 16
+                    | (ring[(int) (pos + 3) & mask] & 0xFF) << 24;
+        }
+
+        long readLong(long pos) {
+            return (readInt(pos) & 0xFFFFFFFFL) | (long) readInt(pos + 4) << 32;
+        }
+
+        void copyIn(long pos, byte[] src, int off, int len) {
+            int start = (int) pos & mask;
+            int first = Math.min(len, ring.length - start);
+            System.arraycopy(src, off, ring, start, first);
+            System.arraycopy(src, off + first, ring, 0, len - first);
+        }
+
+        void copyOut(long pos, byte[] dst, int off, int len) {
+            int start = (int) pos & mask;
+            int first = Math.min(len, ring.length - start);
+            System.arraycopy(ring, start, dst, off, first);
+            System.arraycopy(ring, 0, dst, off + first, len - first);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package Ori.Coval.Logging.Logger;
+
+/**
+ * Handle to a boolean[] entry.
+ */
+public class BooleanArrayEntry extends LogEntry {
+    // last written values, compared by content in change-only mode
+    private boolean[] last = new boolean[0];
+    private int lastLength;
+    // last posted values, formatted on the publisher thread
+    private final PostBuffer<boolean[]> posted = new PostBuffer<>(new boolean[0], new boolean[0], new boolean[0]);
+
+    BooleanArrayEntry(int id, String name, String type) {
+        super(id, name, type);
+    }
+
+    public void append(boolean[] values) {
+        long ts = KoalaLogCore.nowMicros();
+        if (isThrottled(ts)) return;
+        if (skipsRepeats()) {
+            if (isRepeat(sameAsLast(values), ts)) return;
+            remember(values);
+        }
+        beginWrite(ts);
+        KoalaLogCore.writeValue(id, values, ts);
+    }
+
+    public void append(boolean[] values, boolean post) {
+        append(values);
+        if (post) {
+            post(values);
+            markPosted();
+        }
+    }
+
+    public void append(Boolean[] values) {
+        long ts = KoalaLogCore.nowMicros();
+        if (isThrottled(ts)) return;
+        if (skipsRepeats()) {
+            if (isRepeat(sameAsLast(values), ts)) return;
+            remember(values);
+        }
+        beginWrite(ts);
+        KoalaLogCore.writeValue(id, values, ts);
+    }
+
+    public void append(Boolean[] values, boolean post) {
+        append(values);
+        if (post) {
+            post(values);
+            markPosted();
+        }
+    }
+
+    private boolean sameAsLast(boolean[] values) {
+        if (values.length != lastLength) return false;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != last[i]) return false;
+        }
+        return true;
+    }
+
+    private void remember(boolean[] values) {
+        if (last.length < values.length) last = new boolean[values.length];
+        System.arraycopy(values, 0, last, 0, values.length);
+        lastLength = values.length;
+    }
+
+    private boolean sameAsLast(Boolean[] values) {
+        if (values.length != lastLength) return false;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != last[i]) return false;
+        }
+        return true;
+    }
+
+    private void remember(Boolean[] values) {
+        if (last.length < values.length) last = new boolean[values.length];
+        for (int i = 0; i < values.length; i++) {
+            last[i] = values[i];
+        }
+        lastLength = values.length;
+    }
+
+    private void post(boolean[] values) {
+        PostBuffer.Slot<boolean[]> slot = posted.writeSlot();
+        if (slot.values.length < values.length) slot.values = new boolean[values.length];
+        System.arraycopy(values, 0, slot.values, 0, values.length);
+        slot.length = values.length;
+        posted.publish();
+    }
+
+    private void post(Boolean[] values) {
+        PostBuffer.Slot<boolean[]> slot = posted.writeSlot();
+        if (slot.values.length < values.length) slot.values = new boolean[values.length];
+        for (int i = 0; i < values.length; i++) {
+            slot.values[i] = values[i];
+        }
+        slot.length = values.length;
+        posted.publish();
+    }
+
+    @Override
+    Object dashboardValue() {
+        PostBuffer.Slot<boolean[]> slot = posted.readSlot();
+        return DashboardPublisher.format(slot.values, slot.length);
+    }
+}
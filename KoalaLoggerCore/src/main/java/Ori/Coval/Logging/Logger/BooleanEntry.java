@@ -0,0 +1,38 @@
+package Ori.Coval.Logging.Logger;
+
+/**
+ * Handle to a boolean entry.
+ */
+public class BooleanEntry extends LogEntry {
+    private boolean last;
+    // read by the publisher thread
+    private volatile boolean posted;
+
+    BooleanEntry(int id, String name, String type) {
+        super(id, name, type);
+    }
+
+    public void append(boolean value) {
+        long ts = KoalaLogCore.nowMicros();
+        if (isThrottled(ts)) return;
+        if (skipsRepeats()) {
+            if (isRepeat(value == last, ts)) return;
+            last = value;
+        }
+        beginWrite(ts);
+        KoalaLogCore.writeValue(id, value, ts);
+    }
+
+    public void append(boolean value, boolean post) {
+        append(value);
+        if (post) {
+            posted = value;
+            markPosted();
+        }
+    }
+
+    @Override
+    Object dashboardValue() {
+        return posted;
+    }
+}
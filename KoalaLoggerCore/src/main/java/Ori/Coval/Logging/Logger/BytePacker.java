@@ -0,0 +1,402 @@
+package Ori.Coval.Logging.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Utility for packing primitive and array values into little-endian byte arrays.
+ */
+public class BytePacker {
+
+    /**
+     * Packs doubles in little-endian into a byte array.
+     *
+     * @return a byte array of length values.length * Double.BYTES
+     */
+    public static byte[] packDoubles(double value) {
+        byte[] arr = new byte[Double.BYTES];
+        packDoubles(value, arr, 0);
+        return arr;
+    }
+    /**
+     * Packs doubles in little-endian into a byte array.
+     *
+     * @param values the double values to pack
+     * @return a byte array of length values.length * Double.BYTES
+     */
+    public static byte[] packDoubles(double[] values) {
+        byte[] arr = new byte[values.length * Double.BYTES];
+        packDoubles(values, arr, 0);
+        return arr;
+    }
+    /**
+     * Packs doubles in little-endian into a byte array.
+     *
+     * @param values the double values to pack
+     * @return a byte array of length values.length * Double.BYTES
+     */
+    public static byte[] packDoubles(Double[] values) {
+        byte[] arr = new byte[values.length * Double.BYTES];
+        packDoubles(values, arr, 0);
+        return arr;
+    }
+
+    /**
+     * Packs a double in little-endian into {@code dst} at {@code off}.
+     *
+     * @return the offset just past the packed value
+     */
+    public static int packDoubles(double value, byte[] dst, int off) {
+        Utils.putLe64(dst, off, Double.doubleToRawLongBits(value));
+        return off + Double.BYTES;
+    }
+    /**
+     * Packs doubles in little-endian into {@code dst} at {@code off}.
+     *
+     * @return the offset just past the packed values
+     */
+    public static int packDoubles(double[] values, byte[] dst, int off) {
+        for (double v : values) {
+            Utils.putLe64(dst, off, Double.doubleToRawLongBits(v));
+            off += Double.BYTES;
+        }
+        return off;
+    }
+    /**
+     * Packs doubles in little-endian into {@code dst} at {@code off}.
+     *
+     * @return the offset just past the packed values
+     */
+    public static int packDoubles(Double[] values, byte[] dst, int off) {
+        for (Double v : values) {
+            Utils.putLe64(dst, off, Double.doubleToRawLongBits(v));
+            off += Double.BYTES;
+        }
+        return off;
+    }
+
+    /**
+     * Packs float in little-endian into a byte array.
+     * @return a byte array of length values.length * Float.BYTES
+     */
+    public static byte[] packFloats(float value) {
+        byte[] arr = new byte[Float.BYTES];
+        packFloats(value, arr, 0);
+        return arr;
+    }
+    /**
+     * Packs floats in little-endian into a byte array.
+     * @param values the float values to pack
+     * @return a byte array of length values.length * Float.BYTES
+     */
+    public static byte[] packFloats(float[] values) {
+        byte[] arr = new byte[values.length * Float.BYTES];
+        packFloats(values, arr, 0);
+        return arr;
+    }
+    /**
+     * Packs floats in little-endian into a byte array.
+     * @param values the float values to pack
+     * @return a byte array of length values.length * Float.BYTES
+     */
+    public static byte[] packFloats(Float[] values) {
+        byte[] arr = new byte[values.length * Float.BYTES];
+        packFloats(values, arr, 0);
+        return arr;
+    }
+
+    /**
+     * Packs a float in little-endian into {@code dst} at {@code off}.
+     * @return the offset just past the packed value
+     */
+    public static int packFloats(float value, byte[] dst, int off) {
+        Utils.putLe32(dst, off, Float.floatToRawIntBits(value));
+        return off + Float.BYTES;
+    }
+    /**
+     * Packs floats in little-endian into {@code dst} at {@code off}.
+     * @return the offset just past the packed values
+     */
+    public static int packFloats(float[] values, byte[] dst, int off) {
+        for (float v : values) {
+            Utils.putLe32(dst, off, Float.floatToRawIntBits(v));
+            off += Float.BYTES;
+        }
+        return off;
+    }
+    /**
+     * Packs floats in little-endian into {@code dst} at {@code off}.
+     * @return the offset just past the packed values
+     */
+    public static int packFloats(Float[] values, byte[] dst, int off) {
+        for (Float v : values) {
+            Utils.putLe32(dst, off, Float.floatToRawIntBits(v));
+            off += Float.BYTES;
+        }
+        return off;
+    }
+
+    /**
+     * Packs longs in little-endian into a byte array.
+     * @return a byte array of length values.length * Long.BYTES
+     */
+    public static byte[] packLongs(long value) {
+        byte[] arr = new byte[Long.BYTES];
+        packLongs(value, arr, 0);
+        return arr;
+    }
+    /**
+     * Packs longs in little-endian into a byte array.
+     * @param values the long values to pack
+     * @return a byte array of length values.length * Long.BYTES
+     */
+    public static byte[] packLongs(long[] values) {
+        byte[] arr = new byte[values.length * Long.BYTES];
+        packLongs(values, arr, 0);
+        return arr;
+    }
+    /**
+     * Packs longs in little-endian into a byte array.
+     * @param values the long values to pack
+     * @return a byte array of length values.length * Long.BYTES
+     */
+    public static byte[] packLongs(Long[] values) {
+        byte[] arr = new byte[values.length * Long.BYTES];
+        packLongs(values, arr, 0);
+        return arr;
+    }
+
+    /**
+     * Packs a long in little-endian into {@code dst} at {@code off}.
+     * @return the offset just past the packed value
+     */
+    public static int packLongs(long value, byte[] dst, int off) {
+        Utils.putLe64(dst, off, value);
+        return off + Long.BYTES;
+    }
+    /**
+     * Packs longs in little-endian into {@code dst} at {@code off}.
+     * @return the offset just past the packed values
+     */
+    public static int packLongs(long[] values, byte[] dst, int off) {
+        for (long v : values) {
+            Utils.putLe64(dst, off, v);
+            off += Long.BYTES;
+        }
+        return off;
+    }
+    /**
+     * Packs longs in little-endian into {@code dst} at {@code off}.
+     * @return the offset just past the packed values
+     */
+    public static int packLongs(Long[] values, byte[] dst, int off) {
+        for (Long v : values) {
+            Utils.putLe64(dst, off, v);
+            off += Long.BYTES;
+        }
+        return off;
+    }
+    /**
+     * Widens ints to longs and packs them in little-endian into {@code dst} at {@code off},
+     * for logging int arrays as int64[].
+     * @return the offset just past the packed values
+     */
+    public static int packLongs(int[] values, byte[] dst, int off) {
+        for (int v : values) {
+            Utils.putLe64(dst, off, v);
+            off += Long.BYTES;
+        }
+        return off;
+    }
+    /**
+     * Widens ints to longs and packs them in little-endian into {@code dst} at {@code off},
+     * for logging int arrays as int64[].
+     * @return the offset just past the packed values
+     */
+    public static int packLongs(Integer[] values, byte[] dst, int off) {
+        for (Integer v : values) {
+            Utils.putLe64(dst, off, v);
+            off += Long.BYTES;
+        }
+        return off;
+    }
+
+    /**
+     * Packs ints in little-endian into a byte array.
+     * @return a byte array of length values.length * Integer.BYTES
+     */
+    public static byte[] packInts(int value) {
+        byte[] arr = new byte[Integer.BYTES];
+        packInts(value, arr, 0);
+        return arr;
+    }
+    /**
+     * Packs ints in little-endian into a byte array.
+     * @param values the int values to pack
+     * @return a byte array of length values.length * Integer.BYTES
+     */
+    public static byte[] packInts(int[] values) {
+        byte[] arr = new byte[values.length * Integer.BYTES];
+        packInts(values, arr, 0);
+        return arr;
+    }
+    /**
+     * Packs ints in little-endian into a byte array.
+     * @param values the int values to pack
+     * @return a byte array of length values.length * Integer.BYTES
+     */
+    public static byte[] packInts(Integer[] values) {
+        byte[] arr = new byte[values.length * Integer.BYTES];
+        packInts(values, arr, 0);
+        return arr;
+    }
+
+    /**
+     * Packs an int in little-endian into {@code dst} at {@code off}.
+     * @return the offset just past the packed value
+     */
+    public static int packInts(int value, byte[] dst, int off) {
+        Utils.putLe32(dst, off, value);
+        return off + Integer.BYTES;
+    }
+    /**
+     * Packs ints in little-endian into {@code dst} at {@code off}.
+     * @return the offset just past the packed values
+     */
+    public static int packInts(int[] values, byte[] dst, int off) {
+        for (int v : values) {
+            Utils.putLe32(dst, off, v);
+            off += Integer.BYTES;
+        }
+        return off;
+    }
+    /**
+     * Packs ints in little-endian into {@code dst} at {@code off}.
+     * @return the offset just past the packed values
+     */
+    public static int packInts(Integer[] values, byte[] dst, int off) {
+        for (Integer v : values) {
+            Utils.putLe32(dst, off, v);
+            off += Integer.BYTES;
+        }
+        return off;
+    }
+
+    /**
+     * Packs booleans into a byte array, using 1 byte per boolean (1 for true, 0 for false).
+     * @return a byte array of length values.length
+     */
+    public static byte[] packBooleans(boolean values) {
+        return new byte[]{(byte) (values ? 1 : 0)};
+    }
+    /**
+     * Packs booleans into a byte array, using 1 byte per boolean (1 for true, 0 for false).
+     * @param values the boolean values to pack
+     * @return a byte array of length values.length
+     */
+    public static byte[] packBooleans(boolean[] values) {
+        byte[] arr = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            arr[i] = (byte) (values[i] ? 1 : 0);
+        }
+        return arr;
+    }
+    /**
+     * Packs booleans into a byte array, using 1 byte per boolean (1 for true, 0 for false).
+     * @param values the boolean values to pack
+     * @return a byte array of length values.length
+     */
+    public static byte[] packBooleans(Boolean[] values) {
+        byte[] arr = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            arr[i] = (byte) (values[i] ? 1 : 0);
+        }
+        return arr;
+    }
+
+    /**
+     * Packs a boolean into {@code dst} at {@code off} as 1 byte (1 for true, 0 for false).
+     * @return the offset just past the packed value
+     */
+    public static int packBooleans(boolean value, byte[] dst, int off) {
+        dst[off] = (byte) (value ? 1 : 0);
+        return off + 1;
+    }
+    /**
+     * Packs booleans into {@code dst} at {@code off}, using 1 byte per boolean.
+     * @return the offset just past the packed values
+     */
+    public static int packBooleans(boolean[] values, byte[] dst, int off) {
+        for (boolean v : values) {
+            dst[off++] = (byte) (v ? 1 : 0);
+        }
+        return off;
+    }
+    /**
+     * Packs booleans into {@code dst} at {@code off}, using 1 byte per boolean.
+     * @return the offset just past the packed values
+     */
+    public static int packBooleans(Boolean[] values, byte[] dst, int off) {
+        for (Boolean v : values) {
+            dst[off++] = (byte) (v ? 1 : 0);
+        }
+        return off;
+    }
+
+    /**
+     * Packs an array of UTF‑8 strings into the WPILOG array‑of‑strings format:
+     *  4‑byte LE count N,
+     *  then for each string: 4‑byte LE length, followed by UTF‑8 bytes.
+     */
+    public static byte[] packStrings(String... values) throws IOException{
+        ByteArrayOutputStream bb = new ByteArrayOutputStream();
+        // number of strings
+        bb.write(Utils.le32(values.length));
+        for (String s : values) {
+            byte[] sb = s.getBytes(StandardCharsets.UTF_8);
+            // length of this string
+            bb.write(Utils.le32(sb.length));
+            // string bytes
+            bb.write(sb);
+        }
+        return bb.toByteArray();
+    }
+
+    /**
+     * Packs a string as raw UTF-8 into {@code dst} at {@code off}, the WPILOG string format.
+     * @return the offset just past the packed bytes
+     */
+    public static int packString(String value, byte[] dst, int off) {
+        return Utils.putUtf8(dst, off, value);
+    }
+
+    /**
+     * Packs strings into {@code dst} at {@code off} in the WPILOG array-of-strings format.
+     * @return the offset just past the packed bytes
+     * @see #packStrings(String...)
+     */
+    public static int packStrings(String[] values, byte[] dst, int off) {
+        Utils.putLe32(dst, off, values.length);
+        off += 4;
+        for (String s : values) {
+            int start = off + 4;
+            int end = Utils.putUtf8(dst, start, s);
+            Utils.putLe32(dst, off, end - start);
+            off = end;
+        }
+        return off;
+    }
+
+    /**
+     * @return the number of bytes {@link #packStrings(String[], byte[], int)} writes for {@code values}
+     */
+    public static int stringsSize(String[] values) {
+        int size = 4;
+        for (String s : values) {
+            size += 4 + Utils.utf8Length(s);
+        }
+        return size;
+    }
+
+}
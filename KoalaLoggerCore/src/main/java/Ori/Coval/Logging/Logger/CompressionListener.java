@@ -0,0 +1,14 @@
+package Ori.Coval.Logging.Logger;
+
+import java.io.File;
+
+/**
+ * Told about every log that finished compressing, live or in the background.
+ * Called on the thread that did the compressing.
+ */
+public interface CompressionListener {
+    /**
+     * @param compressed the {@code .wpilog.gz} file
+     */
+    void onCompressed(File compressed, CompressionStats stats);
+}
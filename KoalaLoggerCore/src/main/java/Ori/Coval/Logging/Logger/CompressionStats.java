@@ -0,0 +1,63 @@
+package Ori.Coval.Logging.Logger;
+
+import java.util.Locale;
+
+/**
+ * How well a log compressed, and what it cost.
+ */
+public final class CompressionStats {
+    private final long inputBytes;
+    private final long outputBytes;
+    private final long compressNanos;
+    private final boolean cpuTime;
+
+    CompressionStats(long inputBytes, long outputBytes, long compressNanos, boolean cpuTime) {
+        this.inputBytes = inputBytes;
+        this.outputBytes = outputBytes;
+        this.compressNanos = compressNanos;
+        this.cpuTime = cpuTime;
+    }
+
+    /**
+     * @return uncompressed size in bytes
+     */
+    public long getInputBytes() {
+        return inputBytes;
+    }
+
+    /**
+     * @return compressed size in bytes
+     */
+    public long getOutputBytes() {
+        return outputBytes;
+    }
+
+    /**
+     * @return time spent compressing, in nanoseconds: CPU time if {@link #isCpuTime}, otherwise
+     * elapsed time, which also counts any time the compressing thread was waiting to run
+     */
+    public long getCompressNanos() {
+        return compressNanos;
+    }
+
+    /**
+     * @return whether {@link #getCompressNanos} is CPU time; it is elapsed time on JVMs that
+     * cannot measure a thread's CPU time, such as Android's
+     */
+    public boolean isCpuTime() {
+        return cpuTime;
+    }
+
+    /**
+     * @return uncompressed size divided by compressed size, e.g. 6.0 for a log six times smaller
+     */
+    public double getRatio() {
+        return outputBytes == 0 ? 0 : (double) inputBytes / outputBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%d -> %d bytes (%.1fx) in %.1f ms%s",
+                inputBytes, outputBytes, getRatio(), compressNanos / 1e6, cpuTime ? " of CPU" : "");
+    }
+}
@@ -0,0 +1,125 @@
+package Ori.Coval.Logging.Logger;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends posted entries to the {@link DashboardSink} from a background thread.
+ * <p>
+ * Posting from the loop only stores the raw value in the entry and bumps its version; nothing is
+ * formatted or sent there. At a fixed rate this thread formats the latest value of every posted
+ * entry and sends them together as one update, and skips the update when nothing changed. Values
+ * posted faster than that rate coalesce to the latest.
+ */
+final class DashboardPublisher {
+
+    private static final CopyOnWriteArrayList<LogEntry> posted = new CopyOnWriteArrayList<>();
+    private static volatile long periodNanos = TimeUnit.MILLISECONDS.toNanos(50);
+    private static Thread thread;
+
+    private DashboardPublisher() {
+    }
+
+    /**
+     * @param hz how many updates to send per second at most
+     */
+    static void setRate(double hz) {
+        if (!(hz > 0)) throw new IllegalArgumentException("hz must be positive");
+        periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / hz);
+    }
+
+    /**
+     * Adds an entry the first time it is posted, starting the publisher thread if needed.
+     */
+    static synchronized void register(LogEntry entry) {
+        posted.add(entry);
+        if (thread == null) {
+            thread = new Thread(DashboardPublisher::run, "KoalaLog-dashboard");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            thread.start();
+        }
+    }
+
+    private static void run() {
+        while (true) {
+            LockSupport.parkNanos(periodNanos);
+            try {
+                publish();
+            } catch (RuntimeException e) {
+                // the dashboard not running must never take the publisher down; try again next tick
+            }
+        }
+    }
+
+    static void publish() {
+        DashboardSink sink = KoalaLogCore.dashboard;
+        if (sink == null) return;
+
+        boolean changed = false;
+        for (LogEntry entry : posted) {
+            changed |= entry.postVersion.get() != entry.publishedVersion;
+        }
+        if (!changed) return;
+
+        // the sink shows one update at a time, so every entry goes in, not just the changed ones
+        for (LogEntry entry : posted) {
+            entry.publishedVersion = entry.postVersion.get();
+            sink.put(entry.name, entry.dashboardValue());
+        }
+        sink.update();
+    }
+
+    // --- Formatting, the same as Arrays.toString over the first n values ---
+
+    static String format(boolean[] values, int n) {
+        n = Math.min(n, values.length);
+        StringBuilder sb = new StringBuilder(n * 7 + 2).append('[');
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(values[i]);
+        }
+        return sb.append(']').toString();
+    }
+
+    static String format(long[] values, int n) {
+        n = Math.min(n, values.length);
+        StringBuilder sb = new StringBuilder(n * 8 + 2).append('[');
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(values[i]);
+        }
+        return sb.append(']').toString();
+    }
+
+    static String format(float[] values, int n) {
+        n = Math.min(n, values.length);
+        StringBuilder sb = new StringBuilder(n * 8 + 2).append('[');
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(values[i]);
+        }
+        return sb.append(']').toString();
+    }
+
+    static String format(double[] values, int n) {
+        n = Math.min(n, values.length);
+        StringBuilder sb = new StringBuilder(n * 8 + 2).append('[');
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(values[i]);
+        }
+        return sb.append(']').toString();
+    }
+
+    static String format(String[] values, int n) {
+        n = Math.min(n, values.length);
+        StringBuilder sb = new StringBuilder(n * 8 + 2).append('[');
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(values[i]);
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,18 @@
+package Ori.Coval.Logging.Logger;
+
+/**
+ * A live view of logged values, such as FTC Dashboard telemetry.
+ * Installed with {@link KoalaLogCore#setDashboardSink}; only ever called from the dashboard
+ * publisher thread.
+ */
+public interface DashboardSink {
+    /**
+     * Adds the latest value of an entry to the next update.
+     */
+    void put(String name, Object value);
+
+    /**
+     * Sends everything put since the last update.
+     */
+    void update();
+}
@@ -0,0 +1,108 @@
+package Ori.Coval.Logging.Logger;
+
+/**
+ * Handle to a double[] entry.
+ */
+public class DoubleArrayEntry extends LogEntry {
+    // last written values, compared by content in change-only mode
+    private double[] last = new double[0];
+    private int lastLength;
+    // last posted values, formatted on the publisher thread
+    private final PostBuffer<double[]> posted = new PostBuffer<>(new double[0], new double[0], new double[0]);
+
+    DoubleArrayEntry(int id, String name, String type) {
+        super(id, name, type);
+    }
+
+    public void append(double[] values) {
+        long ts = KoalaLogCore.nowMicros();
+        if (isThrottled(ts)) return;
+        if (skipsRepeats()) {
+            if (isRepeat(sameAsLast(values), ts)) return;
+            remember(values);
+        }
+        beginWrite(ts);
+        KoalaLogCore.writeValue(id, values, ts);
+    }
+
+    public void append(double[] values, boolean post) {
+        append(values);
+        if (post) {
+            post(values);
+            markPosted();
+        }
+    }
+
+    public void append(Double[] values) {
+        long ts = KoalaLogCore.nowMicros();
+        if (isThrottled(ts)) return;
+        if (skipsRepeats()) {
+            if (isRepeat(sameAsLast(values), ts)) return;
+            remember(values);
+        }
+        beginWrite(ts);
+        KoalaLogCore.writeValue(id, values, ts);
+    }
+
+    public void append(Double[] values, boolean post) {
+        append(values);
+        if (post) {
+            post(values);
+            markPosted();
+        }
+    }
+
+    private boolean sameAsLast(double[] values) {
+        if (values.length != lastLength) return false;
+        for (int i = 0; i < values.length; i++) {
+            if (!near(values[i], last[i])) return false;
+        }
+        return true;
+    }
+
+    private void remember(double[] values) {
+        if (last.length < values.length) last = new double[values.length];
+        System.arraycopy(values, 0, last, 0, values.length);
+        lastLength = values.length;
+    }
+
+    private boolean sameAsLast(Double[] values) {
+        if (values.length != lastLength) return false;
+        for (int i = 0; i < values.length; i++) {
+            if (!near(values[i], last[i])) return false;
+        }
+        return true;
+    }
+
+    private void remember(Double[] values) {
+        if (last.length < values.length) last = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            last[i] = values[i];
+        }
+        lastLength = values.length;
+    }
+
+    private void post(double[] values) {
+        PostBuffer.Slot<double[]> slot = posted.writeSlot();
+        if (slot.values.length < values.length) slot.values = new double[values.length];
+        System.arraycopy(values, 0, slot.values, 0, values.length);
+        slot.length = values.length;
+        posted.publish();
+    }
+
+    private void post(Double[] values) {
+        PostBuffer.Slot<double[]> slot = posted.writeSlot();
+        if (slot.values.length < values.length) slot.values = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            slot.values[i] = values[i];
+        }
+        slot.length = values.length;
+        posted.publish();
+    }
+
+    @Override
+    Object dashboardValue() {
+        PostBuffer.Slot<double[]> slot = posted.readSlot();
+        return DashboardPublisher.format(slot.values, slot.length);
+    }
+}
@@ -0,0 +1,38 @@
+package Ori.Coval.Logging.Logger;
+
+/**
+ * Handle to a double entry.
+ */
+public class DoubleEntry extends LogEntry {
+    private double last;
+    // read by the publisher thread
+    private volatile double posted;
+
+    DoubleEntry(int id, String name, String type) {
+        super(id, name, type);
+    }
+
+    public void append(double value) {
+        long ts = KoalaLogCore.nowMicros();
+        if (isThrottled(ts)) return;
+        if (skipsRepeats()) {
+            if (isRepeat(near(value, last), ts)) return;
+            last = value;
+        }
+        beginWrite(ts);
+        KoalaLogCore.writeValue(id, value, ts);
+    }
+
+    public void append(double value, boolean post) {
+        append(value);
+        if (post) {
+            posted = value;
+            markPosted();
+        }
+    }
+
+    @Override
+    Object dashboardValue() {
+        return posted;
+    }
+}
@@ -0,0 +1,72 @@
+package Ori.Coval.Logging.Logger;
+
+/**
+ * The WPILOG type of an entry, and the kind of handle {@link KoalaLogCore#entry} returns for it.
+ *
+ * <pre> {@code DoubleEntry leftVel = KoalaLog.entry("Drive/leftVel", EntryType.DOUBLE);}</pre>
+ *
+ * @param <E> the handle type
+ */
+public final class EntryType<E extends LogEntry> {
+    public static final EntryType<BooleanEntry> BOOLEAN = new EntryType<>("boolean", BooleanEntry::new);
+    public static final EntryType<LongEntry> LONG = new EntryType<>("int64", LongEntry::new);
+    public static final EntryType<FloatEntry> FLOAT = new EntryType<>("float", FloatEntry::new);
+    public static final EntryType<DoubleEntry> DOUBLE = new EntryType<>("double", DoubleEntry::new);
+    public static final EntryType<StringEntry> STRING = new EntryType<>("string", StringEntry::new);
+
+    public static final EntryType<BooleanArrayEntry> BOOLEAN_ARRAY = new EntryType<>("boolean[]", BooleanArrayEntry::new);
+    public static final EntryType<LongArrayEntry> LONG_ARRAY = new EntryType<>("int64[]", LongArrayEntry::new);
+    public static final EntryType<FloatArrayEntry> FLOAT_ARRAY = new EntryType<>("float[]", FloatArrayEntry::new);
+    public static final EntryType<DoubleArrayEntry> DOUBLE_ARRAY = new EntryType<>("double[]", DoubleArrayEntry::new);
+    public static final EntryType<StringArrayEntry> STRING_ARRAY = new EntryType<>("string[]", StringArrayEntry::new);
+
+    public static final EntryType<Translation2dEntry> TRANSLATION2D = new EntryType<>("struct:Translation2d", Translation2dEntry::new);
+    public static final EntryType<Rotation2dEntry> ROTATION2D = new EntryType<>("struct:Rotation2d", Rotation2dEntry::new);
+    public static final EntryType<Pose2dEntry> POSE2D = new EntryType<>("struct:Pose2d", Pose2dEntry::new);
+
+    private static final EntryType<?>[] BUILT_IN = {
+            BOOLEAN, LONG, FLOAT, DOUBLE, STRING,
+            BOOLEAN_ARRAY, LONG_ARRAY, FLOAT_ARRAY, DOUBLE_ARRAY, STRING_ARRAY,
+            TRANSLATION2D, ROTATION2D, POSE2D
+    };
+
+    /**
+     * @return the built-in type with this WPILOG type string, or a raw type if there is none
+     */
+    static EntryType<?> forWpiType(String wpiType) {
+        for (EntryType<?> type : BUILT_IN) {
+            if (type.wpiType.equals(wpiType)) return type;
+        }
+        return raw(wpiType);
+    }
+
+    /**
+     * An entry of any WPILOG type whose payload is packed by the caller.
+     *
+     * @param wpiType the WPILOG type string, e.g. "structschema"
+     */
+    public static EntryType<RawEntry> raw(String wpiType) {
+        return new EntryType<>(wpiType, (id, name, type) -> new RawEntry(id, name, type));
+    }
+
+    interface Factory<E extends LogEntry> {
+        E create(int id, String name, String wpiType);
+    }
+
+    final String wpiType;
+    private final Factory<E> factory;
+
+    private EntryType(String wpiType, Factory<E> factory) {
+        this.wpiType = wpiType;
+        this.factory = factory;
+    }
+
+    E create(int id, String name) {
+        return factory.create(id, name, wpiType);
+    }
+
+    @Override
+    public String toString() {
+        return wpiType;
+    }
+}
@@ -0,0 +1,77 @@
+package Ori.Coval.Logging.Logger;
+
+import java.io.IOException;
+
+/**
+ * Writes the same log to several sinks.
+ * <p>
+ * A sink that fails is closed and left out from then on, so losing a socket does not stop the
+ * file; writing only fails once every sink has.
+ */
+class FanOutSink implements LogSink {
+
+    private final LogSink[] sinks;
+    private final boolean[] failed;
+    private int live;
+
+    FanOutSink(LogSink[] sinks) {
+        this.sinks = sinks.clone();
+        this.failed = new boolean[sinks.length];
+        this.live = sinks.length;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        IOException failure = null;
+        for (int i = 0; i < sinks.length; i++) {
+            if (failed[i]) continue;
+            try {
+                sinks[i].write(b, off, len);
+            } catch (IOException e) {
+                failure = drop(i, e);
+            }
+        }
+        if (live == 0 && failure != null) throw failure;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        IOException failure = null;
+        for (int i = 0; i < sinks.length; i++) {
+            if (failed[i]) continue;
+            try {
+                sinks[i].flush();
+            } catch (IOException e) {
+                failure = drop(i, e);
+            }
+        }
+        if (live == 0 && failure != null) throw failure;
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (int i = 0; i < sinks.length; i++) {
+            if (failed[i]) continue;
+            failed[i] = true;
+            try {
+                sinks[i].close();
+            } catch (IOException e) {
+                if (failure == null) failure = e;
+            }
+        }
+        live = 0;
+        if (failure != null) throw failure;
+    }
+
+    private IOException drop(int i, IOException e) {
+        failed[i] = true;
+        live--;
+        try {
+            sinks[i].close();
+        } catch (IOException closing) {
+            e.addSuppressed(closing);
+        }
+        return e;
+    }
+}
@@ -0,0 +1,37 @@
+package Ori.Coval.Logging.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes the log to one file, through the same memory mapping, durability, compression and
+ * footer index options as {@link KoalaLogCore#setup(File)}. Segment rotation and retention
+ * only apply to logs set up by file name.
+ */
+public final class FileSink implements LogSink {
+
+    private final OutputStream out;
+
+    /**
+     * @throws IOException if the file cannot be created
+     */
+    public FileSink(File file) throws IOException {
+        out = LogFileManager.openFile(file);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,108 @@
+package Ori.Coval.Logging.Logger;
+
+/**
+ * Handle to a float[] entry.
+ */
+public class FloatArrayEntry extends LogEntry {
+    // last written values, compared by content in change-only mode
+    private float[] last = new float[0];
+    private int lastLength;
+    // last posted values, formatted on the publisher thread
+    private final PostBuffer<float[]> posted = new PostBuffer<>(new float[0], new float[0], new float[0]);
+
+    FloatArrayEntry(int id, String name, String type) {
+        super(id, name, type);
+    }
+
+    public void append(float[] values) {
+        long ts = KoalaLogCore.nowMicros();
+        if (isThrottled(ts)) return;
+        if (skipsRepeats()) {
+            if (isRepeat(sameAsLast(values), ts)) return;
+            remember(values);
+        }
+        beginWrite(ts);
+        KoalaLogCore.writeValue(id, values, ts);
+    }
+
+    public void append(float[] values, boolean post) {
+        append(values);
+        if (post) {
+            post(values);
+            markPosted();
+        }
+    }
+
+    public void append(Float[] values) {
+        long ts = KoalaLogCore.nowMicros();
+        if (isThrottled(ts)) return;
+        if (skipsRepeats()) {
+            if (isRepeat(sameAsLast(values), ts)) return;
+            remember(values);
+        }
+        beginWrite(ts);
+        KoalaLogCore.writeValue(id, values, ts);
+    }
+
+    public void append(Float[] values, boolean post) {
+        append(values);
+        if (post) {
+            post(values);
+            markPosted();
+        }
+    }
+
+    private boolean sameAsLast(float[] values) {
+        if (values.length != lastLength) return false;
+        for (int i = 0; i < values.length; i++) {
+            if (!near(values[i], last[i])) return false;
+        }
+        return true;
+    }
+
+    private void remember(float[] values) {
+        if (last.length < values.length) last = new float[values.length];
+        System.arraycopy(values, 0, last, 0, values.length);
+        lastLength = values.length;
+    }
+
+    private boolean sameAsLast(Float[] values) {
+        if (values.length != lastLength) return false;
+        for (int i = 0; i < values.length; i++) {
+            if (!near(values[i], last[i])) return false;
+        }
+        return true;
+    }
+
+    private void remember(Float[] values) {
+        if (last.length < values.length) last = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            last[i] = values[i];
+        }
+        lastLength = values.length;
+    }
+
+    private void post(float[] values) {
+        PostBuffer.Slot<float[]> slot = posted.writeSlot();
+        if (slot.values.length < values.length) slot.values = new float[values.length];
+        System.arraycopy(values, 0, slot.values, 0, values.length);
+        slot.length = values.length;
+        posted.publish();
+    }
+
+    private void post(Float[] values) {
+        PostBuffer.Slot<float[]> slot = posted.writeSlot();
+        if (slot.values.length < values.length) slot.values = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            slot.values[i] = values[i];
+        }
+        slot.length = values.length;
+        posted.publish();
+    }
+
+    @Override
+    Object dashboardValue() {
+        PostBuffer.Slot<float[]> slot = posted.readSlot();
+        return DashboardPublisher.format(slot.values, slot.length);
+    }
+}
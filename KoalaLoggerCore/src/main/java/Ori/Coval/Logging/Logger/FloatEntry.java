@@ -0,0 +1,38 @@
+package Ori.Coval.Logging.Logger;
+
+/**
+ * Handle to a float entry.
+ */
+public class FloatEntry extends LogEntry {
+    private float last;
+    // read by the publisher thread
+    private volatile float posted;
+
+    FloatEntry(int id, String name, String type) {
+        super(id, name, type);
+    }
+
+    public void append(float value) {
+        long ts = KoalaLogCore.nowMicros();
+        if (isThrottled(ts)) return;
+        if (skipsRepeats()) {
+            if (isRepeat(near(value, last), ts)) return;
+            last = value;
+        }
+        beginWrite(ts);
+        KoalaLogCore.writeValue(id, value, ts);
+    }
+
+    public void append(float value, boolean post) {
+        append(value);
+        if (post) {
+            posted = value;
+            markPosted();
+        }
+    }
+
+    @Override
+    Object dashboardValue() {
+        return posted;
+    }
+}
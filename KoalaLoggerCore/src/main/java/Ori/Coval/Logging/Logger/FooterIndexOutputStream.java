@@ -0,0 +1,261 @@
+package Ori.Coval.Logging.Logger;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Notes the offset of every record written to one log file, and appends them as an index at
+ * close, so a reader can open the file without scanning it.
+ * <p>
+ * The index is an ordinary record of a raw entry named {@value #INDEX_ENTRY}, so the file stays
+ * a valid WPILOG. Its payload, all little-endian:
+ * <pre>
+ * u32 version
+ * u32 entry count, then per entry:
+ *     u32 id, u32 start record offset, u32 finish record offset or 0xFFFFFFFF,
+ *     u32 record count, u32 offset of each data record in file order
+ * u32 payload length, this field and the magic included
+ * "KOALAIDX"
+ * </pre>
+ * The magic ends the file, so the reader finds the index from the last 12 bytes. Each offset
+ * costs 4 bytes of memory until close. Files past 2 GB are closed without an index.
+ */
+class FooterIndexOutputStream extends FilterOutputStream {
+
+    static final String INDEX_ENTRY = "/.koala/index";
+    static final byte[] MAGIC = "KOALAIDX".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+    private static final int NO_FINISH = -1;
+
+    private static final class Block {
+        final int id;
+        final int start;
+        int finish = NO_FINISH;
+        int[] offsets = new int[64];
+        int count;
+
+        Block(int id, int start) {
+            this.id = id;
+            this.start = start;
+        }
+
+        void add(int offset) {
+            if (count == offsets.length) {
+                int[] grown = new int[offsets.length * 2];
+                System.arraycopy(offsets, 0, grown, 0, count);
+                offsets = grown;
+            }
+            offsets[count++] = offset;
+        }
+    }
+
+    private final HashMap<Integer, Block> open = new HashMap<>();
+    private final List<Block> blocks = new ArrayList<>();
+    private int largestId;
+    private long lastTs;
+    private boolean tooLarge;
+    private boolean closed;
+
+    // parse state, carried between writes
+    private long pos;
+    private long headerEnd = -1;
+    private final byte[] head = new byte[17 + 5];
+    private int headFill;
+    private int headLen;
+    private long recordStart;
+    private long skip;
+
+    FooterIndexOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        if (!tooLarge) scan(b, off, off + len);
+        pos += len;
+        if (pos > Integer.MAX_VALUE) tooLarge = true;
+    }
+
+    /**
+     * Appends the index, then closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            if (!tooLarge && headerEnd >= 0 && skip == 0 && headFill == 0) writeIndex();
+            out.flush();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void scan(byte[] b, int p, int end) {
+        long base = pos - p;
+        while (p < end) {
+            if (skip > 0) {
+                int n = (int) Math.min(skip, end - p);
+                skip -= n;
+                p += n;
+                continue;
+            }
+            if (headerEnd < 0) {
+                // the file header: 12 fixed bytes, then the extra header
+                int n = Math.min(12 - headFill, end - p);
+                System.arraycopy(b, p, head, headFill, n);
+                headFill += n;
+                p += n;
+                if (headFill == 12) {
+                    long extra = Utils.readLe(head, 8, 4);
+                    headerEnd = 12 + extra;
+                    skip = extra;
+                    headFill = 0;
+                }
+                continue;
+            }
+            if (headFill == 0) {
+                recordStart = base + p;
+                int bits = b[p] & 0xFF;
+                headLen = 1 + (bits & 0x3) + 1 + (bits >> 2 & 0x3) + 1 + (bits >> 4 & 0x7) + 1;
+            }
+            int n = Math.min(headLen - headFill, end - p);
+            System.arraycopy(b, p, head, headFill, n);
+            headFill += n;
+            p += n;
+            if (headFill == headLen) p = record(b, p, end);
+        }
+    }
+
+    /**
+     * Handles a record whose header is complete in {@link #head}; control records also need the
+     * first 5 bytes of their payload, which are collected after the header.
+     *
+     * @return where scanning continues
+     */
+    private int record(byte[] b, int p, int end) {
+        int bits = head[0] & 0xFF;
+        int idLen = (bits & 0x3) + 1;
+        int sizeLen = (bits >> 2 & 0x3) + 1;
+        int fieldsEnd = 1 + idLen + sizeLen + (bits >> 4 & 0x7) + 1;
+        int id = (int) Utils.readLe(head, 1, idLen);
+        long size = Utils.readLe(head, 1 + idLen, sizeLen);
+        if (headLen == fieldsEnd) {
+            lastTs = Math.max(lastTs, Utils.readLe(head, 1 + idLen + sizeLen, fieldsEnd - 1 - idLen - sizeLen));
+        }
+
+        if (id != 0) {
+            Block block = open.get(id);
+            if (block != null) block.add((int) recordStart);
+            headFill = 0;
+            skip = size;
+            return p;
+        }
+        if (size < 5) {
+            headFill = 0;
+            skip = size;
+            return p;
+        }
+        if (headLen == fieldsEnd) {
+            // collect kind and entry id before deciding
+            headLen += 5;
+            return p;
+        }
+        int kind = head[fieldsEnd] & 0xFF;
+        int entry = (int) Utils.readLe(head, fieldsEnd + 1, 4);
+        if (kind == 0) {
+            Block block = new Block(entry, (int) recordStart);
+            open.put(entry, block);
+            blocks.add(block);
+            largestId = Math.max(largestId, entry);
+        } else if (kind == 1) {
+            Block block = open.remove(entry);
+            if (block != null) block.finish = (int) recordStart;
+        }
+        headFill = 0;
+        skip = size - 5;
+        return p;
+    }
+
+    private void writeIndex() throws IOException {
+        // an index too large for one record is left out whole, so no start is written without it
+        long size = 8 + 4 + MAGIC.length;
+        for (Block block : blocks) size += 16 + 4L * block.count;
+        if (size > Integer.MAX_VALUE) return;
+
+        int id = largestId + 1;
+        byte[] name = INDEX_ENTRY.getBytes(StandardCharsets.UTF_8);
+        byte[] type = "raw".getBytes(StandardCharsets.UTF_8);
+        RecordBuffer buf = new RecordBuffer(64);
+        int p = buf.beginRecord(0, 1 + 4 + 4 + name.length + 4 + type.length + 4, lastTs);
+        byte[] d = buf.data;
+        d[p] = 0; // control=Start
+        Utils.putLe32(d, p + 1, id);
+        Utils.putLe32(d, p + 5, name.length);
+        System.arraycopy(name, 0, d, p + 9, name.length);
+        p += 9 + name.length;
+        Utils.putLe32(d, p, type.length);
+        System.arraycopy(type, 0, d, p + 4, type.length);
+        Utils.putLe32(d, p + 4 + type.length, 0);
+        out.write(d, 0, buf.size);
+        writeHeader(id, (int) size, lastTs);
+
+        byte[] chunk = new byte[64 * 1024];
+        int n = 0;
+        Utils.putLe32(chunk, n, VERSION);
+        Utils.putLe32(chunk, n + 4, blocks.size());
+        n += 8;
+        for (Block block : blocks) {
+            if (n + 16 > chunk.length) {
+                out.write(chunk, 0, n);
+                n = 0;
+            }
+            Utils.putLe32(chunk, n, block.id);
+            Utils.putLe32(chunk, n + 4, block.start);
+            Utils.putLe32(chunk, n + 8, block.finish);
+            Utils.putLe32(chunk, n + 12, block.count);
+            n += 16;
+            for (int i = 0; i < block.count; i++) {
+                if (n + 4 > chunk.length) {
+                    out.write(chunk, 0, n);
+                    n = 0;
+                }
+                Utils.putLe32(chunk, n, block.offsets[i]);
+                n += 4;
+            }
+        }
+        if (n + 4 + MAGIC.length > chunk.length) {
+            out.write(chunk, 0, n);
+            n = 0;
+        }
+        Utils.putLe32(chunk, n, (int) size);
+        System.arraycopy(MAGIC, 0, chunk, n + 4, MAGIC.length);
+        out.write(chunk, 0, n + 4 + MAGIC.length);
+    }
+
+    /**
+     * Writes a record header alone; the payload is streamed after it.
+     */
+    private void writeHeader(int id, int size, long ts) throws IOException {
+        int idLen = RecordBuffer.byteLength(id & 0xFFFFFFFFL);
+        int sizeLen = RecordBuffer.byteLength(size & 0xFFFFFFFFL);
+        int tsLen = RecordBuffer.byteLength(ts);
+        byte[] h = new byte[1 + idLen + sizeLen + tsLen];
+        h[0] = (byte) ((idLen - 1) | (sizeLen - 1) << 2 | (tsLen - 1) << 4);
+        for (int i = 0; i < idLen; i++) h[1 + i] = (byte) (id >> (i * 8));
+        for (int i = 0; i < sizeLen; i++) h[1 + idLen + i] = (byte) (size >> (i * 8));
+        for (int i = 0; i < tsLen; i++) h[1 + idLen + sizeLen + i] = (byte) (ts >> (i * 8));
+        out.write(h);
+    }
+}
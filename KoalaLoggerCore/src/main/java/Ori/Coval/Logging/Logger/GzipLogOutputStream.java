@@ -0,0 +1,63 @@
+package Ori.Coval.Logging.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzips a log as it is written, at a chosen level, keeping count of what it saved and cost.
+ * The cost is the CPU time of the threads that wrote, read through {@link ThreadCpuClock}, so a
+ * writer that is descheduled mid-write is not charged for the wait.
+ * <p>
+ * Flushing does not force out the deflater's pending data, which would hurt the ratio at the
+ * rate the writer flushes; a crash loses what the deflater still held back.
+ */
+class GzipLogOutputStream extends GZIPOutputStream {
+    // gzip header and trailer, which the deflater does not count
+    private static final int FRAMING_BYTES = 18;
+
+    private final File reportAs;
+    private long compressNanos;
+    private volatile CompressionStats finalStats;
+
+    /**
+     * @param level    a {@link java.util.zip.Deflater} level, 0-9 or -1 for the default
+     * @param reportAs the file to report to the {@link LogCompressor} listener when finished, or null
+     */
+    GzipLogOutputStream(OutputStream out, int level, File reportAs) throws IOException {
+        super(out, 64 * 1024);
+        def.setLevel(level);
+        this.reportAs = reportAs;
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+        long start = ThreadCpuClock.nanos();
+        super.write(b, off, len);
+        compressNanos += ThreadCpuClock.nanos() - start;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (finalStats != null) return;
+        long start = ThreadCpuClock.nanos();
+        super.finish();
+        compressNanos += ThreadCpuClock.nanos() - start;
+        finalStats = snapshot();
+        if (reportAs != null) LogCompressor.report(reportAs, finalStats);
+    }
+
+    /**
+     * @return the compression so far, or the final result once finished
+     */
+    CompressionStats getStats() {
+        CompressionStats stats = finalStats;
+        return stats != null ? stats : snapshot();
+    }
+
+    private CompressionStats snapshot() {
+        return new CompressionStats(def.getBytesRead(), def.getBytesWritten() + FRAMING_BYTES, compressNanos,
+                ThreadCpuClock.measuresCpu());
+    }
+}
@@ -0,0 +1,45 @@
+package Ori.Coval.Logging.Logger;
+
+import java.io.IOException;
+import java.util.zip.Deflater;
+
+/**
+ * Gzips the log on its way to another sink.
+ */
+public final class GzipSink implements LogSink {
+
+    private final GzipLogOutputStream out;
+
+    /**
+     * @param level a {@link Deflater} level, 0-9 or -1 for the default
+     */
+    public GzipSink(LogSink target, int level) throws IOException {
+        LogFileManager.checkLevel(level);
+        out = new GzipLogOutputStream(new SinkOutputStream(target), level, null);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+    }
+
+    /**
+     * Passes on only what is already compressed; gzip keeps the rest to compress well.
+     */
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * @return how the log has compressed so far
+     */
+    public CompressionStats getStats() {
+        return out.getStats();
+    }
+}
@@ -0,0 +1,795 @@
+package Ori.Coval.Logging.Logger;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Core logger for WPILOG format.
+ * Handles registration of entries and logging of data values.
+ * <p>
+ * Any thread can log. Encoding never takes a lock, but by default each record is then written
+ * under one lock shared by all threads, so records from different threads reach the file in the
+ * order the threads got the lock rather than in timestamp order. When more than one thread logs,
+ * use {@link #setAsyncWriting}: every thread then gets its own lock-free lane, merged into the
+ * file in timestamp order.
+ */
+public class KoalaLogCore implements Closeable {
+
+    private static volatile OutputStream fos;
+    private static volatile AsyncLogWriter asyncWriter;
+    private static final Object outputLock = new Object();
+    private static final ConcurrentHashMap<String, LogEntry> entries = new ConcurrentHashMap<>();
+    private static final AtomicInteger largestId = new AtomicInteger();
+    private static volatile long startTime = System.nanoTime() / 1000;
+    // each logging thread encodes into its own buffer, so encoding never takes a lock
+    private static final ThreadLocal<RecordBuffer> buffers = new ThreadLocal<RecordBuffer>() {
+        @Override
+        protected RecordBuffer initialValue() {
+            return new RecordBuffer(4096);
+        }
+    };
+
+    private static LogEntry[] catalog = new LogEntry[0];
+
+    private static boolean asyncEnabled = false;
+    private static int asyncCapacity = 1 << 20;
+    private static OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    private static long mergeHoldBackMicros = 20_000;
+    static volatile boolean changeOnlyDefault = false;
+    static volatile long keyframeMicros = 1_000_000;
+    static volatile DashboardSink dashboard;
+    private static int livePort = -1;
+    private static long liveQueueBytes = 1 << 20;
+    private static volatile LiveStreamOutputStream liveStream;
+    private static volatile LongSupplier timeSource;
+    // the thread with an open frame, and the one timestamp all its records share
+    private static volatile Thread frameThread;
+    private static long frameTimestamp;
+    // threads capturing with the frame's timestamp; nowMicros only looks them up while there are any
+    private static final AtomicInteger fixedTimeCaptures = new AtomicInteger();
+
+    // must stay below every other static field: the catalog registers itself through them
+    static {
+        try {
+            Class.forName("Ori.Coval.AutoLog.AutoLogCatalog");
+        } catch (ClassNotFoundException e) {
+            // nothing annotated with @AutoLog—ignore
+        }
+    }
+
+    // --- Configuration ---
+
+    /**
+     * Write records from a background thread instead of the logging thread.
+     * Takes effect on the next {@link #setup}.
+     * <p>
+     * Required for multi-threaded logging without a shared lock: each thread writes to its own
+     * ring buffer, and the writer thread merges them in timestamp order (see
+     * {@link #setMergeHoldBack}). Without it, threads take turns on one lock.
+     * <p>
+     * A frame larger than {@code capacityBytes} goes through the buffer in runs of whole records;
+     * under the drop policies, runs that find the buffer full are dropped and counted in
+     * {@link #getStats()}. Size the buffer above the largest frame to keep whole loops.
+     *
+     * @param capacityBytes size of the ring buffer between each logging thread and the writer
+     * @param policy        what to do with new data records when the buffer is full
+     */
+    public static void setAsyncWriting(int capacityBytes, OverflowPolicy policy) {
+        asyncEnabled = true;
+        asyncCapacity = capacityBytes;
+        overflowPolicy = policy;
+    }
+
+    /**
+     * Write records directly on the logging thread (the default).
+     * Takes effect on the next {@link #setup}.
+     */
+    public static void disableAsyncWriting() {
+        asyncEnabled = false;
+    }
+
+    /**
+     * How long the async writer holds records back so that records logged from different threads
+     * at nearly the same time still reach the file in timestamp order.
+     * Takes effect on the next {@link #setup}.
+     */
+    public static void setMergeHoldBack(long micros) {
+        if (micros < 0) throw new IllegalArgumentException("micros must not be negative");
+        mergeHoldBackMicros = micros;
+    }
+
+    /**
+     * Skip values that have not changed since they were last written, for every entry that does
+     * not choose for itself. Each entry still writes a keyframe at least every {@code keyframeMillis}.
+     */
+    public static void setChangeOnlyLogging(boolean enabled, long keyframeMillis) {
+        if (keyframeMillis <= 0) throw new IllegalArgumentException("keyframeMillis must be positive");
+        changeOnlyDefault = enabled;
+        keyframeMicros = keyframeMillis * 1000;
+    }
+
+    /**
+     * Where entries logged with {@code postToFtcDashboard} are shown. {@code KoalaLog} installs
+     * FTC Dashboard; without a sink those values are only written to the log.
+     */
+    public static void setDashboardSink(DashboardSink sink) {
+        dashboard = sink;
+    }
+
+    /**
+     * How often posted values are sent to the dashboard. They are formatted and sent from a
+     * background thread, so the logging thread only stores them. Defaults to 20 Hz.
+     */
+    public static void setDashboardRate(double hz) {
+        DashboardPublisher.setRate(hz);
+    }
+
+    /**
+     * Stream every record to TCP clients on {@code port} as well as to the file.
+     * Takes effect on the next {@link #setup}.
+     *
+     * @param maxQueuedBytes how far a client may fall behind before records are dropped for it
+     */
+    public static void setLiveStreaming(int port, long maxQueuedBytes) {
+        if (port < 0 || port > 65535) throw new IllegalArgumentException("port out of range");
+        if (maxQueuedBytes <= 0) throw new IllegalArgumentException("maxQueuedBytes must be positive");
+        livePort = port;
+        liveQueueBytes = maxQueuedBytes;
+    }
+
+    /**
+     * Only write records to the file (the default). Takes effect on the next {@link #setup}.
+     */
+    public static void disableLiveStreaming() {
+        livePort = -1;
+    }
+
+    /**
+     * @return the port live clients connect to, or -1 if live streaming is off
+     */
+    public static int getLiveStreamingPort() {
+        LiveStreamOutputStream live = liveStream;
+        return live != null ? live.getPort() : -1;
+    }
+
+    /**
+     * @return how many bytes of records were dropped for live clients that fell behind
+     */
+    public static long getLiveDroppedBytes() {
+        LiveStreamOutputStream live = liveStream;
+        return live != null ? live.getDroppedBytes() : 0;
+    }
+
+    /**
+     * Measure what logging costs: records and bytes written, entries, encode and write latency,
+     * records dropped and how full the async buffer gets. Read them with {@link #getStats()}.
+     *
+     * @param emitPeriodMillis also write them into the log under {@code /.koala/stats/} this
+     *                         often, from the next {@link #setup}; 0 to only measure
+     */
+    public static void setSelfStats(long emitPeriodMillis) {
+        SelfStats.enable(emitPeriodMillis);
+    }
+
+    /**
+     * Stop measuring logging (the default).
+     */
+    public static void disableSelfStats() {
+        SelfStats.disable();
+    }
+
+    /**
+     * @return what logging has done and cost since the current log was set up; only counts
+     * while {@link #setSelfStats self stats} are on
+     */
+    public static LogStats getStats() {
+        return new LogStats(SelfStats.records.get(), SelfStats.bytes.get(), SelfStats.elapsedNanos(),
+                entryCount(), droppedRecords(), bufferHighWaterBytes(),
+                SelfStats.encode.snapshot(), SelfStats.write.snapshot());
+    }
+
+    static int entryCount() {
+        return entries.size();
+    }
+
+    static long droppedRecords() {
+        AsyncLogWriter writer = asyncWriter;
+        return writer != null ? writer.getDroppedRecords() : 0;
+    }
+
+    static long bufferHighWaterBytes() {
+        AsyncLogWriter writer = asyncWriter;
+        return writer != null ? writer.getHighWaterBytes() : 0;
+    }
+
+    /**
+     * Take record timestamps from {@code micros} instead of the system clock, e.g. the recorded
+     * time while replaying a log. Null to go back to the clock.
+     */
+    public static void setTimeSource(LongSupplier micros) {
+        timeSource = micros;
+    }
+
+    /**
+     * @return the current log time in microseconds: since {@link #setup}, or the replayed time
+     * while a {@link #setTimeSource time source} is set
+     */
+    public static long getTimestamp() {
+        return clockMicros();
+    }
+
+    // --- Setup ---
+
+    /**
+     * Set up logging to a file, creating its directory if needed. Follows the file options set
+     * on {@link LogFileManager}: segments are named after {@code file}, next to it.
+     */
+    public static void setup(File file) {
+        shutdown();
+        File dir = file.getAbsoluteFile().getParentFile();
+        LogFileManager.setup(dir, file.getName());
+        setup(LogFileManager.getOutputStream());
+    }
+
+    /**
+     * Set up logging to a file on a desktop JVM; see {@link #setup(File)}.
+     */
+    public static void setup(Path file) {
+        setup(file.toFile());
+    }
+
+    /**
+     * Set up logging to one or more sinks, each getting the whole log. With several, a sink that
+     * fails is closed and dropped while the others carry on.
+     */
+    public static void setup(LogSink... sinks) {
+        if (sinks.length == 0) throw new IllegalArgumentException("at least one sink is needed");
+        setup(new SinkOutputStream(sinks.length == 1 ? sinks[0] : new FanOutSink(sinks)));
+    }
+
+    /**
+     * Set up logging to any stream, such as a file on a desktop JVM. The WPILOG file header is
+     * written first; the stream is closed by {@link #shutdown}.
+     */
+    public static void setup(OutputStream out) {
+        shutdown();
+        SelfStats.reset();
+        if (livePort >= 0) {
+            try {
+                liveStream = new LiveStreamOutputStream(out, livePort, liveQueueBytes);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to start live streaming on port " + livePort, e);
+            }
+            out = liveStream;
+        }
+        try {
+            out.write(Utils.fileHeader(""));
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing log header", e);
+        }
+        fos = out;
+        if (asyncEnabled) {
+            asyncWriter = new AsyncLogWriter(fos, asyncCapacity, overflowPolicy,
+                    KoalaLogCore::clockMicros, mergeHoldBackMicros);
+        }
+
+        startTime = System.nanoTime() / 1000;
+
+        // entries outlive a log file, so each one needs a fresh start record in the new file
+        for (LogEntry entry : entries.values()) {
+            entry.restart();
+        }
+        startCatalogEntries();
+        SchemaRegistry.writeRegisteredSchemas();
+        SchemaRegistry.registerPose2dSchema();
+        SelfStats.startEmitting();
+    }
+
+    // --- Entry Management ---
+
+    /**
+     * Returns the handle for an entry, creating it the first time the name is seen.
+     * Safe to call from any thread; each name gets exactly one ID.
+     *
+     * @throws IllegalArgumentException if the entry already exists with a different type
+     */
+    @SuppressWarnings("unchecked")
+    public static <E extends LogEntry> E entry(String name, EntryType<E> type) {
+        LogEntry entry = entries.get(name);
+        if (entry == null) {
+            entry = entries.computeIfAbsent(name, n -> type.create(largestId.incrementAndGet(), n));
+        }
+        if (!entry.type.equals(type.wpiType)) {
+            throw new IllegalArgumentException(
+                    "\"" + name + "\" is logged as " + entry.type + ", not " + type.wpiType);
+        }
+        return (E) entry;
+    }
+
+    static void startEntry(int entryId, String name, String type, String metadata, long ts) {
+        RecordBuffer buf = buffers.get();
+        encodeStart(buf, entryId, name, type, metadata, ts);
+        flushRecord(buf, ts, true);
+    }
+
+    private static void encodeStart(RecordBuffer buf, int entryId, String name, String type, String metadata, long ts) {
+        int nameLen = Utils.utf8Length(name);
+        int typeLen = Utils.utf8Length(type);
+        int metaLen = Utils.utf8Length(metadata);
+
+        int p = buf.beginRecord(0, 1 + 4 + 4 + nameLen + 4 + typeLen + 4 + metaLen, ts);
+        byte[] d = buf.data;
+        d[p] = 0; // control=Start
+        Utils.putLe32(d, p + 1, entryId);
+        p += 5;
+        Utils.putLe32(d, p, nameLen);
+        p = Utils.putUtf8(d, p + 4, name);
+        Utils.putLe32(d, p, typeLen);
+        p = Utils.putUtf8(d, p + 4, type);
+        Utils.putLe32(d, p, metaLen);
+        Utils.putUtf8(d, p + 4, metadata);
+    }
+
+    // --- Catalog ---
+
+    /**
+     * Registers the entries the annotation processor found at compile time.
+     * Called once by the generated {@code AutoLogCatalog}; not meant for robot code.
+     * <p>
+     * Catalog entries are created before any runtime-named entry, and generated code logs them
+     * by their index in {@code names} through the {@code logById} methods.
+     *
+     * @param names the entry names, indexed by catalog ID
+     * @param types the WPILOG type of each entry
+     */
+    public static void registerCatalog(String[] names, String[] types) {
+        registerCatalog(names, types, new byte[names.length], new long[names.length], new double[names.length]);
+    }
+
+    /**
+     * @param changeOnly  the change-only mode of each entry, as a {@code ChangeOnly} ordinal
+     * @param minPeriodMs the minimum time between two writes of each entry, 0 for none
+     * @param deadband    the deadband of each entry, 0 for none
+     */
+    public static void registerCatalog(String[] names, String[] types, byte[] changeOnly,
+                                       long[] minPeriodMs, double[] deadband) {
+        LogEntry[] registered = new LogEntry[names.length];
+        for (int i = 0; i < names.length; i++) {
+            LogEntry entry = entry(names[i], EntryType.forWpiType(types[i]));
+            entry.changeMode = changeOnly[i];
+            entry.minPeriodMicros = minPeriodMs[i] * 1000;
+            entry.deadband = deadband[i];
+            registered[i] = entry;
+        }
+        catalog = registered;
+    }
+
+    /**
+     * Writes the start records of every catalog entry as one block, right after the log opens.
+     */
+    private static void startCatalogEntries() {
+        RecordBuffer buf = buffers.get();
+        long ts = nowMicros();
+        for (LogEntry entry : catalog) {
+            encodeStart(buf, entry.id, entry.name, entry.type, "", ts);
+            entry.started = true;
+            if (buf.size >= 16 * 1024) flushRecord(buf, ts, true);
+        }
+        if (buf.size > 0) flushRecord(buf, ts, true);
+    }
+
+    // Fast paths for generated code: an array index instead of a name lookup.
+
+    public static void logById(int catalogId, boolean value, boolean post) {
+        ((BooleanEntry) catalog[catalogId]).append(value, post);
+    }
+
+    public static void logById(int catalogId, long value, boolean post) {
+        ((LongEntry) catalog[catalogId]).append(value, post);
+    }
+
+    public static void logById(int catalogId, float value, boolean post) {
+        ((FloatEntry) catalog[catalogId]).append(value, post);
+    }
+
+    public static void logById(int catalogId, double value, boolean post) {
+        ((DoubleEntry) catalog[catalogId]).append(value, post);
+    }
+
+    public static void logById(int catalogId, String value, boolean post) {
+        ((StringEntry) catalog[catalogId]).append(value, post);
+    }
+
+    public static void logById(int catalogId, boolean[] values, boolean post) {
+        ((BooleanArrayEntry) catalog[catalogId]).append(values, post);
+    }
+
+    public static void logById(int catalogId, Boolean[] values, boolean post) {
+        ((BooleanArrayEntry) catalog[catalogId]).append(values, post);
+    }
+
+    public static void logById(int catalogId, long[] values, boolean post) {
+        ((LongArrayEntry) catalog[catalogId]).append(values, post);
+    }
+
+    public static void logById(int catalogId, Long[] values, boolean post) {
+        ((LongArrayEntry) catalog[catalogId]).append(values, post);
+    }
+
+    public static void logById(int catalogId, int[] values, boolean post) {
+        ((LongArrayEntry) catalog[catalogId]).append(values, post);
+    }
+
+    public static void logById(int catalogId, Integer[] values, boolean post) {
+        ((LongArrayEntry) catalog[catalogId]).append(values, post);
+    }
+
+    public static void logById(int catalogId, float[] values, boolean post) {
+        ((FloatArrayEntry) catalog[catalogId]).append(values, post);
+    }
+
+    public static void logById(int catalogId, Float[] values, boolean post) {
+        ((FloatArrayEntry) catalog[catalogId]).append(values, post);
+    }
+
+    public static void logById(int catalogId, double[] values, boolean post) {
+        ((DoubleArrayEntry) catalog[catalogId]).append(values, post);
+    }
+
+    public static void logById(int catalogId, Double[] values, boolean post) {
+        ((DoubleArrayEntry) catalog[catalogId]).append(values, post);
+    }
+
+    public static void logById(int catalogId, String[] values, boolean post) {
+        ((StringArrayEntry) catalog[catalogId]).append(values, post);
+    }
+
+    public static void logPose2dById(int catalogId, double x, double y, double rot, boolean post) {
+        ((Pose2dEntry) catalog[catalogId]).append(x, y, rot, post);
+    }
+
+    // --- Raw entries ---
+
+    public static void appendRaw(String name, String type, byte[] payload) throws IOException {
+        entry(name, EntryType.raw(type)).append(payload);
+    }
+
+    /**
+     * Write a binary payload to the log.
+     */
+    static void writeRecord(int entryId, byte[] payload, long ts) {
+        writeRecord(entryId, payload, ts, entryId == 0);
+    }
+
+    /**
+     * @param control true for records the log cannot be read without, such as struct schemas:
+     *                they are never dropped, and go out ahead of the data of an open frame
+     */
+    static void writeRecord(int entryId, byte[] payload, long ts, boolean control) {
+        RecordBuffer buf = buffers.get();
+        int p = buf.beginRecord(entryId, payload.length, ts);
+        System.arraycopy(payload, 0, buf.data, p, payload.length);
+        flushRecord(buf, ts, control);
+    }
+
+    // --- Encoding ---
+    // Each writeValue overload encodes one record straight into the calling thread's buffer.
+
+    static void writeValue(int entryId, boolean value, long ts) {
+        RecordBuffer buf = buffers.get();
+        int p = buf.beginRecord(entryId, 1, ts);
+        BytePacker.packBooleans(value, buf.data, p);
+        flushRecord(buf, ts, false);
+    }
+
+    static void writeValue(int entryId, long value, long ts) {
+        RecordBuffer buf = buffers.get();
+        int p = buf.beginRecord(entryId, Long.BYTES, ts);
+        BytePacker.packLongs(value, buf.data, p);
+        flushRecord(buf, ts, false);
+    }
+
+    static void writeValue(int entryId, float value, long ts) {
+        RecordBuffer buf = buffers.get();
+        int p = buf.beginRecord(entryId, Float.BYTES, ts);
+        BytePacker.packFloats(value, buf.data, p);
+        flushRecord(buf, ts, false);
+    }
+
+    static void writeValue(int entryId, double value, long ts) {
+        RecordBuffer buf = buffers.get();
+        int p = buf.beginRecord(entryId, Double.BYTES, ts);
+        BytePacker.packDoubles(value, buf.data, p);
+        flushRecord(buf, ts, false);
+    }
+
+    static void writeValue(int entryId, String value, long ts) {
+        RecordBuffer buf = buffers.get();
+        int p = buf.beginRecord(entryId, Utils.utf8Length(value), ts);
+        BytePacker.packString(value, buf.data, p);
+        flushRecord(buf, ts, false);
+    }
+
+    static void writeValue(int entryId, boolean[] values, long ts) {
+        RecordBuffer buf = buffers.get();
+        int p = buf.beginRecord(entryId, values.length, ts);
+        BytePacker.packBooleans(values, buf.data, p);
+        flushRecord(buf, ts, false);
+    }
+
+    static void writeValue(int entryId, Boolean[] values, long ts) {
+        RecordBuffer buf = buffers.get();
+        int p = buf.beginRecord(entryId, values.length, ts);
+        BytePacker.packBooleans(values, buf.data, p);
+        flushRecord(buf, ts, false);
+    }
+
+    static void writeValue(int entryId, long[] values, long ts) {
+        RecordBuffer buf = buffers.get();
+        int p = buf.beginRecord(entryId, values.length * Long.BYTES, ts);
+        BytePacker.packLongs(values, buf.data, p);
+        flushRecord(buf, ts, false);
+    }
+
+    static void writeValue(int entryId, Long[] values, long ts) {
+        RecordBuffer buf = buffers.get();
+        int p = buf.beginRecord(entryId, values.length * Long.BYTES, ts);
+        BytePacker.packLongs(values, buf.data, p);
+        flushRecord(buf, ts, false);
+    }
+
+    /** Int arrays are logged as int64[], so each value is widened to 8 bytes. */
+    static void writeValue(int entryId, int[] values, long ts) {
+        RecordBuffer buf = buffers.get();
+        int p = buf.beginRecord(entryId, values.length * Long.BYTES, ts);
+        BytePacker.packLongs(values, buf.data, p);
+        flushRecord(buf, ts, false);
+    }
+
+    /** Int arrays are logged as int64[], so each value is widened to 8 bytes. */
+    static void writeValue(int entryId, Integer[] values, long ts) {
+        RecordBuffer buf = buffers.get();
+        int p = buf.beginRecord(entryId, values.length * Long.BYTES, ts);
+        BytePacker.packLongs(values, buf.data, p);
+        flushRecord(buf, ts, false);
+    }
+
+    static void writeValue(int entryId, float[] values, long ts) {
+        RecordBuffer buf = buffers.get();
+        int p = buf.beginRecord(entryId, values.length * Float.BYTES, ts);
+        BytePacker.packFloats(values, buf.data, p);
+        flushRecord(buf, ts, false);
+    }
+
+    static void writeValue(int entryId, Float[] values, long ts) {
+        RecordBuffer buf = buffers.get();
+        int p = buf.beginRecord(entryId, values.length * Float.BYTES, ts);
+        BytePacker.packFloats(values, buf.data, p);
+        flushRecord(buf, ts, false);
+    }
+
+    static void writeValue(int entryId, double[] values, long ts) {
+        RecordBuffer buf = buffers.get();
+        int p = buf.beginRecord(entryId, values.length * Double.BYTES, ts);
+        BytePacker.packDoubles(values, buf.data, p);
+        flushRecord(buf, ts, false);
+    }
+
+    static void writeValue(int entryId, Double[] values, long ts) {
+        RecordBuffer buf = buffers.get();
+        int p = buf.beginRecord(entryId, values.length * Double.BYTES, ts);
+        BytePacker.packDoubles(values, buf.data, p);
+        flushRecord(buf, ts, false);
+    }
+
+    static void writeValue(int entryId, String[] values, long ts) {
+        RecordBuffer buf = buffers.get();
+        int p = buf.beginRecord(entryId, BytePacker.stringsSize(values), ts);
+        BytePacker.packStrings(values, buf.data, p);
+        flushRecord(buf, ts, false);
+    }
+
+    static void writeTranslation2d(int entryId, double x, double y, long ts) {
+        RecordBuffer buf = buffers.get();
+        int p = buf.beginRecord(entryId, 2 * Double.BYTES, ts);
+        p = BytePacker.packDoubles(x, buf.data, p);
+        BytePacker.packDoubles(y, buf.data, p);
+        flushRecord(buf, ts, false);
+    }
+
+    static void writePose2d(int entryId, double x, double y, double rot, long ts) {
+        RecordBuffer buf = buffers.get();
+        int p = buf.beginRecord(entryId, 3 * Double.BYTES, ts);
+        p = BytePacker.packDoubles(x, buf.data, p);
+        p = BytePacker.packDoubles(y, buf.data, p);
+        BytePacker.packDoubles(rot, buf.data, p);
+        flushRecord(buf, ts, false);
+    }
+
+    /**
+     * Hands the records staged in {@code buf} to the output and resets the buffer.
+     * Without the async writer, threads take turns on the stream.
+     */
+    private static void flushRecord(RecordBuffer buf, long ts, boolean control) {
+        if (buf.encodeStartNanos != 0) {
+            SelfStats.encode.record(System.nanoTime() - buf.encodeStartNanos);
+            buf.encodeStartNanos = 0;
+        }
+        if (buf.batching()) {
+            // data records stay batched until the frame or capture ends; control records go out
+            // right away so they still precede the batch's data
+            if (control) {
+                int start = buf.batchEnd;
+                try {
+                    write(buf.data, start, buf.size - start, ts, true);
+                } finally {
+                    buf.size = start;
+                }
+            } else {
+                buf.batchEnd = buf.size;
+            }
+            return;
+        }
+        try {
+            write(buf.data, 0, buf.size, ts, control);
+        } finally {
+            buf.clear();
+        }
+    }
+
+    private static void write(byte[] data, int off, int len, long ts, boolean control) {
+        try {
+            if (SelfStats.enabled) SelfStats.bytes.addAndGet(len);
+            AsyncLogWriter writer = asyncWriter;
+            if (writer != null) {
+                writer.write(data, off, len, ts, control);
+            } else {
+                synchronized (outputLock) {
+                    if (SelfStats.enabled) {
+                        long start = System.nanoTime();
+                        fos.write(data, off, len);
+                        SelfStats.write.record(System.nanoTime() - start);
+                    } else {
+                        fos.write(data, off, len);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // --- Frames ---
+
+    /**
+     * Opens a frame on the calling thread: until {@link #endFrame}, everything it logs gets the
+     * same timestamp and is encoded into one batch instead of being written record by record.
+     * Only one thread can have a frame open at a time.
+     *
+     * @return false if a frame was already open, in which case logging carries on unbatched and
+     * {@link #endFrame} must not be called for this one
+     */
+    public static boolean beginFrame() {
+        if (frameThread != null) return false;
+        synchronized (KoalaLogCore.class) {
+            if (frameThread != null) return false;
+            RecordBuffer buf = buffers.get();
+            buf.inFrame = true;
+            buf.batchEnd = buf.size;
+            frameTimestamp = clockMicros();
+            frameThread = Thread.currentThread();
+            return true;
+        }
+    }
+
+    /**
+     * Closes the calling thread's frame and writes its records in one go.
+     */
+    public static void endFrame() {
+        if (frameThread != Thread.currentThread()) return;
+        RecordBuffer buf = buffers.get();
+        buf.inFrame = false;
+        frameThread = null;
+        if (buf.size > 0) flushRecord(buf, frameTimestamp, false);
+    }
+
+    // --- Captures ---
+
+    /**
+     * Starts holding back the calling thread's data records for a {@link LogCapture}. If a frame is
+     * open on any thread, the captured records get its timestamp.
+     */
+    static void beginCapture() {
+        RecordBuffer buf = buffers.get();
+        if (buf.capturing) throw new IllegalStateException("this thread is already capturing");
+        buf.capturing = true;
+        buf.captureStart = buf.size;
+        buf.batchEnd = buf.size;
+        Thread frame = frameThread;
+        if (frame != null && frame != Thread.currentThread()) {
+            buf.fixedTimestamp = frameTimestamp;
+            buf.fixedTime = true;
+            fixedTimeCaptures.incrementAndGet();
+        }
+    }
+
+    /**
+     * Moves the records captured since {@link #beginCapture} into {@code capture}.
+     */
+    static void endCapture(LogCapture capture) {
+        RecordBuffer buf = buffers.get();
+        if (!buf.capturing) return;
+        capture.set(buf.data, buf.captureStart, buf.size - buf.captureStart,
+                buf.fixedTime ? buf.fixedTimestamp : nowMicros());
+        buf.size = buf.captureStart;
+        buf.batchEnd = buf.size;
+        buf.capturing = false;
+        if (buf.fixedTime) {
+            buf.fixedTime = false;
+            fixedTimeCaptures.decrementAndGet();
+        }
+    }
+
+    /**
+     * Writes captured records, into the calling thread's open frame or batch if it has one.
+     */
+    static void commitCapture(byte[] records, int len, long ts) {
+        if (len == 0) return;
+        RecordBuffer buf = buffers.get();
+        if (buf.batching()) {
+            buf.append(records, 0, len);
+            buf.batchEnd = buf.size;
+        } else {
+            write(records, 0, len, ts, false);
+        }
+    }
+
+    /**
+     * @return the timestamp for a new record: the frame's if the calling thread has one open
+     * or is capturing for one
+     */
+    static long nowMicros() {
+        if (frameThread == Thread.currentThread()) return frameTimestamp;
+        if (fixedTimeCaptures.get() > 0) {
+            RecordBuffer buf = buffers.get();
+            if (buf.fixedTime) return buf.fixedTimestamp;
+        }
+        return clockMicros();
+    }
+
+    static long clockMicros() {
+        LongSupplier source = timeSource;
+        if (source != null) return source.getAsLong();
+        return System.nanoTime() / 1000 - startTime;
+    }
+
+    public static void shutdown() {
+        SelfStats.stopEmitting();
+        try {
+            if (asyncWriter != null) {
+                asyncWriter.close();
+            } else if (fos != null) {
+                synchronized (outputLock) {
+                    fos.close();
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to close log file", e);
+        } finally {
+            asyncWriter = null;
+            fos = null;
+            liveStream = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        shutdown();
+    }
+}
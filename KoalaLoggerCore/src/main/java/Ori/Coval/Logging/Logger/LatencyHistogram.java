@@ -0,0 +1,73 @@
+package Ori.Coval.Logging.Logger;
+
+import java.util.Locale;
+
+/**
+ * How long an operation took, as counts in power-of-two buckets: bucket {@code i} counts the
+ * times that took {@code 2^i} up to {@code 2^(i+1)} nanoseconds.
+ */
+public final class LatencyHistogram {
+    private final long[] buckets;
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    LatencyHistogram(long[] buckets, long totalNanos, long maxNanos) {
+        this.buckets = buckets;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        long n = 0;
+        for (long b : buckets) n += b;
+        this.count = n;
+    }
+
+    /**
+     * @return a copy of the count in each bucket
+     */
+    public long[] getBucketCounts() {
+        return buckets.clone();
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public double getMeanNanos() {
+        return count == 0 ? 0 : (double) totalNanos / count;
+    }
+
+    /**
+     * @param fraction e.g. 0.99 for the 99th percentile
+     * @return an upper bound on that percentile: the top of its bucket, or the maximum if lower or
+     * if it falls in the last bucket
+     */
+    public long getPercentileNanos(double fraction) {
+        return percentile(buckets, count, fraction, maxNanos);
+    }
+
+    static long percentile(long[] buckets, long count, double fraction, long max) {
+        if (count == 0) return 0;
+        long rank = (long) Math.ceil(fraction * count);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            // the last bucket has no top: it holds everything from its bottom up
+            if (seen >= rank) return i == buckets.length - 1 ? max : Math.min((2L << i) - 1, max);
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%d times, mean %.0f ns, p50 <= %d ns, p99 <= %d ns, max %d ns",
+                count, getMeanNanos(), getPercentileNanos(0.5), getPercentileNanos(0.99), maxNanos);
+    }
+}
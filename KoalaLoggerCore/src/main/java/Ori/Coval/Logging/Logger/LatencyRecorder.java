@@ -0,0 +1,48 @@
+package Ori.Coval.Logging.Logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts durations into fixed power-of-two buckets: bucket {@code i} holds durations of
+ * {@code 2^i} up to {@code 2^(i+1)} nanoseconds. Recording takes a few atomic adds and allocates
+ * nothing, from any number of threads.
+ */
+final class LatencyRecorder {
+    static final int BUCKETS = 40; // the last one holds everything from about 9 minutes up
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        buckets.incrementAndGet(bucketOf(nanos));
+        total.addAndGet(nanos);
+        long m = max.get();
+        while (nanos > m && !max.compareAndSet(m, nanos)) m = max.get();
+    }
+
+    static int bucketOf(long nanos) {
+        return Math.min(63 - Long.numberOfLeadingZeros(nanos | 1), BUCKETS - 1);
+    }
+
+    /**
+     * Copies the bucket counts into {@code into}, which must hold {@link #BUCKETS}.
+     */
+    void copyBuckets(long[] into) {
+        for (int i = 0; i < BUCKETS; i++) into[i] = buckets.get(i);
+    }
+
+    LatencyHistogram snapshot() {
+        long[] counts = new long[BUCKETS];
+        copyBuckets(counts);
+        return new LatencyHistogram(counts, total.get(), max.get());
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) buckets.set(i, 0);
+        total.set(0);
+        max.set(0);
+    }
+}
@@ -0,0 +1,319 @@
+package Ori.Coval.Logging.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Passes the log through to its file and streams the same records to TCP clients, such as a
+ * laptop on the robot Wi-Fi.
+ * <p>
+ * A client receives a WPILOG byte stream, so it can be saved as is or read like a file: the file
+ * header, a replay of the start record of every open entry and of every struct schema, then each
+ * record as it is written. Records are handed to a background thread through a bounded queue per
+ * client; a client that cannot keep up loses whole records instead of slowing the writer, and is
+ * sent the replay again once it has caught up, so its view of the open entries stays complete.
+ */
+class LiveStreamOutputStream extends OutputStream {
+
+    private static final class Client {
+        final SocketChannel channel;
+        final ConcurrentLinkedQueue<ByteBuffer> queue = new ConcurrentLinkedQueue<>();
+        final AtomicLong queued = new AtomicLong();
+        // only touched by the writing thread
+        boolean resync;
+        volatile boolean closed;
+
+        Client(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    private final OutputStream out;
+    private final long maxQueuedBytes;
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final Thread ioThread;
+    private volatile boolean closed;
+
+    // clients accepted but not yet sent the replay; the writing thread takes them in
+    private final ConcurrentLinkedQueue<Client> joining = new ConcurrentLinkedQueue<>();
+    private final ArrayList<Client> clients = new ArrayList<>();
+    private final AtomicLong droppedBytes = new AtomicLong();
+
+    private final ReplayState replay = new ReplayState();
+    private byte[] fileHeader;
+    // the incomplete record at the end of the last write
+    private byte[] pending = new byte[256];
+    private int pendingSize;
+
+    /**
+     * @param port           the TCP port to listen on, 0 for any free one
+     * @param maxQueuedBytes most bytes a client may fall behind before records are dropped for it
+     */
+    LiveStreamOutputStream(OutputStream out, int port, long maxQueuedBytes) throws IOException {
+        this.out = out;
+        this.maxQueuedBytes = maxQueuedBytes;
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        try {
+            server.socket().setReuseAddress(true);
+            server.socket().bind(new InetSocketAddress(port));
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            server.close();
+            selector.close();
+            throw e;
+        }
+
+        ioThread = new Thread(this::ioLoop, "KoalaLog-live");
+        ioThread.setDaemon(true);
+        ioThread.setPriority(Thread.NORM_PRIORITY - 1);
+        ioThread.start();
+    }
+
+    /**
+     * @return the port clients connect to
+     */
+    int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    /**
+     * @return how many bytes were dropped for clients that fell behind
+     */
+    long getDroppedBytes() {
+        return droppedBytes.get();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        if (pendingSize > 0) {
+            appendPending(b, off, len);
+            int used = publish(pending, 0, pendingSize);
+            System.arraycopy(pending, used, pending, 0, pendingSize - used);
+            pendingSize -= used;
+        } else {
+            int used = publish(b, off, off + len) - off;
+            if (used < len) appendPending(b, off + used, len - used);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        selector.wakeup();
+        try {
+            ioThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        out.close();
+    }
+
+    // --- Writing thread ---
+
+    /**
+     * Sends every complete record in {@code [off, end)} to the clients.
+     *
+     * @return where the first incomplete record starts
+     */
+    private int publish(byte[] b, int off, int end) throws IOException {
+        if (fileHeader == null) {
+            int headerLen = Utils.readHeader(b, off, end);
+            if (headerLen < 0) return off;
+            fileHeader = Arrays.copyOfRange(b, off, off + headerLen);
+            off += headerLen;
+        }
+        admit();
+
+        int p = off;
+        while (p < end) {
+            int bits = b[p] & 0xFF;
+            int idLen = (bits & 0x3) + 1;
+            int sizeLen = (bits >> 2 & 0x3) + 1;
+            int headerLen = 1 + idLen + sizeLen + (bits >> 4 & 0x7) + 1;
+            if (end - p < headerLen) break;
+            int id = (int) Utils.readLe(b, p + 1, idLen);
+            long size = Utils.readLe(b, p + 1 + idLen, sizeLen);
+            if (end - p < headerLen + size) break;
+            replay.track(b, p, headerLen, (int) (headerLen + size), id);
+            p += headerLen + (int) size;
+        }
+
+        if (p > off && !clients.isEmpty()) {
+            byte[] chunk = Arrays.copyOfRange(b, off, p);
+            for (Client client : clients) offer(client, chunk);
+        }
+        return p;
+    }
+
+    /**
+     * Takes in new clients and brings clients that dropped records back in step, each with the
+     * replay as of the records written so far.
+     */
+    private void admit() throws IOException {
+        for (Iterator<Client> it = clients.iterator(); it.hasNext(); ) {
+            if (it.next().closed) it.remove();
+        }
+        byte[] snapshot = null;
+        Client client;
+        while ((client = joining.poll()) != null) {
+            if (snapshot == null) snapshot = snapshot();
+            enqueue(client, ByteBuffer.wrap(fileHeader));
+            enqueue(client, ByteBuffer.wrap(snapshot));
+            clients.add(client);
+        }
+        for (Client c : clients) {
+            if (c.resync && c.queued.get() == 0) {
+                if (snapshot == null) snapshot = snapshot();
+                enqueue(c, ByteBuffer.wrap(snapshot));
+                c.resync = false;
+            }
+        }
+    }
+
+    private byte[] snapshot() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        replay.writeTo(bytes);
+        return bytes.toByteArray();
+    }
+
+    private void offer(Client client, byte[] chunk) {
+        if (client.resync || client.queued.get() + chunk.length > maxQueuedBytes) {
+            client.resync = true;
+            droppedBytes.addAndGet(chunk.length);
+            return;
+        }
+        enqueue(client, ByteBuffer.wrap(chunk));
+    }
+
+    private void enqueue(Client client, ByteBuffer buf) {
+        // measured before the I/O thread can see it, as once queued it may be partly sent at any
+        // time; counted after, so a count that was zero means the I/O thread may have gone idle
+        int n = buf.remaining();
+        client.queue.add(buf);
+        if (client.queued.getAndAdd(n) == 0) selector.wakeup();
+    }
+
+    private void appendPending(byte[] b, int off, int len) {
+        if (pendingSize + len > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(pendingSize + len, pending.length * 2));
+        }
+        System.arraycopy(b, off, pending, pendingSize, len);
+        pendingSize += len;
+    }
+
+    // --- I/O thread ---
+
+    private void ioLoop() {
+        ByteBuffer scratch = ByteBuffer.allocate(1024);
+        try {
+            while (!closed) {
+                selector.select();
+                for (Iterator<SelectionKey> it = selector.selectedKeys().iterator(); it.hasNext(); ) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Client client = (Client) key.attachment();
+                        if (key.isReadable()) discardInput(client, scratch);
+                        if (key.isValid() && key.isWritable()) drain(client);
+                    }
+                }
+                for (SelectionKey key : selector.keys()) {
+                    if (key.isValid() && key.attachment() != null) {
+                        Client client = (Client) key.attachment();
+                        key.interestOps(client.queue.isEmpty()
+                                ? SelectionKey.OP_READ
+                                : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // the server socket failed; the log file itself carries on
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() != null) disconnect((Client) key.attachment());
+            }
+            try {
+                server.close();
+                selector.close();
+            } catch (IOException ignored) {
+                // shutting down anyway
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) return;
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        Client client = new Client(channel);
+        channel.register(selector, SelectionKey.OP_READ, client);
+        joining.add(client);
+    }
+
+    /**
+     * Clients have nothing to say; reading only notices when they hang up.
+     */
+    private void discardInput(Client client, ByteBuffer scratch) {
+        try {
+            scratch.clear();
+            if (client.channel.read(scratch) < 0) disconnect(client);
+        } catch (IOException e) {
+            disconnect(client);
+        }
+    }
+
+    private void drain(Client client) {
+        try {
+            ByteBuffer buf;
+            while ((buf = client.queue.peek()) != null) {
+                int n = client.channel.write(buf);
+                client.queued.addAndGet(-n);
+                if (buf.hasRemaining()) return;
+                client.queue.poll();
+            }
+        } catch (IOException e) {
+            disconnect(client);
+        }
+    }
+
+    private void disconnect(Client client) {
+        client.closed = true;
+        client.queue.clear();
+        try {
+            client.channel.close();
+        } catch (IOException ignored) {
+            // already gone
+        }
+    }
+}
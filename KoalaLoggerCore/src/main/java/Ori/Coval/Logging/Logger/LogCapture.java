@@ -0,0 +1,47 @@
+package Ori.Coval.Logging.Logger;
+
+/**
+ * Records logged on one thread, held back so they can be written later in a chosen order.
+ * <p>
+ * {@link Ori.Coval.Logging.AutoLogManager} samples instances on worker threads, each into its own
+ * capture, and then commits the captures in registration order, so the log does not depend on
+ * which worker finished first. Start records are not captured: they are written as soon as they
+ * are logged, which keeps them ahead of any data that needs them.
+ * <p>
+ * The backing array is reused from one capture to the next.
+ */
+public final class LogCapture {
+    private byte[] data = new byte[256];
+    private int size;
+    private long timestamp;
+
+    /**
+     * Starts capturing the calling thread's data records, until {@link #end} on the same thread.
+     */
+    public void begin() {
+        KoalaLogCore.beginCapture();
+    }
+
+    /**
+     * Stops capturing on the calling thread and keeps what was captured.
+     */
+    public void end() {
+        KoalaLogCore.endCapture(this);
+    }
+
+    /**
+     * Writes the captured records, from any thread, and empties the capture.
+     */
+    public void commit() {
+        int n = size;
+        size = 0;
+        KoalaLogCore.commitCapture(data, n, timestamp);
+    }
+
+    void set(byte[] records, int off, int len, long ts) {
+        if (data.length < len) data = new byte[Math.max(len, data.length * 2)];
+        System.arraycopy(records, off, data, 0, len);
+        size = len;
+        timestamp = ts;
+    }
+}
@@ -0,0 +1,84 @@
+package Ori.Coval.Logging.Logger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Gzips finished logs in the background.
+ * <p>
+ * All background file work, this and {@link LogRetention}, shares one low-priority thread, so
+ * it never competes with the loop and two jobs never touch the same file at once.
+ */
+class LogCompressor {
+
+    static final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "KoalaLog-files");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    private static volatile CompressionListener listener;
+
+    static void setListener(CompressionListener l) {
+        listener = l;
+    }
+
+    static void report(File compressed, CompressionStats stats) {
+        CompressionListener l = listener;
+        if (l != null) l.onCompressed(compressed, stats);
+    }
+
+    /**
+     * Replaces {@code f} by a gzipped copy in the background.
+     */
+    static void compressAsync(File f, int level) {
+        executor.execute(() -> gzip(f, level));
+    }
+
+    /**
+     * Replaces {@code f} by a gzipped copy named {@code f.gz}, keeping its modification time.
+     *
+     * @return how it went, or null if compression failed and {@code f} was left alone
+     */
+    static CompressionStats gzip(File f, int level) {
+        File gz = new File(f.getPath() + ".gz");
+        File tmp = new File(f.getPath() + ".gz.tmp");
+        byte[] buf = new byte[64 * 1024];
+        GzipLogOutputStream out = null;
+        try (InputStream in = new FileInputStream(f)) {
+            out = new GzipLogOutputStream(new FileOutputStream(tmp), level, null);
+            int n;
+            while ((n = in.read(buf)) > 0) {
+                out.write(buf, 0, n);
+            }
+            out.close();
+        } catch (IOException e) {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException ignored) {
+                    // already failing
+                }
+            }
+            tmp.delete();
+            return null;
+        }
+        if (!tmp.renameTo(gz)) {
+            tmp.delete();
+            return null;
+        }
+        gz.setLastModified(f.lastModified());
+        LogRecovery.markIntactCopy(f, gz);
+        f.delete();
+
+        CompressionStats stats = out.getStats();
+        report(gz, stats);
+        return stats;
+    }
+}
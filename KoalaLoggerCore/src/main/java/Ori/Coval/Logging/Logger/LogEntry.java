@@ -0,0 +1,181 @@
+package Ori.Coval.Logging.Logger;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Handle to a single log entry.
+ * <p>
+ * A handle caches its entry ID and whether its start record has been written, so appending
+ * through it skips the name lookup that the String-keyed {@code KoalaLog} methods do.
+ * Get one with {@link KoalaLogCore#entry(String, EntryType)} and keep it in a field.
+ */
+public abstract class LogEntry {
+    // change-only modes, in the order of Ori.Coval.Logging.ChangeOnly
+    static final byte CHANGES_DEFAULT = 0;
+    static final byte CHANGES_ON = 1;
+    static final byte CHANGES_OFF = 2;
+
+    final int id;
+    final String name;
+    final String type;
+    volatile boolean started;
+
+    byte changeMode = CHANGES_DEFAULT;
+    long minPeriodMicros;
+    double deadband;
+    // whether the subclass's cache holds the last value written, whether anything was written to
+    // the current log (catalog entries are started before their first value), and when
+    private boolean cached;
+    private boolean written;
+    private long lastWriteTs;
+
+    // dashboard: the posting threads store raw values and bump postVersion, the publisher
+    // thread formats and sends them and remembers the version it sent
+    final AtomicLong postVersion = new AtomicLong();
+    long publishedVersion;
+    private final AtomicBoolean postRegistered = new AtomicBoolean();
+
+    LogEntry(int id, String name, String type) {
+        this.id = id;
+        this.name = name;
+        this.type = type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the WPILOG type string, e.g. "double" or "struct:Pose2d"
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Only write values that differ from the last one written, plus a keyframe every
+     * {@link KoalaLogCore#setChangeOnlyLogging keyframe interval}. Overrides the global setting.
+     */
+    public void setChangeOnly(boolean changeOnly) {
+        changeMode = changeOnly ? CHANGES_ON : CHANGES_OFF;
+    }
+
+    /**
+     * Write at most one value per {@code millis}; values logged in between are dropped.
+     * Use it for noisy sensors that do not need the full loop rate. 0 turns it off.
+     */
+    public void setMinPeriod(long millis) {
+        if (millis < 0) throw new IllegalArgumentException("millis must not be negative");
+        minPeriodMicros = millis * 1000;
+    }
+
+    /**
+     * Skip numeric values within {@code deadband} of the last value written (per element for
+     * arrays and struct fields). Keyframes are still written. 0 turns it off.
+     */
+    public void setDeadband(double deadband) {
+        if (!(deadband >= 0)) throw new IllegalArgumentException("deadband must not be negative");
+        this.deadband = deadband;
+    }
+
+    /**
+     * @return whether the last write was less than the minimum period ago
+     */
+    final boolean isThrottled(long ts) {
+        return minPeriodMicros > 0 && written && ts - lastWriteTs < minPeriodMicros;
+    }
+
+    /**
+     * @return whether values close to the last one written are skipped, because of change-only
+     * mode or a deadband; subclasses only consult and update their last-value cache when true
+     */
+    final boolean skipsRepeats() {
+        if (deadband > 0 || changeMode == CHANGES_ON
+                || (changeMode == CHANGES_DEFAULT && KoalaLogCore.changeOnlyDefault)) {
+            return true;
+        }
+        cached = false; // the cache goes stale while values are written unconditionally
+        return false;
+    }
+
+    /**
+     * Decides whether a value can be skipped. A value is only skipped if it matches the last one
+     * written to the current log and no keyframe is due; otherwise the caller must store the value
+     * in its cache and write it.
+     *
+     * @param same whether the value matches the subclass's cached value
+     */
+    final boolean isRepeat(boolean same, long ts) {
+        if (same && cached && written && ts - lastWriteTs < KoalaLogCore.keyframeMicros) return true;
+        cached = true;
+        return false;
+    }
+
+    /**
+     * @return whether {@code value} is within the deadband of {@code last}
+     */
+    final boolean near(double value, double last) {
+        return Double.doubleToLongBits(value) == Double.doubleToLongBits(last)
+                || Math.abs(value - last) <= deadband;
+    }
+
+    /**
+     * @return whether {@code value} is within the deadband of {@code last}, without the overflow
+     * of subtracting two longs far apart
+     */
+    final boolean near(long value, long last) {
+        // the values are whole numbers, so only the whole part of the deadband matters; the cast
+        // saturates a huge one at Long.MAX_VALUE
+        long band = (long) deadband;
+        long low = last >= Long.MIN_VALUE + band ? last - band : Long.MIN_VALUE;
+        long high = last <= Long.MAX_VALUE - band ? last + band : Long.MAX_VALUE;
+        return value >= low && value <= high;
+    }
+
+    /**
+     * Called right before a value is written. The first time anything is appended to this entry
+     * in the current log, this writes the start record. When several threads race on a new
+     * entry, exactly one writes the start record and the others wait for it, so no data record
+     * can reach the log ahead of its start.
+     */
+    final void beginWrite(long ts) {
+        lastWriteTs = ts;
+        written = true;
+        if (started) return;
+        synchronized (this) {
+            if (!started) {
+                KoalaLogCore.startEntry(id, name, type, "", ts);
+                started = true;
+            }
+        }
+    }
+
+    /**
+     * Forgets the current log: the next value gets a fresh start record and is never skipped.
+     */
+    final void restart() {
+        started = false;
+        written = false;
+        cached = false;
+    }
+
+    /**
+     * Called after a subclass stores a value to post: hands it to the dashboard publisher, which
+     * formats and sends it off the logging thread. Safe when several threads post to one entry:
+     * it is registered once, and no post is lost from the version.
+     */
+    final void markPosted() {
+        if (!postRegistered.get() && postRegistered.compareAndSet(false, true)) {
+            DashboardPublisher.register(this);
+        }
+        postVersion.incrementAndGet();
+    }
+
+    /**
+     * @return the last posted value, as shown on the dashboard; called on the publisher thread
+     */
+    Object dashboardValue() {
+        return null;
+    }
+}
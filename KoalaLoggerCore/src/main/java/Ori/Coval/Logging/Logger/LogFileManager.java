@@ -0,0 +1,250 @@
+package Ori.Coval.Logging.Logger;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.util.Locale;
+import java.util.zip.Deflater;
+
+/**
+ * Writes the log to files: picks the file names and builds the stream each file is written
+ * through, following the file options set beforehand.
+ */
+public class LogFileManager {
+    private static OutputStream fos;
+
+    private static int mapChunkBytes = 0;
+    private static long segmentMaxBytes = 0;
+    private static long segmentMaxMillis = 0;
+    private static long retentionQuotaBytes = 0;
+    private static boolean retentionCompress = false;
+    private static boolean streamingCompression = false;
+    private static int streamingLevel = Deflater.DEFAULT_COMPRESSION;
+    private static boolean compressClosed = false;
+    private static int closedLevel = Deflater.DEFAULT_COMPRESSION;
+
+    private static long syncMaxMillis = 0;
+    private static long syncMaxBytes = 0;
+    private static boolean recoverOnSetup = false;
+    private static boolean footerIndex = false;
+
+    private static volatile GzipLogOutputStream liveCompression;
+
+    static OutputStream getOutputStream() {
+        return fos;
+    }
+
+    /**
+     * @return how the file being written compresses so far, or null if it is not gzipped live
+     */
+    public static CompressionStats getLiveCompressionStats() {
+        GzipLogOutputStream gz = liveCompression;
+        return gz != null ? gz.getStats() : null;
+    }
+
+    // --- Configuration, all taking effect on the next setup ---
+
+    /**
+     * @param chunkBytes write through a memory-mapped window grown this many bytes at a time,
+     *                   or 0 for a plain {@link FileOutputStream}
+     */
+    public static void setMemoryMapped(int chunkBytes) {
+        if (chunkBytes < 0) throw new IllegalArgumentException("chunkBytes must not be negative");
+        mapChunkBytes = chunkBytes;
+    }
+
+    /**
+     * @param maxBytes  largest segment size, 0 for no limit
+     * @param maxMillis longest span of log time in one segment, 0 for no limit
+     */
+    public static void setSegmentRotation(long maxBytes, long maxMillis) {
+        if (maxBytes < 0 || maxMillis < 0) throw new IllegalArgumentException("limits must not be negative");
+        segmentMaxBytes = maxBytes;
+        segmentMaxMillis = maxMillis;
+    }
+
+    /**
+     * @param quotaBytes most the log directory may hold, 0 to keep everything
+     * @param compress   gzip the oldest logs before deleting any
+     */
+    public static void setRetention(long quotaBytes, boolean compress) {
+        if (quotaBytes < 0) throw new IllegalArgumentException("quotaBytes must not be negative");
+        retentionQuotaBytes = quotaBytes;
+        retentionCompress = compress;
+    }
+
+    /**
+     * @param enabled gzip the log as it is written, to {@code .wpilog.gz}
+     * @param level   a {@link Deflater} level, 0-9 or -1 for the default
+     */
+    public static void setStreamingCompression(boolean enabled, int level) {
+        checkLevel(level);
+        streamingCompression = enabled;
+        streamingLevel = level;
+    }
+
+    /**
+     * @param enabled gzip each log or segment in the background once it is closed
+     * @param level   a {@link Deflater} level, 0-9 or -1 for the default
+     */
+    public static void setCompressClosedLogs(boolean enabled, int level) {
+        checkLevel(level);
+        compressClosed = enabled;
+        closedLevel = level;
+    }
+
+    /**
+     * Bounds what a power loss can take: every byte that reached the file before a sync survives
+     * it, in memory-mapped files too. Without a limit the OS writes the file back when it likes;
+     * only an app crash is then survived.
+     *
+     * @param maxMillis force written bytes to storage at least this often, 0 for no limit
+     * @param maxBytes  force written bytes to storage once this many are waiting, 0 for no limit
+     */
+    public static void setDurability(long maxMillis, long maxBytes) {
+        if (maxMillis < 0 || maxBytes < 0) throw new IllegalArgumentException("limits must not be negative");
+        syncMaxMillis = maxMillis;
+        syncMaxBytes = maxBytes;
+    }
+
+    /**
+     * @param enabled repair logs left cut off by an earlier crash, in the background. Logs that
+     *                were closed cleanly, or already checked, are not read again.
+     */
+    public static void setRecoverOnSetup(boolean enabled) {
+        recoverOnSetup = enabled;
+    }
+
+    /**
+     * @param enabled append an index of every record to each log file when it is closed
+     */
+    public static void setFooterIndex(boolean enabled) {
+        footerIndex = enabled;
+    }
+
+    static void checkLevel(int level) {
+        if (level != Deflater.DEFAULT_COMPRESSION
+                && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("compression level must be 0-9, or -1 for the default");
+        }
+    }
+
+    /**
+     * Opens {@code filename} in {@code dir}, creating the directory if needed, and the segments
+     * beside it when rotating.
+     */
+    static void setup(File dir, String filename) {
+        try {
+            liveCompression = null;
+            if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Cannot create " + dir);
+            File file = new File(dir, filename + (streamingCompression ? ".gz" : ""));
+            if (recoverOnSetup) {
+                // only what is there before this session opens anything
+                File[] previous = LogRecovery.listLogs(dir);
+                if (previous != null) LogCompressor.executor.execute(() -> LogRecovery.recoverAll(previous));
+            }
+            LogRetention retention = retentionQuotaBytes > 0
+                    ? new LogRetention(dir, retentionQuotaBytes, retentionCompress)
+                    : null;
+
+            if (segmentMaxBytes > 0 || segmentMaxMillis > 0) {
+                String stem = filename.endsWith(".wpilog")
+                        ? filename.substring(0, filename.length() - ".wpilog".length())
+                        : filename;
+                fos = new SegmentedLogOutputStream(
+                        index -> {
+                            File segment = new File(dir, String.format(Locale.US, "%s_%03d.wpilog%s",
+                                    stem, index, streamingCompression ? ".gz" : ""));
+                            if (retention != null) retention.setActiveFile(segment);
+                            return openFile(segment);
+                        },
+                        segmentMaxBytes,
+                        segmentMaxMillis * 1000,
+                        retention != null ? retention::enforceAsync : null);
+            } else {
+                if (retention != null) retention.setActiveFile(file);
+                fos = openFile(file);
+            }
+
+            if (retention != null) retention.enforceAsync();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create log file", e);
+        }
+    }
+
+    static OutputStream openFile(File file) throws IOException {
+        OutputStream out;
+        FileChannel channel;
+        boolean sync = syncMaxMillis > 0 || syncMaxBytes > 0;
+        if (mapChunkBytes > 0) {
+            MappedFileOutputStream mapped = new MappedFileOutputStream(file, mapChunkBytes, sync);
+            out = mapped;
+            channel = mapped.getChannel();
+        } else {
+            FileOutputStream plain = new FileOutputStream(file);
+            out = plain;
+            channel = plain.getChannel();
+        }
+        if (sync) {
+            out = new SyncingOutputStream(out, channel, syncMaxMillis, syncMaxBytes);
+        }
+        out = markIntactOnClose(out, file);
+        if (streamingCompression) {
+            GzipLogOutputStream gz = new GzipLogOutputStream(out, streamingLevel, file);
+            liveCompression = gz;
+            out = gz;
+        } else if (compressClosed) {
+            out = compressOnClose(out, file, closedLevel);
+        }
+        // outermost, so offsets are those of the uncompressed log
+        return footerIndex ? new FooterIndexOutputStream(out) : out;
+    }
+
+    /**
+     * Lists {@code file} as intact once {@code out}, the stream writing it, is closed without an
+     * error, so recovery does not have to read it again.
+     */
+    private static OutputStream markIntactOnClose(OutputStream out, File file) {
+        return new FilterOutputStream(out) {
+            private boolean closed;
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (closed) return;
+                closed = true;
+                super.close();
+                LogRecovery.markIntact(file);
+            }
+        };
+    }
+
+    /**
+     * Queues {@code file} for background compression once {@code out} is closed.
+     */
+    private static OutputStream compressOnClose(OutputStream out, File file, int level) {
+        return new FilterOutputStream(out) {
+            private boolean closed;
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (closed) return;
+                closed = true;
+                super.close();
+                LogCompressor.compressAsync(file, level);
+            }
+        };
+    }
+}
@@ -0,0 +1,369 @@
+package Ori.Coval.Logging.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Repairs logs that were cut off by a crash or brownout, so Advantage Scope opens them again.
+ * <p>
+ * A log is scanned record by record and cut after the last complete one. The scan also stops at
+ * anything that cannot be a record, which covers the zero padding a memory-mapped log is left
+ * with: a data record for an entry that was never started, or a control record that is malformed.
+ * A cut-off {@code .wpilog.gz} is decompressed as far as it goes into a repaired {@code .wpilog}.
+ * <p>
+ * Logs that were closed cleanly, archives made from them, and logs already checked are listed in
+ * a {@code .koala-intact} file in their directory with their length and modification time.
+ * {@link #recoverAll} skips them until they change, so only logs a crash may have cut off are read.
+ */
+public final class LogRecovery {
+
+    private static final int CONTROL_START = 0;
+    private static final int CONTROL_FINISH = 1;
+    private static final int CONTROL_SET_METADATA = 2;
+    // far larger than any real control record, so garbage cannot make the scan allocate much
+    private static final int MAX_CONTROL_SIZE = 1 << 20;
+    static final String INTACT_LIST = ".koala-intact";
+
+    private LogRecovery() {
+    }
+
+    /**
+     * Repairs one log in place. An intact log is left untouched.
+     *
+     * @param file a {@code .wpilog} or {@code .wpilog.gz} file
+     * @return true if the log was cut off and has been repaired
+     * @throws IOException if the file is not a WPILOG or could not be repaired
+     */
+    public static boolean recover(File file) throws IOException {
+        if (file.getName().endsWith(".gz")) return recoverGzip(file);
+
+        long valid;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file), 64 * 1024)) {
+            valid = validLength(in);
+        }
+        if (valid == file.length()) {
+            markIntact(file);
+            return false;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(valid);
+        }
+        markIntact(file);
+        return true;
+    }
+
+    /**
+     * Repairs every log in a directory. Files that are not WPILOGs are skipped, and so are logs
+     * known to be intact. Never call this on the directory a log is being written to.
+     *
+     * @return how many logs were repaired
+     */
+    public static int recoverAll(File dir) {
+        File[] files = listLogs(dir);
+        return files == null ? 0 : recoverAll(files);
+    }
+
+    static File[] listLogs(File dir) {
+        return dir.listFiles((d, name) -> name.endsWith(".wpilog") || name.endsWith(".wpilog.gz"));
+    }
+
+    static int recoverAll(File[] files) {
+        int repaired = 0;
+        for (File f : files) {
+            if (isMarkedIntact(f)) continue;
+            try {
+                if (recover(f)) repaired++;
+            } catch (IOException e) {
+                // not ours to fix, leave it as it is
+            }
+        }
+        return repaired;
+    }
+
+    /**
+     * @return the length of the complete records at the start of {@code in}, header included
+     * @throws IOException if {@code in} does not start with a WPILOG header
+     */
+    static long validLength(InputStream in) throws IOException {
+        byte[] header = new byte[12];
+        if (readFully(in, header, 12) < 12 || !isMagic(header)) {
+            throw new IOException("not a WPILOG file");
+        }
+        long extraLen = Utils.readLe(header, 8, 4);
+        byte[] scratch = new byte[8192];
+        if (skipFully(in, extraLen, scratch) < extraLen) throw new IOException("WPILOG header is cut off");
+        long valid = 12 + extraLen;
+
+        BitSet started = new BitSet();
+        byte[] buf = new byte[256];
+        while (true) {
+            int bits = in.read();
+            if (bits < 0) return valid;
+            int idLen = (bits & 0x3) + 1;
+            int sizeLen = (bits >> 2 & 0x3) + 1;
+            int tsLen = (bits >> 4 & 0x7) + 1;
+            int fieldsLen = idLen + sizeLen + tsLen;
+            if ((bits & 0x80) != 0 || readFully(in, buf, fieldsLen) < fieldsLen) return valid;
+
+            long id = Utils.readLe(buf, 0, idLen);
+            long size = Utils.readLe(buf, idLen, sizeLen);
+            if (id == 0) {
+                if (size < 5 || size > MAX_CONTROL_SIZE) return valid;
+                if (buf.length < size) buf = new byte[(int) size];
+                if (readFully(in, buf, (int) size) < size) return valid;
+                if (!applyControl(buf, (int) size, started)) return valid;
+            } else {
+                if (id > Integer.MAX_VALUE || !started.get((int) id)) return valid;
+                if (skipFully(in, size, scratch) < size) return valid;
+            }
+            valid += 1 + fieldsLen + size;
+        }
+    }
+
+    /**
+     * @return false if the control record cannot be a real one
+     */
+    private static boolean applyControl(byte[] b, int size, BitSet started) {
+        int kind = b[0] & 0xFF;
+        long entry = Utils.readLe(b, 1, 4);
+        if (entry == 0 || entry > Integer.MAX_VALUE) return false;
+        switch (kind) {
+            case CONTROL_START: {
+                // name, type and metadata, each a length-prefixed string
+                int p = 5;
+                for (int i = 0; i < 3; i++) {
+                    if (size - p < 4) return false;
+                    long len = Utils.readLe(b, p, 4);
+                    if (len > size - p - 4) return false;
+                    p += 4 + (int) len;
+                }
+                if (p != size) return false;
+                started.set((int) entry);
+                return true;
+            }
+            case CONTROL_FINISH:
+                if (size != 5 || !started.get((int) entry)) return false;
+                started.clear((int) entry);
+                return true;
+            case CONTROL_SET_METADATA:
+                return size >= 9 && Utils.readLe(b, 5, 4) == size - 9 && started.get((int) entry);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Decompresses what can be read of a cut-off gzipped log into a repaired {@code .wpilog}
+     * next to it, and removes the broken original. An intact gzipped log is only read, never
+     * written out.
+     */
+    private static boolean recoverGzip(File gz) throws IOException {
+        GzipScan scan = new GzipScan(new FileInputStream(gz));
+        try (InputStream in = new BufferedInputStream(scan, 64 * 1024)) {
+            long valid = validLength(in);
+            // what follows the complete records is garbage or the end; read it to know which
+            byte[] scratch = new byte[8192];
+            while (in.read(scratch) >= 0) {
+                // counted by scan
+            }
+            if (!scan.truncated && valid == scan.total) {
+                markIntact(gz);
+                return false;
+            }
+        }
+
+        String name = gz.getPath();
+        File repaired = new File(name.substring(0, name.length() - ".gz".length()));
+        File tmp = new File(repaired.getPath() + ".tmp");
+
+        boolean truncated = false;
+        long total = 0;
+        try (InputStream in = new GZIPInputStream(new FileInputStream(gz), 64 * 1024);
+             OutputStream out = new BufferedOutputStream(new FileOutputStream(tmp), 64 * 1024)) {
+            byte[] buf = new byte[64 * 1024];
+            while (true) {
+                int n;
+                try {
+                    n = in.read(buf);
+                } catch (EOFException | ZipException e) {
+                    truncated = true;
+                    break;
+                }
+                if (n < 0) break;
+                out.write(buf, 0, n);
+                total += n;
+            }
+        } catch (IOException e) {
+            tmp.delete();
+            throw e;
+        }
+
+        long valid;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(tmp), 64 * 1024)) {
+            valid = validLength(in);
+        } catch (IOException e) {
+            tmp.delete();
+            throw e;
+        }
+        if (!truncated && valid == total) {
+            tmp.delete();
+            return false;
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(tmp, "rw")) {
+            raf.setLength(valid);
+        }
+        if (repaired.exists() || !tmp.renameTo(repaired)) {
+            tmp.delete();
+            throw new IOException("could not write " + repaired);
+        }
+        repaired.setLastModified(gz.lastModified());
+        gz.delete();
+        markIntact(repaired);
+        return true;
+    }
+
+    /**
+     * A gzip stream that ends where it is cut off instead of throwing, and counts what it gave.
+     */
+    private static final class GzipScan extends FilterInputStream {
+        private final byte[] one = new byte[1];
+        boolean truncated;
+        long total;
+
+        GzipScan(InputStream compressed) throws IOException {
+            super(new GZIPInputStream(compressed, 64 * 1024));
+        }
+
+        @Override
+        public int read() throws IOException {
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (truncated) return -1;
+            try {
+                int n = in.read(b, off, len);
+                if (n > 0) total += n;
+                return n;
+            } catch (EOFException | ZipException e) {
+                truncated = true;
+                return -1;
+            }
+        }
+    }
+
+    // --- Intact list ---
+
+    /**
+     * Records that {@code log} is complete as it is now, so {@link #recoverAll} can skip it.
+     */
+    static void markIntact(File log) {
+        File dir = log.getAbsoluteFile().getParentFile();
+        synchronized (LogRecovery.class) {
+            Map<String, String> intact = readIntact(dir);
+            intact.put(log.getName(), stamp(log));
+            writeIntact(dir, intact);
+        }
+    }
+
+    /**
+     * Marks {@code copy} intact if {@code original} was, for archives made from a log.
+     */
+    static void markIntactCopy(File original, File copy) {
+        synchronized (LogRecovery.class) {
+            if (isMarkedIntact(original)) markIntact(copy);
+        }
+    }
+
+    static boolean isMarkedIntact(File log) {
+        File dir = log.getAbsoluteFile().getParentFile();
+        synchronized (LogRecovery.class) {
+            return stamp(log).equals(readIntact(dir).get(log.getName()));
+        }
+    }
+
+    private static String stamp(File log) {
+        return log.length() + " " + log.lastModified();
+    }
+
+    private static Map<String, String> readIntact(File dir) {
+        Map<String, String> intact = new LinkedHashMap<>();
+        File list = new File(dir, INTACT_LIST);
+        if (!list.isFile()) return intact;
+        try (BufferedReader reader = new BufferedReader(new FileReader(list))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if (tab > 0) intact.put(line.substring(0, tab), line.substring(tab + 1));
+            }
+        } catch (IOException e) {
+            // an unreadable list only means the logs in it are checked again
+        }
+        return intact;
+    }
+
+    private static void writeIntact(File dir, Map<String, String> intact) {
+        File list = new File(dir, INTACT_LIST);
+        File tmp = new File(dir, INTACT_LIST + ".tmp");
+        try (PrintWriter writer = new PrintWriter(tmp)) {
+            for (Map.Entry<String, String> e : intact.entrySet()) {
+                // logs deleted or compressed away since are dropped from the list
+                if (new File(dir, e.getKey()).exists()) writer.print(e.getKey() + "\t" + e.getValue() + "\n");
+            }
+        } catch (IOException e) {
+            tmp.delete();
+            return;
+        }
+        if (!tmp.renameTo(list)) {
+            // File.renameTo does not replace on every platform
+            list.delete();
+            if (!tmp.renameTo(list)) tmp.delete();
+        }
+    }
+
+    private static boolean isMagic(byte[] h) {
+        return h[0] == 'W' && h[1] == 'P' && h[2] == 'I' && h[3] == 'L' && h[4] == 'O' && h[5] == 'G';
+    }
+
+    private static int readFully(InputStream in, byte[] b, int len) throws IOException {
+        int n = 0;
+        while (n < len) {
+            int r = in.read(b, n, len - n);
+            if (r < 0) break;
+            n += r;
+        }
+        return n;
+    }
+
+    /**
+     * Reads rather than skips: a file stream skips happily past the end of the file.
+     */
+    private static long skipFully(InputStream in, long len, byte[] scratch) throws IOException {
+        long n = 0;
+        while (n < len) {
+            int r = in.read(scratch, 0, (int) Math.min(scratch.length, len - n));
+            if (r < 0) break;
+            n += r;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,85 @@
+package Ori.Coval.Logging.Logger;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Keeps a log directory under a byte quota by deleting, or first gzipping, the oldest logs.
+ * <p>
+ * All the file work runs on the {@link LogCompressor} background thread, so neither the logging
+ * thread nor the writer ever waits on it. The log being written is never touched.
+ */
+class LogRetention {
+
+    private static final String LOG_SUFFIX = ".wpilog";
+    private static final String GZIP_SUFFIX = ".wpilog.gz";
+
+    private final File dir;
+    private final long quotaBytes;
+    private final boolean compress;
+    private volatile File activeFile;
+
+    /**
+     * @param quotaBytes the most the logs in {@code dir} may take up together
+     * @param compress   gzip old logs before resorting to deleting them
+     */
+    LogRetention(File dir, long quotaBytes, boolean compress) {
+        this.dir = dir;
+        this.quotaBytes = quotaBytes;
+        this.compress = compress;
+    }
+
+    /**
+     * Marks the file currently being written, which is never compressed or deleted.
+     */
+    void setActiveFile(File file) {
+        activeFile = file;
+    }
+
+    /**
+     * Brings the directory back under quota in the background.
+     */
+    void enforceAsync() {
+        LogCompressor.executor.execute(this::enforce);
+    }
+
+    void enforce() {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(LOG_SUFFIX) || name.endsWith(GZIP_SUFFIX));
+        if (files == null) return;
+
+        long total = 0;
+        for (File f : files) total += f.length();
+        if (total <= quotaBytes) return;
+
+        List<File> oldestFirst = new ArrayList<>(Arrays.asList(files));
+        Collections.sort(oldestFirst, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Long.compare(a.lastModified(), b.lastModified());
+            }
+        });
+
+        File active = activeFile;
+        // first pass shrinks what it can, second pass deletes what is still over
+        if (compress) {
+            for (File f : oldestFirst) {
+                if (total <= quotaBytes) return;
+                if (f.equals(active) || !f.getName().endsWith(LOG_SUFFIX)) continue;
+                CompressionStats stats = LogCompressor.gzip(f, Deflater.DEFAULT_COMPRESSION);
+                if (stats != null) total -= stats.getInputBytes() - stats.getOutputBytes();
+            }
+        }
+        for (File f : oldestFirst) {
+            if (total <= quotaBytes) return;
+            if (f.equals(active)) continue;
+            File current = f.exists() ? f : new File(f.getPath() + ".gz");
+            long length = current.length();
+            if (current.delete()) total -= length;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package Ori.Coval.Logging.Logger;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+
+/**
+ * Where the encoded log goes. A sink receives the WPILOG byte stream exactly as a file would
+ * hold it, header first, from one writing thread at a time.
+ * <p>
+ * Pass one or more to {@link KoalaLogCore#setup(LogSink...)}; the built-in ones are
+ * {@link FileSink}, {@link MemorySink}, {@link NullSink}, {@link SocketSink} and
+ * {@link GzipSink}.
+ */
+public interface LogSink extends Closeable, Flushable {
+
+    void write(byte[] b, int off, int len) throws IOException;
+
+    /**
+     * Pushes buffered bytes on towards their destination. Does nothing by default.
+     */
+    @Override
+    default void flush() throws IOException {
+    }
+}
@@ -0,0 +1,97 @@
+package Ori.Coval.Logging.Logger;
+
+import java.util.Locale;
+
+/**
+ * What logging has done and cost since the current log was set up, from
+ * {@link KoalaLogCore#getStats()}.
+ */
+public final class LogStats {
+    private final long records;
+    private final long bytes;
+    private final long elapsedNanos;
+    private final int entries;
+    private final long droppedRecords;
+    private final long bufferHighWaterBytes;
+    private final LatencyHistogram encode;
+    private final LatencyHistogram write;
+
+    LogStats(long records, long bytes, long elapsedNanos, int entries, long droppedRecords,
+             long bufferHighWaterBytes, LatencyHistogram encode, LatencyHistogram write) {
+        this.records = records;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+        this.entries = entries;
+        this.droppedRecords = droppedRecords;
+        this.bufferHighWaterBytes = bufferHighWaterBytes;
+        this.encode = encode;
+        this.write = write;
+    }
+
+    /**
+     * @return records encoded, control records included
+     */
+    public long getRecords() {
+        return records;
+    }
+
+    /**
+     * @return bytes handed to the output, before any compression
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    public double getRecordsPerSecond() {
+        return elapsedNanos == 0 ? 0 : records * 1e9 / elapsedNanos;
+    }
+
+    public double getBytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytes * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @return how many entries exist
+     */
+    public int getEntries() {
+        return entries;
+    }
+
+    /**
+     * @return data records the async writer discarded because its buffer was full
+     */
+    public long getDroppedRecords() {
+        return droppedRecords;
+    }
+
+    /**
+     * @return the fullest any async writer buffer has been, in bytes; 0 when writing synchronously
+     */
+    public long getBufferHighWaterBytes() {
+        return bufferHighWaterBytes;
+    }
+
+    /**
+     * @return time from starting to encode a record to handing it to the output
+     */
+    public LatencyHistogram getEncodeLatency() {
+        return encode;
+    }
+
+    /**
+     * @return time spent in each write and flush of the output stream, on whichever thread
+     * does the I/O
+     */
+    public LatencyHistogram getWriteLatency() {
+        return write;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "%d records (%.0f/s), %d bytes (%.0f/s), %d entries, %d dropped, buffer high-water %d bytes%n"
+                        + "encode: %s%nwrite: %s",
+                records, getRecordsPerSecond(), bytes, getBytesPerSecond(), entries, droppedRecords,
+                bufferHighWaterBytes, encode, write);
+    }
+}
@@ -0,0 +1,198 @@
+package Ori.Coval.Logging.Logger;
+
+/**
+ * Handle to an int64[] entry. Int arrays are widened to longs.
+ */
+public class LongArrayEntry extends LogEntry {
+    // last written values, compared by content in change-only mode
+    private long[] last = new long[0];
+    private int lastLength;
+    // last posted values, formatted on the publisher thread
+    private final PostBuffer<long[]> posted = new PostBuffer<>(new long[0], new long[0], new long[0]);
+
+    LongArrayEntry(int id, String name, String type) {
+        super(id, name, type);
+    }
+
+    public void append(long[] values) {
+        long ts = KoalaLogCore.nowMicros();
+        if (isThrottled(ts)) return;
+        if (skipsRepeats()) {
+            if (isRepeat(sameAsLast(values), ts)) return;
+            remember(values);
+        }
+        beginWrite(ts);
+        KoalaLogCore.writeValue(id, values, ts);
+    }
+
+    public void append(long[] values, boolean post) {
+        append(values);
+        if (post) {
+            post(values);
+            markPosted();
+        }
+    }
+
+    public void append(Long[] values) {
+        long ts = KoalaLogCore.nowMicros();
+        if (isThrottled(ts)) return;
+        if (skipsRepeats()) {
+            if (isRepeat(sameAsLast(values), ts)) return;
+            remember(values);
+        }
+        beginWrite(ts);
+        KoalaLogCore.writeValue(id, values, ts);
+    }
+
+    public void append(Long[] values, boolean post) {
+        append(values);
+        if (post) {
+            post(values);
+            markPosted();
+        }
+    }
+
+    public void append(int[] values) {
+        long ts = KoalaLogCore.nowMicros();
+        if (isThrottled(ts)) return;
+        if (skipsRepeats()) {
+            if (isRepeat(sameAsLast(values), ts)) return;
+            remember(values);
+        }
+        beginWrite(ts);
+        KoalaLogCore.writeValue(id, values, ts);
+    }
+
+    public void append(int[] values, boolean post) {
+        append(values);
+        if (post) {
+            post(values);
+            markPosted();
+        }
+    }
+
+    public void append(Integer[] values) {
+        long ts = KoalaLogCore.nowMicros();
+        if (isThrottled(ts)) return;
+        if (skipsRepeats()) {
+            if (isRepeat(sameAsLast(values), ts)) return;
+            remember(values);
+        }
+        beginWrite(ts);
+        KoalaLogCore.writeValue(id, values, ts);
+    }
+
+    public void append(Integer[] values, boolean post) {
+        append(values);
+        if (post) {
+            post(values);
+            markPosted();
+        }
+    }
+
+    private boolean sameAsLast(long[] values) {
+        if (values.length != lastLength) return false;
+        for (int i = 0; i < values.length; i++) {
+            if (!near(values[i], last[i])) return false;
+        }
+        return true;
+    }
+
+    private void remember(long[] values) {
+        if (last.length < values.length) last = new long[values.length];
+        System.arraycopy(values, 0, last, 0, values.length);
+        lastLength = values.length;
+    }
+
+    private boolean sameAsLast(Long[] values) {
+        if (values.length != lastLength) return false;
+        for (int i = 0; i < values.length; i++) {
+            if (!near(values[i], last[i])) return false;
+        }
+        return true;
+    }
+
+    private void remember(Long[] values) {
+        if (last.length < values.length) last = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            last[i] = values[i];
+        }
+        lastLength = values.length;
+    }
+
+    private boolean sameAsLast(int[] values) {
+        if (values.length != lastLength) return false;
+        for (int i = 0; i < values.length; i++) {
+            if (!near(values[i], last[i])) return false;
+        }
+        return true;
+    }
+
+    private void remember(int[] values) {
+        if (last.length < values.length) last = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            last[i] = values[i];
+        }
+        lastLength = values.length;
+    }
+
+    private boolean sameAsLast(Integer[] values) {
+        if (values.length != lastLength) return false;
+        for (int i = 0; i < values.length; i++) {
+            if (!near(values[i], last[i])) return false;
+        }
+        return true;
+    }
+
+    private void remember(Integer[] values) {
+        if (last.length < values.length) last = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            last[i] = values[i];
+        }
+        lastLength = values.length;
+    }
+
+    private void post(long[] values) {
+        PostBuffer.Slot<long[]> slot = posted.writeSlot();
+        if (slot.values.length < values.length) slot.values = new long[values.length];
+        System.arraycopy(values, 0, slot.values, 0, values.length);
+        slot.length = values.length;
+        posted.publish();
+    }
+
+    private void post(Long[] values) {
+        PostBuffer.Slot<long[]> slot = posted.writeSlot();
+        if (slot.values.length < values.length) slot.values = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            slot.values[i] = values[i];
+        }
+        slot.length = values.length;
+        posted.publish();
+    }
+
+    private void post(int[] values) {
+        PostBuffer.Slot<long[]> slot = posted.writeSlot();
+        if (slot.values.length < values.length) slot.values = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            slot.values[i] = values[i];
+        }
+        slot.length = values.length;
+        posted.publish();
+    }
+
+    private void post(Integer[] values) {
+        PostBuffer.Slot<long[]> slot = posted.writeSlot();
+        if (slot.values.length < values.length) slot.values = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            slot.values[i] = values[i];
+        }
+        slot.length = values.length;
+        posted.publish();
+    }
+
+    @Override
+    Object dashboardValue() {
+        PostBuffer.Slot<long[]> slot = posted.readSlot();
+        return DashboardPublisher.format(slot.values, slot.length);
+    }
+}
@@ -0,0 +1,38 @@
+package Ori.Coval.Logging.Logger;
+
+/**
+ * Handle to an int64 entry. Int values are widened to longs.
+ */
+public class LongEntry extends LogEntry {
+    private long last;
+    // read by the publisher thread
+    private volatile long posted;
+
+    LongEntry(int id, String name, String type) {
+        super(id, name, type);
+    }
+
+    public void append(long value) {
+        long ts = KoalaLogCore.nowMicros();
+        if (isThrottled(ts)) return;
+        if (skipsRepeats()) {
+            if (isRepeat(near(value, last), ts)) return;
+            last = value;
+        }
+        beginWrite(ts);
+        KoalaLogCore.writeValue(id, value, ts);
+    }
+
+    public void append(long value, boolean post) {
+        append(value);
+        if (post) {
+            posted = value;
+            markPosted();
+        }
+    }
+
+    @Override
+    Object dashboardValue() {
+        return posted;
+    }
+}
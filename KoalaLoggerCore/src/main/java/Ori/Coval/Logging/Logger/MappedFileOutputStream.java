@@ -0,0 +1,142 @@
+package Ori.Coval.Logging.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Writes a file through a memory-mapped window instead of one syscall per write.
+ * <p>
+ * The file is grown a whole chunk at a time, so the filesystem metadata is only touched once per
+ * chunk, and writes are plain memory copies into the page cache. When the window fills, the next
+ * chunk is mapped. {@link #close} truncates the file back to the bytes actually written.
+ * <p>
+ * Mapped pages belong to the kernel, so written data survives the app crashing, but not a power
+ * loss before it is written back. {@link #force} writes them back on demand. A file that was never
+ * closed ends in zero padding.
+ */
+class MappedFileOutputStream extends OutputStream {
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final int chunkSize;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private boolean closed;
+
+    // for force, which may run on another thread: the current window, and the windows filled
+    // since the last force
+    private final boolean forced;
+    private volatile MappedByteBuffer current;
+    private final ConcurrentLinkedQueue<MappedByteBuffer> filled = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param chunkSize how many bytes to preallocate and map at a time
+     * @param forced    whether {@link #force} will be called; filled windows are then kept until
+     *                  it writes them back, instead of being released at once
+     */
+    MappedFileOutputStream(File target, int chunkSize, boolean forced) throws IOException {
+        if (chunkSize <= 0) throw new IllegalArgumentException("chunkSize must be positive");
+        this.chunkSize = chunkSize;
+        this.forced = forced;
+        this.file = new RandomAccessFile(target, "rw");
+        this.channel = file.getChannel();
+        file.setLength(0);
+        map(0);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (!window.hasRemaining()) map(windowStart + chunkSize);
+        window.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            if (!window.hasRemaining()) map(windowStart + chunkSize);
+            int n = Math.min(len, window.remaining());
+            window.put(b, off, n);
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Does nothing: written bytes are already in the page cache.
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * @return how many bytes have been written
+     */
+    long position() {
+        return windowStart + (window == null ? 0 : window.position());
+    }
+
+    /**
+     * @return the channel of the file, for forcing it to storage
+     */
+    FileChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Writes the pages of every window changed so far back to storage, then the file length. May
+     * be called from another thread than the one writing; bytes written meanwhile may or may not
+     * be included.
+     *
+     * @throws IllegalStateException if the stream was not opened to be forced
+     */
+    void force() throws IOException {
+        if (!forced) throw new IllegalStateException("not opened to be forced");
+        // read before the queue: map queues a window before it stops being current
+        MappedByteBuffer w = current;
+        MappedByteBuffer full;
+        while ((full = filled.poll()) != null) full.force();
+        if (w != null) w.force();
+        channel.force(false);
+    }
+
+    /**
+     * Truncates the file to the bytes written and closes it.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        long length = position();
+        window = null;
+        current = null;
+        filled.clear();
+        try {
+            file.setLength(length);
+        } finally {
+            channel.close();
+            file.close();
+        }
+    }
+
+    private void map(long start) throws IOException {
+        if (file.length() < start + chunkSize) {
+            file.setLength(start + chunkSize);
+        }
+        if (forced && window != null) filled.add(window);
+        window = channel.map(FileChannel.MapMode.READ_WRITE, start, chunkSize);
+        current = window;
+        windowStart = start;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) throw new IOException("stream is closed");
+    }
+}
@@ -0,0 +1,48 @@
+package Ori.Coval.Logging.Logger;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the log in memory, e.g. for checking what a test logged. The bytes can be read at any
+ * time, from any thread, and form a complete WPILOG up to the last record written.
+ */
+public final class MemorySink implements LogSink {
+
+    private byte[] buf;
+    private int size;
+
+    public MemorySink() {
+        this(1 << 16);
+    }
+
+    /**
+     * @param initialCapacity bytes to allocate up front; the buffer grows as needed
+     */
+    public MemorySink(int initialCapacity) {
+        buf = new byte[Math.max(initialCapacity, 16)];
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+        if (size + len > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + len));
+        }
+        System.arraycopy(b, off, buf, size, len);
+        size += len;
+    }
+
+    /**
+     * @return a copy of everything written so far
+     */
+    public synchronized byte[] toByteArray() {
+        return Arrays.copyOf(buf, size);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,26 @@
+package Ori.Coval.Logging.Logger;
+
+/**
+ * Throws the log away, only counting its bytes: for measuring what encoding costs on its own.
+ */
+public final class NullSink implements LogSink {
+
+    private volatile long bytes;
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        // one writer at a time, so the increment needs no lock
+        bytes += len;
+    }
+
+    /**
+     * @return how many bytes were written
+     */
+    public long getBytesWritten() {
+        return bytes;
+    }
+
+    @Override
+    public void close() {
+    }
+}
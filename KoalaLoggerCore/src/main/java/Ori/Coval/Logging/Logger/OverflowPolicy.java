@@ -0,0 +1,18 @@
+package Ori.Coval.Logging.Logger;
+
+/**
+ * What the asynchronous writer does when its ring buffer is full.
+ * <p>
+ * Control records (entry starts and struct schemas) are never dropped; they always wait for space.
+ */
+public enum OverflowPolicy {
+    /**
+     * Wait on the logging thread until the writer thread frees enough space. Never loses a record,
+     * even one larger than the whole buffer.
+     */
+    BLOCK,
+    /** Discard the record being logged, as well as any record larger than the whole buffer. */
+    DROP_NEWEST,
+    /** Discard the oldest buffered records to make room for the new one. */
+    DROP_OLDEST
+}
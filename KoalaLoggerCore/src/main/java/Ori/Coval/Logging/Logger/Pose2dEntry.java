@@ -0,0 +1,49 @@
+package Ori.Coval.Logging.Logger;
+
+import java.util.Locale;
+
+/**
+ * Handle to a struct:Pose2d entry (three doubles).
+ */
+public class Pose2dEntry extends LogEntry {
+    private double lastX;
+    private double lastY;
+    private double lastRot;
+    // last posted x, y and rotation, formatted on the publisher thread
+    private final PostBuffer<double[]> posted = new PostBuffer<>(new double[3], new double[3], new double[3]);
+
+    Pose2dEntry(int id, String name, String type) {
+        super(id, name, type);
+    }
+
+    public void append(double x, double y, double rot) {
+        long ts = KoalaLogCore.nowMicros();
+        if (isThrottled(ts)) return;
+        if (skipsRepeats()) {
+            if (isRepeat(near(x, lastX) && near(y, lastY) && near(rot, lastRot), ts)) return;
+            lastX = x;
+            lastY = y;
+            lastRot = rot;
+        }
+        beginWrite(ts);
+        KoalaLogCore.writePose2d(id, x, y, rot, ts);
+    }
+
+    public void append(double x, double y, double rot, boolean post) {
+        append(x, y, rot);
+        if (post) {
+            double[] slot = posted.writeSlot().values;
+            slot[0] = x;
+            slot[1] = y;
+            slot[2] = rot;
+            posted.publish();
+            markPosted();
+        }
+    }
+
+    @Override
+    Object dashboardValue() {
+        double[] pose = posted.readSlot().values;
+        return String.format(Locale.US, "x=%.2f,y=%.2f,θ=%.2f", pose[0], pose[1], pose[2]);
+    }
+}
@@ -0,0 +1,64 @@
+package Ori.Coval.Logging.Logger;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Triple buffer for a posted value that spans more than one field, such as an array.
+ * <p>
+ * The logging thread fills its own slot and swaps it with the spare one; the publisher thread
+ * swaps the spare for its own slot when a newer value is in it. Each slot belongs to one thread
+ * at a time, so the publisher never formats a value while it is overwritten, and never one that
+ * mixes two posts. Neither side waits, and once each slot has grown to the largest value posted,
+ * neither allocates.
+ */
+final class PostBuffer<A> {
+
+    static final class Slot<A> {
+        A values;
+        int length;
+        // whether this slot holds a value the publisher has not taken yet
+        boolean fresh;
+
+        Slot(A values) {
+            this.values = values;
+        }
+    }
+
+    // owned by the logging thread
+    private Slot<A> writing;
+    // owned by the publisher thread
+    private Slot<A> reading;
+    private final AtomicReference<Slot<A>> spare;
+
+    /**
+     * @param a, b, c the initial arrays of the three slots; distinct unless they are empty
+     */
+    PostBuffer(A a, A b, A c) {
+        writing = new Slot<>(a);
+        reading = new Slot<>(b);
+        spare = new AtomicReference<>(new Slot<>(c));
+    }
+
+    /**
+     * @return the slot to fill on the logging thread, then hand over with {@link #publish}
+     */
+    Slot<A> writeSlot() {
+        return writing;
+    }
+
+    void publish() {
+        writing.fresh = true;
+        writing = spare.getAndSet(writing);
+    }
+
+    /**
+     * @return the slot holding the latest published value, on the publisher thread
+     */
+    Slot<A> readSlot() {
+        if (spare.get().fresh) {
+            reading.fresh = false;
+            reading = spare.getAndSet(reading);
+        }
+        return reading;
+    }
+}
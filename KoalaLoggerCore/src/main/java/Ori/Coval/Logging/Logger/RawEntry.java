@@ -0,0 +1,20 @@
+package Ori.Coval.Logging.Logger;
+
+/**
+ * Handle to an entry whose payload is already packed, such as a struct schema.
+ */
+public class RawEntry extends LogEntry {
+    // a lost schema makes every value of its struct type unreadable, so it is never dropped
+    private final boolean control;
+
+    RawEntry(int id, String name, String type) {
+        super(id, name, type);
+        control = type.equals("structschema");
+    }
+
+    public void append(byte[] payload) {
+        long ts = KoalaLogCore.nowMicros();
+        beginWrite(ts);
+        KoalaLogCore.writeRecord(id, payload, ts, control);
+    }
+}
@@ -0,0 +1,103 @@
+package Ori.Coval.Logging.Logger;
+
+/**
+ * Reusable little-endian staging buffer that WPILOG records are encoded into.
+ * <p>
+ * A record is written header-first: {@link #beginRecord} writes the header for a payload of a
+ * known size and returns the offset the payload must be packed at. The backing array only grows,
+ * so once it has reached its working size encoding allocates nothing.
+ */
+class RecordBuffer {
+    /** Largest possible record header: bitfield, 4-byte id, 4-byte size, 8-byte timestamp. */
+    static final int MAX_HEADER_SIZE = 17;
+
+    /** Backing array. Re-read after every {@link #beginRecord}, which may replace it. */
+    byte[] data;
+    /** Number of encoded bytes in {@link #data}. */
+    int size;
+    /** Whether data records are being batched into a frame instead of written one by one. */
+    boolean inFrame;
+    /** Whether data records are being captured for a {@link LogCapture}, from {@link #captureStart} on. */
+    boolean capturing;
+    int captureStart;
+    /** End of the batched records; control records are encoded after it and written at once. */
+    int batchEnd;
+    /** Whether records get {@link #fixedTimestamp} instead of the clock, while capturing for a frame. */
+    boolean fixedTime;
+    long fixedTimestamp;
+    /** When the last record began encoding, for {@link SelfStats}; 0 when not measured. */
+    long encodeStartNanos;
+
+    RecordBuffer(int initialCapacity) {
+        data = new byte[initialCapacity];
+    }
+
+    /**
+     * Appends a record header and reserves room for its payload.
+     * <p>
+     * Each header field uses the fewest bytes that hold its value, as the WPILOG format allows:
+     * the leading bitfield stores the id length (bits 0-1), the payload size length (bits 2-3)
+     * and the timestamp length (bits 4-6), each minus one.
+     *
+     * @return the offset in {@link #data} where the payload must be written
+     */
+    int beginRecord(int entryId, int payloadSize, long timestamp) {
+        if (SelfStats.enabled) {
+            SelfStats.records.incrementAndGet();
+            encodeStartNanos = System.nanoTime();
+        }
+        ensureCapacity(size + MAX_HEADER_SIZE + payloadSize);
+        int idLen = byteLength(entryId & 0xFFFFFFFFL);
+        int sizeLen = byteLength(payloadSize & 0xFFFFFFFFL);
+        int tsLen = byteLength(timestamp);
+
+        int p = size;
+        data[p++] = (byte) ((idLen - 1) | (sizeLen - 1) << 2 | (tsLen - 1) << 4);
+        p = putVarLe(p, entryId, idLen);
+        p = putVarLe(p, payloadSize, sizeLen);
+        p = putVarLe(p, timestamp, tsLen);
+        size = p + payloadSize;
+        return p;
+    }
+
+    /**
+     * @return how many little-endian bytes (at least one) are needed to hold {@code v}
+     */
+    static int byteLength(long v) {
+        return v == 0 ? 1 : (71 - Long.numberOfLeadingZeros(v)) >> 3;
+    }
+
+    private int putVarLe(int off, long v, int len) {
+        for (int i = 0; i < len; i++) {
+            data[off + i] = (byte) (v >> (i * 8));
+        }
+        return off + len;
+    }
+
+    /**
+     * @return whether data records are held in this buffer rather than written as they come
+     */
+    boolean batching() {
+        return inFrame || capturing;
+    }
+
+    /**
+     * Appends already encoded records.
+     */
+    void append(byte[] records, int off, int len) {
+        ensureCapacity(size + len);
+        System.arraycopy(records, off, data, size, len);
+        size += len;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= data.length) return;
+        byte[] grown = new byte[Math.max(capacity, data.length * 2)];
+        System.arraycopy(data, 0, grown, 0, size);
+        data = grown;
+    }
+}
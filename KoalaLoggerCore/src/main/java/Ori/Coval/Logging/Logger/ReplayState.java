@@ -0,0 +1,82 @@
+package Ori.Coval.Logging.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+/**
+ * What a reader joining a record stream part way needs first: the start record of every open
+ * entry and the latest value of every struct schema, kept up to date as records pass by.
+ */
+class ReplayState {
+
+    private static final byte[] STRUCT_SCHEMA = "structschema".getBytes(StandardCharsets.UTF_8);
+
+    private final LinkedHashMap<Integer, byte[]> starts = new LinkedHashMap<>();
+    private final HashMap<Integer, byte[]> schemaValues = new HashMap<>();
+    private boolean[] isSchema = new boolean[64];
+
+    /**
+     * Notes one complete record at {@code p}. Only control and schema records change anything.
+     */
+    void track(byte[] b, int p, int headerLen, int recordLen, int id) {
+        if (id == 0) {
+            int payload = p + headerLen;
+            if (recordLen - headerLen < 5) return;
+            int kind = b[payload] & 0xFF;
+            int entry = (int) Utils.readLe(b, payload + 1, 4);
+            if (kind == 0) {
+                starts.put(entry, Arrays.copyOfRange(b, p, p + recordLen));
+                setSchema(entry, isStructSchemaStart(b, payload + 5, p + recordLen));
+            } else if (kind == 1) {
+                starts.remove(entry);
+                schemaValues.remove(entry);
+                setSchema(entry, false);
+            }
+        } else if (id < isSchema.length && isSchema[id]) {
+            schemaValues.put(id, Arrays.copyOfRange(b, p, p + recordLen));
+        }
+    }
+
+    /**
+     * Writes the starts, then the schema values.
+     *
+     * @return how many bytes were written
+     */
+    long writeTo(OutputStream out) throws IOException {
+        long written = 0;
+        for (byte[] start : starts.values()) {
+            out.write(start);
+            written += start.length;
+        }
+        for (byte[] schema : schemaValues.values()) {
+            out.write(schema);
+            written += schema.length;
+        }
+        return written;
+    }
+
+    private static boolean isStructSchemaStart(byte[] b, int p, int end) {
+        if (end - p < 4) return false;
+        int nameLen = (int) Utils.readLe(b, p, 4);
+        int typeOff = p + 4 + nameLen;
+        if (nameLen < 0 || end - typeOff < 4 + STRUCT_SCHEMA.length) return false;
+        int typeLen = (int) Utils.readLe(b, typeOff, 4);
+        if (typeLen != STRUCT_SCHEMA.length) return false;
+        for (int i = 0; i < typeLen; i++) {
+            if (b[typeOff + 4 + i] != STRUCT_SCHEMA[i]) return false;
+        }
+        return true;
+    }
+
+    private void setSchema(int entry, boolean schema) {
+        if (entry >= isSchema.length) {
+            if (!schema) return;
+            isSchema = Arrays.copyOf(isSchema, Math.max(entry + 1, isSchema.length * 2));
+        }
+        isSchema[entry] = schema;
+    }
+}
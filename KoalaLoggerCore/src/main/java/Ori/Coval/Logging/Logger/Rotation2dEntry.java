@@ -0,0 +1,40 @@
+package Ori.Coval.Logging.Logger;
+
+import java.util.Locale;
+
+/**
+ * Handle to a struct:Rotation2d entry (one double).
+ */
+public class Rotation2dEntry extends LogEntry {
+    private double last;
+    // read by the publisher thread
+    private volatile double posted;
+
+    Rotation2dEntry(int id, String name, String type) {
+        super(id, name, type);
+    }
+
+    public void append(double rotation) {
+        long ts = KoalaLogCore.nowMicros();
+        if (isThrottled(ts)) return;
+        if (skipsRepeats()) {
+            if (isRepeat(near(rotation, last), ts)) return;
+            last = rotation;
+        }
+        beginWrite(ts);
+        KoalaLogCore.writeValue(id, rotation, ts);
+    }
+
+    public void append(double rotation, boolean post) {
+        append(rotation);
+        if (post) {
+            posted = rotation;
+            markPosted();
+        }
+    }
+
+    @Override
+    Object dashboardValue() {
+        return String.format(Locale.US, "θ=%.2f", posted);
+    }
+}
@@ -3,9 +3,11 @@ package Ori.Coval.Logging.Logger;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class SchemaRegistry {
-    private static final HashMap<String, String> structSchemas = new HashMap<>();
+    private static final HashMap<String, String> structSchemas = new LinkedHashMap<>();
 
     /**
      * register a struct schema to the log
@@ -18,22 +20,34 @@ public class SchemaRegistry {
      * @param name the name of the schema
      * @param schema the schema definition
      */
-    static void registerStructSchemas(String name, String schema) {
-        //add "struct:" prefix if not already present
-        String logLocation = !name.startsWith("struct:") ? "/.schema/struct:" : "/.schema/";
-
-
+    static synchronized void registerStructSchemas(String name, String schema) {
         if(!structSchemas.containsKey(name)) {
             structSchemas.put(name, schema);
-            try {
-                KoalaLogCore.appendRaw(logLocation + name, "structschema", schema.getBytes(StandardCharsets.UTF_8));
-            } catch (IOException e) {
-                throw new RuntimeException("Failed to register schemas", e);
-            }
+            writeSchema(name, schema);
         }
 
     }
 
+    /**
+     * write every schema registered so far, for a log file that was just opened
+     */
+    static synchronized void writeRegisteredSchemas() {
+        for (Map.Entry<String, String> schema : structSchemas.entrySet()) {
+            writeSchema(schema.getKey(), schema.getValue());
+        }
+    }
+
+    private static void writeSchema(String name, String schema) {
+        //add "struct:" prefix if not already present
+        String logLocation = !name.startsWith("struct:") ? "/.schema/struct:" : "/.schema/";
+
+        try {
+            KoalaLogCore.appendRaw(logLocation + name, "structschema", schema.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to register schemas", e);
+        }
+    }
+
     static void registerPose2dSchema() {
         registerStructSchemas("struct:Translation2d", "double x;double y");
         registerStructSchemas("struct:Rotation2d", "double value");
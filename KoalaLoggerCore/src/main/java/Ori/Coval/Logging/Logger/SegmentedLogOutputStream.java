@@ -0,0 +1,167 @@
+package Ori.Coval.Logging.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Splits a WPILOG record stream into numbered segment files, each a valid log on its own.
+ * <p>
+ * Record headers are parsed as the bytes pass through, so a segment is only ever cut between
+ * records. The start record of every open entry and the latest value of every struct schema are
+ * kept, and replayed at the head of each new segment so it opens without the earlier ones.
+ * <p>
+ * The incoming stream starts with the WPILOG file header, which is kept and written at the head of
+ * every segment. The first segment is only created once the header has been read.
+ */
+class SegmentedLogOutputStream extends OutputStream {
+
+    /**
+     * Creates the file for a segment.
+     */
+    interface SegmentOpener {
+        OutputStream open(int index) throws IOException;
+    }
+
+    private final SegmentOpener opener;
+    private final long maxBytes;
+    private final long maxMicros;
+    private final Runnable onRotate;
+
+    private OutputStream out;
+    private byte[] fileHeader;
+    private int index;
+    private long segmentBytes;
+    private long segmentStartTs;
+    private int segmentRecords;
+
+    private final ReplayState replay = new ReplayState();
+
+    // the incomplete record at the end of the last write
+    private byte[] pending = new byte[256];
+    private int pendingSize;
+
+    /**
+     * @param maxBytes  start a new segment before one would grow past this size; 0 for no limit
+     * @param maxMicros start a new segment once its records span this much log time; 0 for no limit
+     * @param onRotate  run after each new segment is opened, may be null
+     */
+    SegmentedLogOutputStream(SegmentOpener opener, long maxBytes, long maxMicros, Runnable onRotate)
+            throws IOException {
+        this.opener = opener;
+        this.maxBytes = maxBytes;
+        this.maxMicros = maxMicros;
+        this.onRotate = onRotate;
+    }
+
+    /**
+     * @return the index of the segment being written
+     */
+    int getSegmentIndex() {
+        return index;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (pendingSize > 0) {
+            appendPending(b, off, len);
+            int used = process(pending, 0, pendingSize);
+            System.arraycopy(pending, used, pending, 0, pendingSize - used);
+            pendingSize -= used;
+        } else {
+            int used = process(b, off, off + len) - off;
+            if (used < len) appendPending(b, off + used, len - used);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (out != null) out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out == null) return;
+        try {
+            // a torn record at the very end is still better on disk than lost
+            if (pendingSize > 0) out.write(pending, 0, pendingSize);
+            pendingSize = 0;
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Writes every complete record in {@code [off, end)}, rotating between records as needed.
+     *
+     * @return where the first incomplete record starts
+     */
+    private int process(byte[] b, int off, int end) throws IOException {
+        if (out == null) {
+            int headerLen = Utils.readHeader(b, off, end);
+            if (headerLen < 0) return off;
+            fileHeader = Arrays.copyOfRange(b, off, off + headerLen);
+            openSegment(0);
+            off += headerLen;
+        }
+        int runStart = off;
+        int p = off;
+        while (p < end) {
+            int bits = b[p] & 0xFF;
+            int idLen = (bits & 0x3) + 1;
+            int sizeLen = (bits >> 2 & 0x3) + 1;
+            int tsLen = (bits >> 4 & 0x7) + 1;
+            int headerLen = 1 + idLen + sizeLen + tsLen;
+            if (end - p < headerLen) break;
+
+            int id = (int) Utils.readLe(b, p + 1, idLen);
+            long size = Utils.readLe(b, p + 1 + idLen, sizeLen);
+            long ts = Utils.readLe(b, p + 1 + idLen + sizeLen, tsLen);
+            if (end - p < headerLen + size) break;
+            int recordLen = (int) (headerLen + size);
+
+            if (shouldRotate(recordLen, ts)) {
+                out.write(b, runStart, p - runStart);
+                runStart = p;
+                openSegment(index + 1);
+            }
+            if (segmentRecords++ == 0) segmentStartTs = ts;
+            segmentBytes += recordLen;
+            replay.track(b, p, headerLen, recordLen, id);
+            p += recordLen;
+        }
+        if (p > runStart) out.write(b, runStart, p - runStart);
+        return p;
+    }
+
+    private boolean shouldRotate(int recordLen, long ts) {
+        if (segmentRecords == 0) return false; // never leave a segment with only replayed records
+        return (maxBytes > 0 && segmentBytes + recordLen > maxBytes)
+                || (maxMicros > 0 && ts - segmentStartTs >= maxMicros);
+    }
+
+    private void openSegment(int newIndex) throws IOException {
+        if (out != null) out.close();
+        out = opener.open(newIndex);
+        index = newIndex;
+
+        out.write(fileHeader);
+        segmentBytes = fileHeader.length + replay.writeTo(out);
+        segmentRecords = 0;
+
+        if (newIndex > 0 && onRotate != null) onRotate.run();
+    }
+
+    private void appendPending(byte[] b, int off, int len) {
+        if (pendingSize + len > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(pendingSize + len, pending.length * 2));
+        }
+        System.arraycopy(b, off, pending, pendingSize, len);
+        pendingSize += len;
+    }
+}
@@ -0,0 +1,178 @@
+package Ori.Coval.Logging.Logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The logger's measurements of itself: counters and latency histograms updated on the logging
+ * path, and a background thread that writes them into the log under {@link #PREFIX}.
+ * <p>
+ * Everything here is preallocated, so measuring and emitting allocate nothing once running.
+ */
+final class SelfStats {
+    static final String PREFIX = "/.koala/stats/";
+
+    static volatile boolean enabled;
+    private static volatile long emitPeriodMillis;
+
+    static final AtomicLong records = new AtomicLong();
+    static final AtomicLong bytes = new AtomicLong();
+    static final LatencyRecorder encode = new LatencyRecorder();
+    static final LatencyRecorder write = new LatencyRecorder();
+    private static volatile long startNanos = System.nanoTime();
+
+    private static Emitter emitter;
+
+    private SelfStats() {
+    }
+
+    /**
+     * @param periodMillis how often to write the stats into the log, 0 to only count
+     */
+    static void enable(long periodMillis) {
+        if (periodMillis < 0) throw new IllegalArgumentException("periodMillis must not be negative");
+        emitPeriodMillis = periodMillis;
+        enabled = true;
+    }
+
+    static void disable() {
+        enabled = false;
+        emitPeriodMillis = 0;
+    }
+
+    /**
+     * Starts counting afresh for a new log.
+     */
+    static void reset() {
+        records.set(0);
+        bytes.set(0);
+        encode.reset();
+        write.reset();
+        startNanos = System.nanoTime();
+    }
+
+    static long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    static synchronized void startEmitting() {
+        long period = emitPeriodMillis;
+        if (!enabled || period <= 0 || emitter != null) return;
+        emitter = new Emitter(TimeUnit.MILLISECONDS.toNanos(period));
+    }
+
+    /**
+     * Stops the emitting thread and waits for it, so nothing is written once the log closes.
+     */
+    static synchronized void stopEmitting() {
+        if (emitter == null) return;
+        emitter.stop();
+        emitter = null;
+    }
+
+    private static final class Emitter implements Runnable {
+        private final long periodNanos;
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        private final DoubleEntry recordsPerSec = statsEntry("recordsPerSec", EntryType.DOUBLE);
+        private final DoubleEntry bytesPerSec = statsEntry("bytesPerSec", EntryType.DOUBLE);
+        private final LongEntry entryCount = statsEntry("entries", EntryType.LONG);
+        private final LongEntry dropped = statsEntry("droppedRecords", EntryType.LONG);
+        private final LongEntry highWater = statsEntry("bufferHighWaterBytes", EntryType.LONG);
+        private final LongArrayEntry encodeBuckets = statsEntry("encodeNanos", EntryType.LONG_ARRAY);
+        private final LongEntry encodeP99 = statsEntry("encodeP99Nanos", EntryType.LONG);
+        private final LongArrayEntry writeBuckets = statsEntry("writeNanos", EntryType.LONG_ARRAY);
+        private final LongEntry writeP99 = statsEntry("writeP99Nanos", EntryType.LONG);
+
+        // cumulative counts at the last emit, and this period's counts
+        private final long[] encodeLast = new long[LatencyRecorder.BUCKETS];
+        private final long[] encodePeriod = new long[LatencyRecorder.BUCKETS];
+        private final long[] writeLast = new long[LatencyRecorder.BUCKETS];
+        private final long[] writePeriod = new long[LatencyRecorder.BUCKETS];
+
+        Emitter(long periodNanos) {
+            this.periodNanos = periodNanos;
+            thread = new Thread(this, "KoalaLog-stats");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            thread.start();
+        }
+
+        @Override
+        public void run() {
+            long lastRecords = records.get();
+            long lastBytes = bytes.get();
+            long lastNanos = System.nanoTime();
+            encode.copyBuckets(encodeLast);
+            write.copyBuckets(writeLast);
+
+            while (running) {
+                long deadline = lastNanos + periodNanos;
+                long wait;
+                while (running && (wait = deadline - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (!running) return;
+
+                long now = System.nanoTime();
+                double seconds = (now - lastNanos) / 1e9;
+                long r = records.get();
+                long b = bytes.get();
+                recordsPerSec.append((r - lastRecords) / seconds);
+                bytesPerSec.append((b - lastBytes) / seconds);
+                entryCount.append(KoalaLogCore.entryCount());
+                dropped.append(KoalaLogCore.droppedRecords());
+                highWater.append(KoalaLogCore.bufferHighWaterBytes());
+                encodeP99.append(emitPeriod(encode, encodeLast, encodePeriod, encodeBuckets));
+                writeP99.append(emitPeriod(write, writeLast, writePeriod, writeBuckets));
+
+                lastRecords = r;
+                lastBytes = b;
+                lastNanos = now;
+            }
+        }
+
+        /**
+         * Logs the bucket counts of the period just ended.
+         *
+         * @return the period's 99th percentile bound
+         */
+        private static long emitPeriod(LatencyRecorder recorder, long[] last, long[] period, LongArrayEntry entry) {
+            recorder.copyBuckets(period);
+            long count = 0;
+            long max = 0;
+            for (int i = 0; i < LatencyRecorder.BUCKETS; i++) {
+                long cumulative = period[i];
+                period[i] = cumulative - last[i];
+                last[i] = cumulative;
+                count += period[i];
+                if (period[i] > 0) max = (2L << i) - 1;
+            }
+            entry.append(period);
+            return LatencyHistogram.percentile(period, count, 0.99, max);
+        }
+
+        void stop() {
+            running = false;
+            LockSupport.unpark(thread);
+            boolean interrupted = false;
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+
+        private static <E extends LogEntry> E statsEntry(String name, EntryType<E> type) {
+            E entry = KoalaLogCore.entry(PREFIX + name, type);
+            // each sample is new information, and skipping repeats would mean copying arrays
+            entry.setChangeOnly(false);
+            return entry;
+        }
+    }
+}
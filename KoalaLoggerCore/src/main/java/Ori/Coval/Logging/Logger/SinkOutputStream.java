@@ -0,0 +1,38 @@
+package Ori.Coval.Logging.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Adapts a {@link LogSink} to the stream the core writes to.
+ */
+class SinkOutputStream extends OutputStream {
+
+    private final LogSink sink;
+    private final byte[] single = new byte[1];
+
+    SinkOutputStream(LogSink sink) {
+        this.sink = sink;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        single[0] = (byte) b;
+        sink.write(single, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        sink.write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        sink.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        sink.close();
+    }
+}
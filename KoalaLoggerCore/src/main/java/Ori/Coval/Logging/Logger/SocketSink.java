@@ -0,0 +1,56 @@
+package Ori.Coval.Logging.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * Sends the log to a TCP server, e.g. a recorder on a laptop, as one WPILOG stream.
+ * <p>
+ * Writes block while the network is slow, so use it with async writing, or next to a file in
+ * {@link KoalaLogCore#setup(LogSink...)}, which carries on with the file if the connection drops.
+ * To let clients connect to the robot instead, see {@link KoalaLogCore#setLiveStreaming}.
+ */
+public final class SocketSink implements LogSink {
+
+    private static final int CONNECT_TIMEOUT_MS = 2_000;
+
+    private final Socket socket;
+    private final OutputStream out;
+
+    /**
+     * @throws IOException if the server cannot be reached
+     */
+    public SocketSink(String host, int port) throws IOException {
+        socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+            out = new BufferedOutputStream(socket.getOutputStream(), 1 << 16);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            out.flush();
+        } finally {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package Ori.Coval.Logging.Logger;
+
+/**
+ * Handle to a string[] entry.
+ */
+public class StringArrayEntry extends LogEntry {
+    // last written values, compared by content in change-only mode
+    private String[] last = new String[0];
+    private int lastLength;
+    // last posted values, formatted on the publisher thread
+    private final PostBuffer<String[]> posted = new PostBuffer<>(new String[0], new String[0], new String[0]);
+
+    StringArrayEntry(int id, String name, String type) {
+        super(id, name, type);
+    }
+
+    public void append(String[] values) {
+        long ts = KoalaLogCore.nowMicros();
+        if (isThrottled(ts)) return;
+        if (skipsRepeats()) {
+            if (isRepeat(sameAsLast(values), ts)) return;
+            remember(values);
+        }
+        beginWrite(ts);
+        KoalaLogCore.writeValue(id, values, ts);
+    }
+
+    public void append(String[] values, boolean post) {
+        append(values);
+        if (post) {
+            post(values);
+            markPosted();
+        }
+    }
+
+    private boolean sameAsLast(String[] values) {
+        if (values.length != lastLength) return false;
+        for (int i = 0; i < values.length; i++) {
+            if (!values[i].equals(last[i])) return false;
+        }
+        return true;
+    }
+
+    private void remember(String[] values) {
+        if (last.length < values.length) last = new String[values.length];
+        System.arraycopy(values, 0, last, 0, values.length);
+        lastLength = values.length;
+    }
+
+    private void post(String[] values) {
+        PostBuffer.Slot<String[]> slot = posted.writeSlot();
+        if (slot.values.length < values.length) slot.values = new String[values.length];
+        System.arraycopy(values, 0, slot.values, 0, values.length);
+        slot.length = values.length;
+        posted.publish();
+    }
+
+    @Override
+    Object dashboardValue() {
+        PostBuffer.Slot<String[]> slot = posted.readSlot();
+        return DashboardPublisher.format(slot.values, slot.length);
+    }
+}
@@ -0,0 +1,38 @@
+package Ori.Coval.Logging.Logger;
+
+/**
+ * Handle to a string entry.
+ */
+public class StringEntry extends LogEntry {
+    private String last;
+    // read by the publisher thread
+    private volatile String posted;
+
+    StringEntry(int id, String name, String type) {
+        super(id, name, type);
+    }
+
+    public void append(String value) {
+        long ts = KoalaLogCore.nowMicros();
+        if (isThrottled(ts)) return;
+        if (skipsRepeats()) {
+            if (isRepeat(value.equals(last), ts)) return;
+            last = value;
+        }
+        beginWrite(ts);
+        KoalaLogCore.writeValue(id, value, ts);
+    }
+
+    public void append(String value, boolean post) {
+        append(value);
+        if (post) {
+            posted = value;
+            markPosted();
+        }
+    }
+
+    @Override
+    Object dashboardValue() {
+        return posted;
+    }
+}
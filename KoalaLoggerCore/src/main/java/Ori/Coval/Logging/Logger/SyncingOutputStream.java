@@ -0,0 +1,142 @@
+package Ori.Coval.Logging.Logger;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounds how much of a log a power loss can take, by forcing the file to storage from a
+ * background thread once enough time has passed or enough bytes were written since the last time.
+ * <p>
+ * Writers only count bytes and, past the byte limit, wake the sync thread; they never wait on the
+ * disk. Only bytes that reached the file are covered, so a compressor above this stream still
+ * holds back whatever it has not emitted yet.
+ * <p>
+ * What a sync covers depends on the file below:
+ * <ul>
+ * <li>a plain file is forced through its channel, which stores its bytes and its length;</li>
+ * <li>a {@link MappedFileOutputStream} first has the pages of its mapped windows written back,
+ * as forcing the channel alone need not include them, then its channel forced. Its length then
+ * still runs to the end of the current chunk, so a power loss leaves zero padding after the last
+ * synced byte, which {@link LogRecovery} cuts off.</li>
+ * </ul>
+ * Either way, everything written before a sync began survives a power loss once it returns.
+ */
+class SyncingOutputStream extends FilterOutputStream {
+
+    private final FileChannel channel;
+    // null for a plain file
+    private final MappedFileOutputStream mapped;
+    private final long maxNanos;
+    private final long maxBytes;
+    private final Thread syncThread;
+
+    // written only by the writing thread
+    private volatile long written;
+    // written only by the sync thread
+    private volatile long synced;
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    /**
+     * @param channel   the channel of the file {@code out} writes to; a mapped {@code out} must
+     *                  have been opened to be forced
+     * @param maxMillis longest time unsynced bytes may wait, 0 for no limit
+     * @param maxBytes  most bytes that may wait unsynced, 0 for no limit
+     */
+    SyncingOutputStream(OutputStream out, FileChannel channel, long maxMillis, long maxBytes) {
+        super(out);
+        if (maxMillis <= 0 && maxBytes <= 0) throw new IllegalArgumentException("no sync limit set");
+        this.channel = channel;
+        this.mapped = out instanceof MappedFileOutputStream ? (MappedFileOutputStream) out : null;
+        this.maxNanos = TimeUnit.MILLISECONDS.toNanos(maxMillis);
+        this.maxBytes = maxBytes;
+
+        syncThread = new Thread(this::syncLoop, "KoalaLog-sync");
+        syncThread.setDaemon(true);
+        syncThread.setPriority(Thread.NORM_PRIORITY - 1);
+        syncThread.start();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        advance(1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        advance(len);
+    }
+
+    private void advance(int len) {
+        long w = written + len;
+        written = w;
+        if (maxBytes > 0 && w - synced >= maxBytes && w - len - synced < maxBytes) {
+            LockSupport.unpark(syncThread);
+        }
+    }
+
+    /**
+     * Forces out everything written, then closes the file.
+     *
+     * @throws IOException if this or any background sync failed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        LockSupport.unpark(syncThread);
+        try {
+            syncThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            out.flush();
+            if (written != synced) force();
+        } finally {
+            out.close();
+        }
+        if (failure != null) throw failure;
+    }
+
+    private void force() throws IOException {
+        if (mapped != null) {
+            mapped.force();
+        } else {
+            channel.force(false);
+        }
+    }
+
+    private void syncLoop() {
+        long lastSync = System.nanoTime();
+        while (!closed) {
+            if (maxNanos > 0) {
+                LockSupport.parkNanos(Math.max(lastSync + maxNanos - System.nanoTime(), 1));
+            } else {
+                LockSupport.park();
+            }
+            if (closed) return;
+
+            long w = written;
+            boolean due = (maxNanos > 0 && System.nanoTime() - lastSync >= maxNanos)
+                    || (maxBytes > 0 && w - synced >= maxBytes);
+            if (!due) continue;
+            if (w != synced) {
+                try {
+                    force();
+                } catch (IOException e) {
+                    // reported on close; the log itself keeps going
+                    failure = e;
+                }
+                synced = w;
+            }
+            lastSync = System.nanoTime();
+        }
+    }
+}
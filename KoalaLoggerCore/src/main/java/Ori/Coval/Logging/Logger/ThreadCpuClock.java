@@ -0,0 +1,43 @@
+package Ori.Coval.Logging.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Reads the CPU time of the calling thread where the JVM measures it, and elapsed time where it
+ * does not, as on Android, which has no {@code java.lang.management}.
+ */
+final class ThreadCpuClock {
+
+    // null where thread CPU time cannot be read
+    private static final ThreadMXBean THREADS = threads();
+
+    private ThreadCpuClock() {
+    }
+
+    /**
+     * @return whether {@link #nanos} reads CPU time rather than elapsed time
+     */
+    static boolean measuresCpu() {
+        return THREADS != null;
+    }
+
+    /**
+     * @return a reading in nanoseconds, only meaningful as the difference between two readings on
+     * the same thread
+     */
+    static long nanos() {
+        return THREADS != null ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    private static ThreadMXBean threads() {
+        try {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (!threads.isCurrentThreadCpuTimeSupported()) return null;
+            if (!threads.isThreadCpuTimeEnabled()) threads.setThreadCpuTimeEnabled(true);
+            return threads;
+        } catch (LinkageError | UnsupportedOperationException | SecurityException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package Ori.Coval.Logging.Logger;
+
+import java.util.Locale;
+
+/**
+ * Handle to a struct:Translation2d entry (two doubles).
+ */
+public class Translation2dEntry extends LogEntry {
+    private double lastX;
+    private double lastY;
+    // last posted x and y, formatted on the publisher thread
+    private final PostBuffer<double[]> posted = new PostBuffer<>(new double[2], new double[2], new double[2]);
+
+    Translation2dEntry(int id, String name, String type) {
+        super(id, name, type);
+    }
+
+    public void append(double x, double y) {
+        long ts = KoalaLogCore.nowMicros();
+        if (isThrottled(ts)) return;
+        if (skipsRepeats()) {
+            if (isRepeat(near(x, lastX) && near(y, lastY), ts)) return;
+            lastX = x;
+            lastY = y;
+        }
+        beginWrite(ts);
+        KoalaLogCore.writeTranslation2d(id, x, y, ts);
+    }
+
+    public void append(double x, double y, boolean post) {
+        append(x, y);
+        if (post) {
+            double[] slot = posted.writeSlot().values;
+            slot[0] = x;
+            slot[1] = y;
+            posted.publish();
+            markPosted();
+        }
+    }
+
+    @Override
+    Object dashboardValue() {
+        double[] translation = posted.readSlot().values;
+        return String.format(Locale.US, "x=%.2f,y=%.2f", translation[0], translation[1]);
+    }
+}
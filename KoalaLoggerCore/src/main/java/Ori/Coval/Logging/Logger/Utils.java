@@ -0,0 +1,145 @@
+package Ori.Coval.Logging.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class Utils {
+    /**
+     * @return the WPILOG file header: magic, version 1.0 and the extra header string
+     */
+    static byte[] fileHeader(String extra) {
+        byte[] eb = extra.getBytes(StandardCharsets.UTF_8);
+        byte[] header = new byte[6 + 2 + 4 + eb.length];
+        System.arraycopy("WPILOG".getBytes(StandardCharsets.US_ASCII), 0, header, 0, 6);
+        header[6] = 0x00;
+        header[7] = 0x01;
+        putLe32(header, 8, eb.length);
+        System.arraycopy(eb, 0, header, 12, eb.length);
+        return header;
+    }
+
+    static byte[] le16(short v) {
+        return new byte[]{(byte) v, (byte) (v >> 8)};
+    }
+
+    static byte[] le32(int v) {
+        return new byte[]{
+                (byte) v,
+                (byte) (v >> 8),
+                (byte) (v >> 16),
+                (byte) (v >> 24)
+        };
+    }
+
+    static byte[] le64(long v) {
+        return new byte[]{
+                (byte) v,
+                (byte) (v >> 8),
+                (byte) (v >> 16),
+                (byte) (v >> 24),
+                (byte) (v >> 32),
+                (byte) (v >> 40),
+                (byte) (v >> 48),
+                (byte) (v >> 56)
+        };
+    }
+
+    /**
+     * @return the length of the file header at {@code off}, or -1 if it is not complete yet
+     */
+    static int readHeader(byte[] b, int off, int end) throws IOException {
+        if (end - off < 12) return -1;
+        if (b[off] != 'W' || b[off + 1] != 'P' || b[off + 2] != 'I' || b[off + 3] != 'L'
+                || b[off + 4] != 'O' || b[off + 5] != 'G') {
+            throw new IOException("stream does not start with a WPILOG header");
+        }
+        long extraLen = readLe(b, off + 8, 4);
+        if (end - off < 12 + extraLen) return -1;
+        return (int) (12 + extraLen);
+    }
+
+    /**
+     * @return the {@code len}-byte little-endian value at {@code off}
+     */
+    static long readLe(byte[] b, int off, int len) {
+        long v = 0;
+        for (int i = 0; i < len; i++) {
+            v |= (b[off + i] & 0xFFL) << (i * 8);
+        }
+        return v;
+    }
+
+    static void putLe32(byte[] dst, int off, int v) {
+        dst[off] = (byte) v;
+        dst[off + 1] = (byte) (v >> 8);
+        dst[off + 2] = (byte) (v >> 16);
+        dst[off + 3] = (byte) (v >> 24);
+    }
+
+    static void putLe64(byte[] dst, int off, long v) {
+        dst[off] = (byte) v;
+        dst[off + 1] = (byte) (v >> 8);
+        dst[off + 2] = (byte) (v >> 16);
+        dst[off + 3] = (byte) (v >> 24);
+        dst[off + 4] = (byte) (v >> 32);
+        dst[off + 5] = (byte) (v >> 40);
+        dst[off + 6] = (byte) (v >> 48);
+        dst[off + 7] = (byte) (v >> 56);
+    }
+
+    /**
+     * @return the number of bytes {@code s} takes when encoded as UTF-8
+     */
+    static int utf8Length(String s) {
+        int len = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                len += 1;
+            } else if (c < 0x800) {
+                len += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                len += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                len += 1;
+            } else {
+                len += 3;
+            }
+        }
+        return len;
+    }
+
+    /**
+     * Encodes {@code s} as UTF-8 into {@code dst} without allocating.
+     * Unpaired surrogates are written as '?', matching {@link String#getBytes}.
+     *
+     * @return the offset just past the encoded bytes
+     */
+    static int putUtf8(byte[] dst, int off, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                dst[off++] = (byte) c;
+            } else if (c < 0x800) {
+                dst[off++] = (byte) (0xC0 | (c >> 6));
+                dst[off++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                dst[off++] = (byte) (0xF0 | (cp >> 18));
+                dst[off++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                dst[off++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                dst[off++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                dst[off++] = '?';
+            } else {
+                dst[off++] = (byte) (0xE0 | (c >> 12));
+                dst[off++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                dst[off++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return off;
+    }
+}
@@ -0,0 +1,19 @@
+package Ori.Coval.Logging;
+
+/**
+ * How the generated overrides of an {@link AutoLog} class's methods log what they return.
+ * Under {@link #LAST} and {@link #MIN_MAX_LAST} each overload gets its own entry: the first is
+ * {@code <method>}, the next {@code <method>2}, {@code <method>3} and so on.
+ */
+public enum MethodLogMode {
+    /** Write a record on every call. */
+    EVERY_CALL,
+    /** Keep the latest return value, and write it once per {@code toLog()} if the method was called. */
+    LAST,
+    /**
+     * Like {@link #LAST}, and also write the smallest and largest value returned since the last
+     * {@code toLog()}, as {@code <method>/min} and {@code <method>/max}. Methods that do not return
+     * a primitive number are logged as {@link #LAST}.
+     */
+    MIN_MAX_LAST
+}
@@ -0,0 +1,19 @@
+package Ori.Coval.Logging;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a logged field or method of an {@link AutoLog} class as an input: during a log replay its
+ * value is read from the recorded log instead of from hardware. On a class, every logged field
+ * and method of the class is an input.
+ * <p>
+ * Fields are set from the log before each replayed loop; methods return the recorded value
+ * instead of running. Everything else is recomputed and logged as usual.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target({ ElementType.TYPE, ElementType.FIELD, ElementType.METHOD })
+public @interface ReplayInput {
+}
@@ -0,0 +1,49 @@
+package Ori.Coval.Logging;
+
+/**
+ * Recorded values during a log replay, as of the loop being replayed.
+ * <p>
+ * Keys are entry names as logged, e.g. {@code Drive/leftVelocity}. Getters return the latest
+ * value recorded at or before the current replay time; check {@link #has} first, since a getter
+ * for a key with no value yet returns {@code false}, 0 or null.
+ */
+public interface ReplaySource {
+
+    /**
+     * @return whether the log has a value for {@code key} by the current replay time
+     */
+    boolean has(String key);
+
+    boolean getBoolean(String key);
+
+    long getLong(String key);
+
+    float getFloat(String key);
+
+    double getDouble(String key);
+
+    String getString(String key);
+
+    boolean[] getBooleanArray(String key);
+
+    long[] getLongArray(String key);
+
+    float[] getFloatArray(String key);
+
+    double[] getDoubleArray(String key);
+
+    String[] getStringArray(String key);
+
+    /**
+     * @return a logged {@code struct:Pose2d} as {@code {x, y, rotation}}
+     */
+    double[] getPose2d(String key);
+
+    default int[] getIntArray(String key) {
+        long[] values = getLongArray(key);
+        if (values == null) return null;
+        int[] ints = new int[values.length];
+        for (int i = 0; i < values.length; i++) ints[i] = (int) values[i];
+        return ints;
+    }
+}
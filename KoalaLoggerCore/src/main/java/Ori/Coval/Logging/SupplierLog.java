@@ -0,0 +1,70 @@
+package Ori.Coval.Logging;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+import Ori.Coval.Logging.Logger.EntryType;
+import Ori.Coval.Logging.Logger.KoalaLogCore;
+
+public class SupplierLog {
+    public static BooleanSupplier wrap(String name, BooleanSupplier s, boolean postToFtcDashboard) {
+        return () -> {
+            boolean v = s.getAsBoolean();
+            KoalaLogCore.entry(name, EntryType.BOOLEAN).append(v, postToFtcDashboard);
+            return v;
+        };
+    }
+    public static IntSupplier wrap(String name, IntSupplier s, boolean postToFtcDashboard) {
+        return () -> {
+            int v = s.getAsInt();
+            KoalaLogCore.entry(name, EntryType.LONG).append((long)v, postToFtcDashboard);
+            return v;
+        };
+    }
+    public static LongSupplier wrap(String name, LongSupplier s, boolean postToFtcDashboard) {
+        return () -> {
+            long v = s.getAsLong();
+            KoalaLogCore.entry(name, EntryType.LONG).append(v, postToFtcDashboard);
+            return v;
+        };
+    }
+    public static DoubleSupplier wrap(String name, DoubleSupplier s, boolean postToFtcDashboard) {
+        return () -> {
+            double v = s.getAsDouble();
+            KoalaLogCore.entry(name, EntryType.DOUBLE).append(v, postToFtcDashboard);
+            return v;
+        };
+    }
+
+    // catalog-ID variants, used by generated code
+    public static BooleanSupplier wrap(int catalogId, BooleanSupplier s, boolean postToFtcDashboard) {
+        return () -> {
+            boolean v = s.getAsBoolean();
+            KoalaLogCore.logById(catalogId, v, postToFtcDashboard);
+            return v;
+        };
+    }
+    public static IntSupplier wrap(int catalogId, IntSupplier s, boolean postToFtcDashboard) {
+        return () -> {
+            int v = s.getAsInt();
+            KoalaLogCore.logById(catalogId, (long)v, postToFtcDashboard);
+            return v;
+        };
+    }
+    public static LongSupplier wrap(int catalogId, LongSupplier s, boolean postToFtcDashboard) {
+        return () -> {
+            long v = s.getAsLong();
+            KoalaLogCore.logById(catalogId, v, postToFtcDashboard);
+            return v;
+        };
+    }
+    public static DoubleSupplier wrap(int catalogId, DoubleSupplier s, boolean postToFtcDashboard) {
+        return () -> {
+            double v = s.getAsDouble();
+            KoalaLogCore.logById(catalogId, v, postToFtcDashboard);
+            return v;
+        };
+    }
+}
\ No newline at end of file
@@ -0,0 +1,90 @@
+package Ori.Coval.Logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Checks that logging allocates nothing once warmed up, so a robot loop never feeds the garbage
+ * collector. Counts the bytes the calling thread allocates while it logs.
+ */
+public class AllocationTest {
+
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 100_000;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private DoubleEntry value;
+    private LongArrayEntry array;
+    private BooleanEntry flag;
+    private final long[] values = new long[8];
+
+    @After
+    public void tearDown() {
+        KoalaLogCore.shutdown();
+        KoalaLogCore.disableAsyncWriting();
+        KoalaLogCore.setChangeOnlyLogging(false, 1000);
+    }
+
+    @Test
+    public void syncWritingAllocatesNothing() {
+        KoalaLogCore.setup(new NullSink());
+        assertEquals(0, allocatedBytes(false));
+    }
+
+    @Test
+    public void asyncWritingAllocatesNothing() {
+        KoalaLogCore.setAsyncWriting(1 << 16, OverflowPolicy.BLOCK);
+        KoalaLogCore.setup(new NullSink());
+        assertEquals(0, allocatedBytes(false));
+    }
+
+    @Test
+    public void framesAllocateNothing() {
+        KoalaLogCore.setAsyncWriting(1 << 16, OverflowPolicy.BLOCK);
+        KoalaLogCore.setup(new NullSink());
+        assertEquals(0, allocatedBytes(true));
+    }
+
+    @Test
+    public void changeOnlyLoggingAllocatesNothing() {
+        KoalaLogCore.setChangeOnlyLogging(true, 100);
+        KoalaLogCore.setup(new NullSink());
+        assertEquals(0, allocatedBytes(false));
+    }
+
+    /**
+     * @return the bytes allocated by {@link #ITERATIONS} loops after {@link #WARMUP} of them
+     */
+    private long allocatedBytes(boolean frames) {
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        value = KoalaLogCore.entry("Test/value", EntryType.DOUBLE);
+        array = KoalaLogCore.entry("Test/array", EntryType.LONG_ARRAY);
+        flag = KoalaLogCore.entry("Test/flag", EntryType.BOOLEAN);
+
+        loop(WARMUP, frames);
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        loop(ITERATIONS, frames);
+        return threads.getThreadAllocatedBytes(thread) - before;
+    }
+
+    private void loop(int iterations, boolean frames) {
+        for (int i = 0; i < iterations; i++) {
+            if (frames) KoalaLogCore.beginFrame();
+            // the value changes every loop and the rest only now and then, for change-only logging
+            value.append(i);
+            values[i & 7] = i >> 10;
+            array.append(values);
+            flag.append((i & 1024) != 0);
+            if (frames) KoalaLogCore.endFrame();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package Ori.Coval.Logging.Logger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class AsyncLogWriterTest {
+
+    private static final long NOW = 1_000_000;
+
+    /**
+     * A record too large for a lane is handed to the writer once the lane is empty. With a clock
+     * that does not move, as in a replay, the lane must still drain.
+     */
+    @Test(timeout = 10_000)
+    public void oversizedRecordIsWrittenWhileTheClockStandsStill() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AsyncLogWriter writer = new AsyncLogWriter(out, 4096, OverflowPolicy.BLOCK, () -> NOW, 20_000);
+        byte[] small = record(1, 8);
+        byte[] large = record(2, 16_000);
+
+        for (int i = 0; i < 5; i++) {
+            writer.write(small, 0, small.length, NOW, false);
+        }
+        writer.write(large, 0, large.length, NOW, false);
+        // the large write only returns once it is out, behind the records before it
+        byte[] written = out.toByteArray();
+        assertEquals(5 * small.length + large.length, written.length);
+        assertArrayEquals(large, Arrays.copyOfRange(written, 5 * small.length, written.length));
+
+        writer.close();
+        assertEquals(5 * small.length + large.length, out.size());
+    }
+
+    private static byte[] record(int id, int size) {
+        RecordBuffer buf = new RecordBuffer(64);
+        int p = buf.beginRecord(id, size, NOW);
+        for (int i = 0; i < size; i++) {
+            buf.data[p + i] = (byte) i;
+        }
+        return Arrays.copyOf(buf.data, buf.size);
+    }
+}
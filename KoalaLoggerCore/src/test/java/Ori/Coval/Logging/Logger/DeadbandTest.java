@@ -0,0 +1,59 @@
+package Ori.Coval.Logging.Logger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import Ori.Coval.Logging.Reader.LogRecord;
+import Ori.Coval.Logging.Reader.WpiLogReader;
+
+public class DeadbandTest {
+
+    private File file;
+
+    @After
+    public void tearDown() {
+        KoalaLogCore.shutdown();
+        if (file != null) file.delete();
+    }
+
+    /**
+     * Longs whose difference overflows are never taken to be within the deadband of each other.
+     */
+    @Test
+    public void longsFarApartAreWritten() throws IOException {
+        file = File.createTempFile("deadband", ".wpilog");
+        KoalaLogCore.disableAsyncWriting();
+        KoalaLogCore.setup(new FileOutputStream(file));
+        LongEntry single = KoalaLogCore.entry("Test/long", EntryType.LONG);
+        LongArrayEntry array = KoalaLogCore.entry("Test/longs", EntryType.LONG_ARRAY);
+        single.setDeadband(1);
+        array.setDeadband(1);
+
+        long[] appended = {0, 1, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1, Long.MAX_VALUE - 1};
+        for (long value : appended) {
+            single.append(value);
+            array.append(new long[]{value});
+        }
+        KoalaLogCore.shutdown();
+
+        long[] written = {0, Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE - 1};
+        try (WpiLogReader reader = WpiLogReader.open(file)) {
+            List<LogRecord> singles = reader.getRecords(reader.getEntry("Test/long"));
+            List<LogRecord> arrays = reader.getRecords(reader.getEntry("Test/longs"));
+            assertEquals(written.length, singles.size());
+            assertEquals(written.length, arrays.size());
+            for (int i = 0; i < written.length; i++) {
+                assertEquals(written[i], singles.get(i).getLong());
+                assertArrayEquals(new long[]{written[i]}, arrays.get(i).getLongArray());
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package Ori.Coval.Logging.Logger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class FanOutSinkTest {
+
+    /**
+     * Fails from its {@code failAt}-th write on, and remembers being closed.
+     */
+    private static final class FailingSink implements LogSink {
+        final int failAt;
+        int writes;
+        boolean closed;
+
+        FailingSink(int failAt) {
+            this.failAt = failAt;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (closed) throw new IOException("written after close");
+            if (++writes >= failAt) throw new IOException("sink " + failAt + " failed");
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    @Test
+    public void failingSinkIsClosedAndDropped() throws IOException {
+        MemorySink first = new MemorySink();
+        FailingSink failing = new FailingSink(2);
+        MemorySink last = new MemorySink();
+        FanOutSink fanOut = new FanOutSink(new LogSink[]{first, failing, last});
+
+        byte[] data = {1, 2, 3, 4, 5, 6};
+        for (int off = 0; off < data.length; off += 2) {
+            fanOut.write(data, off, 2);
+        }
+        fanOut.flush();
+
+        assertTrue(failing.closed);
+        assertEquals(2, failing.writes);
+        assertArrayEquals(data, first.toByteArray());
+        assertArrayEquals(data, last.toByteArray());
+        fanOut.close();
+    }
+
+    @Test
+    public void writeFailsOnceEverySinkHas() throws IOException {
+        FailingSink early = new FailingSink(1);
+        FailingSink late = new FailingSink(2);
+        FanOutSink fanOut = new FanOutSink(new LogSink[]{early, late});
+
+        fanOut.write(new byte[1], 0, 1);
+        try {
+            fanOut.write(new byte[1], 0, 1);
+            fail("every sink has failed");
+        } catch (IOException e) {
+            assertEquals("sink 2 failed", e.getMessage());
+        }
+        assertTrue(early.closed && late.closed);
+    }
+}
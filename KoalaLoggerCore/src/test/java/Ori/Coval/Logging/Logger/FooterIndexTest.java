@@ -0,0 +1,139 @@
+package Ori.Coval.Logging.Logger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import Ori.Coval.Logging.Reader.EntryInfo;
+import Ori.Coval.Logging.Reader.LogRecord;
+import Ori.Coval.Logging.Reader.WpiLogReader;
+
+/**
+ * Opens the same log once from its footer index and once by scanning it, and expects the same
+ * entries and records either way.
+ */
+public class FooterIndexTest {
+
+    private File indexed;
+    private File scanned;
+
+    @After
+    public void tearDown() {
+        if (indexed != null) indexed.delete();
+        if (scanned != null) scanned.delete();
+    }
+
+    @Test
+    public void indexMatchesScan() throws IOException {
+        byte[] log = log();
+        indexed = File.createTempFile("indexed", ".wpilog");
+        scanned = File.createTempFile("scanned", ".wpilog");
+        try (OutputStream out = new FooterIndexOutputStream(new FileOutputStream(indexed))) {
+            // odd chunks, so record headers and control payloads are split between writes
+            for (int off = 0; off < log.length; off += 7) {
+                out.write(log, off, Math.min(7, log.length - off));
+            }
+        }
+        try (OutputStream out = new FileOutputStream(scanned)) {
+            out.write(log);
+        }
+
+        try (WpiLogReader fromIndex = WpiLogReader.open(indexed);
+             WpiLogReader fromScan = WpiLogReader.open(scanned)) {
+            assertTrue(fromIndex.hasFooterIndex());
+            assertFalse(fromScan.hasFooterIndex());
+
+            List<EntryInfo> expected = fromScan.getEntries();
+            List<EntryInfo> actual = fromIndex.getEntries();
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                EntryInfo e = expected.get(i);
+                EntryInfo a = actual.get(i);
+                assertEquals(e.getId(), a.getId());
+                assertEquals(e.getName(), a.getName());
+                assertEquals(e.getType(), a.getType());
+                assertEquals(e.getMetadata(), a.getMetadata());
+                assertEquals(e.getName(), e.isFinished(), a.isFinished());
+                assertRecordsEqual(fromScan.getRecords(e), fromIndex.getRecords(a));
+                assertRecordsEqual(fromScan.getRecords(e, 150, 450), fromIndex.getRecords(a, 150, 450));
+            }
+            assertEquals(3, expected.size());
+            assertTrue(expected.get(0).isFinished());
+            assertEquals(expected.get(0).getId(), expected.get(2).getId());
+            // still in file order after a time range has sorted the entry
+            assertEquals(150, fromIndex.getRecords(actual.get(1)).get(10).getTimestamp());
+        }
+    }
+
+    private static void assertRecordsEqual(List<LogRecord> expected, List<LogRecord> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getTimestamp(), actual.get(i).getTimestamp());
+            assertArrayEquals(expected.get(i).getRaw(), actual.get(i).getRaw());
+        }
+    }
+
+    /**
+     * Two entries, the first finished and its ID then reused by a third, one record out of time
+     * order, and a record too large for a one-byte size field.
+     */
+    private static byte[] log() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(Utils.fileHeader("extra header"));
+        out.write(start(1, "Test/first", "int64", "", 10));
+        out.write(start(2, "Test/second", "double", "{\"source\":\"test\"}", 10));
+        for (int i = 0; i < 20; i++) {
+            out.write(record(1 + i % 2, i, 100 + 20 * i));
+        }
+        out.write(record(2, 99, 150));
+        out.write(finish(1, 500));
+        out.write(start(1, "Test/reused", "raw", "", 510));
+        out.write(record(1, 1000, 520));
+        out.write(record(2, 7, 530));
+        return out.toByteArray();
+    }
+
+    private static byte[] record(int id, int size, long ts) {
+        RecordBuffer buf = new RecordBuffer(64);
+        int p = buf.beginRecord(id, Math.max(size, 8), ts);
+        for (int i = 0; i < Math.max(size, 8); i++) buf.data[p + i] = (byte) (size + i);
+        return Arrays.copyOf(buf.data, buf.size);
+    }
+
+    private static byte[] start(int id, String name, String type, String metadata, long ts) {
+        int nameLen = Utils.utf8Length(name);
+        int typeLen = Utils.utf8Length(type);
+        int metaLen = Utils.utf8Length(metadata);
+        RecordBuffer buf = new RecordBuffer(64);
+        int p = buf.beginRecord(0, 1 + 4 + 4 + nameLen + 4 + typeLen + 4 + metaLen, ts);
+        buf.data[p] = 0;
+        Utils.putLe32(buf.data, p + 1, id);
+        Utils.putLe32(buf.data, p + 5, nameLen);
+        p = Utils.putUtf8(buf.data, p + 9, name);
+        Utils.putLe32(buf.data, p, typeLen);
+        p = Utils.putUtf8(buf.data, p + 4, type);
+        Utils.putLe32(buf.data, p, metaLen);
+        Utils.putUtf8(buf.data, p + 4, metadata);
+        return Arrays.copyOf(buf.data, buf.size);
+    }
+
+    private static byte[] finish(int id, long ts) {
+        RecordBuffer buf = new RecordBuffer(64);
+        int p = buf.beginRecord(0, 5, ts);
+        buf.data[p] = 1;
+        Utils.putLe32(buf.data, p + 1, id);
+        return Arrays.copyOf(buf.data, buf.size);
+    }
+}
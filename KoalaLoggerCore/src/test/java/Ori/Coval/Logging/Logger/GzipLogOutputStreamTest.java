@@ -0,0 +1,107 @@
+package Ori.Coval.Logging.Logger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GzipLogOutputStreamTest {
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("gzip").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        KoalaLogCore.shutdown();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) f.delete();
+        }
+        dir.delete();
+    }
+
+    /**
+     * A log gzipped as it is written decompresses to the bytes that were logged, and its stats
+     * count both sides.
+     */
+    @Test
+    public void streamedLogRoundTrips() throws IOException {
+        byte[] log = log();
+        File gz = new File(dir, "streamed.wpilog.gz");
+        GzipLogOutputStream out = new GzipLogOutputStream(new FileOutputStream(gz), 6, null);
+        for (int off = 0; off < log.length; off += 1000) {
+            out.write(log, off, Math.min(1000, log.length - off));
+        }
+        out.close();
+
+        assertArrayEquals(log, gunzip(gz));
+        CompressionStats stats = out.getStats();
+        assertEquals(log.length, stats.getInputBytes());
+        assertEquals(gz.length(), stats.getOutputBytes());
+        assertTrue(stats.getRatio() > 2);
+        assertTrue(stats.getCompressNanos() > 0);
+    }
+
+    /**
+     * A closed log is replaced by a gzipped copy that decompresses to it.
+     */
+    @Test
+    public void closedLogRoundTrips() throws IOException {
+        byte[] log = log();
+        File f = new File(dir, "closed.wpilog");
+        try (FileOutputStream out = new FileOutputStream(f)) {
+            out.write(log);
+        }
+
+        CompressionStats stats = LogCompressor.gzip(f, 9);
+        assertNotNull(stats);
+        File gz = new File(dir, "closed.wpilog.gz");
+        assertFalse(f.exists());
+        assertArrayEquals(log, gunzip(gz));
+        assertEquals(log.length, stats.getInputBytes());
+        assertEquals(gz.length(), stats.getOutputBytes());
+    }
+
+    /**
+     * @return a sync-written log of one entry, with values that change slowly, as sensor values do
+     */
+    private byte[] log() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        KoalaLogCore.disableAsyncWriting();
+        KoalaLogCore.setup(bytes);
+        KoalaLogCore.startEntry(0x1234, "Test/value", "int64", "", 0);
+        for (int i = 0; i < 20_000; i++) {
+            KoalaLogCore.writeRecord(0x1234, Utils.le64(i / 10), 1000L * i);
+        }
+        KoalaLogCore.shutdown();
+        return bytes.toByteArray();
+    }
+
+    private static byte[] gunzip(File gz) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(new FileInputStream(gz))) {
+            byte[] buf = new byte[8192];
+            int n;
+            while ((n = in.read(buf)) > 0) out.write(buf, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
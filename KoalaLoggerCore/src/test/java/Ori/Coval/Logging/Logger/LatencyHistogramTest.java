@@ -0,0 +1,61 @@
+package Ori.Coval.Logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    /**
+     * 90 fast, 9 slow and 1 very slow operation: each percentile is the top of the bucket it falls
+     * in, and never above the maximum.
+     */
+    @Test
+    public void percentilesAreBucketTops() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (int i = 0; i < 90; i++) recorder.record(1_000);
+        for (int i = 0; i < 9; i++) recorder.record(100_000);
+        recorder.record(5_000_000);
+        LatencyHistogram histogram = recorder.snapshot();
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(90 * 1_000 + 9 * 100_000 + 5_000_000, histogram.getTotalNanos());
+        assertEquals(5_000_000, histogram.getMaxNanos());
+        assertEquals(59_900, histogram.getMeanNanos(), 0);
+
+        long[] buckets = histogram.getBucketCounts();
+        assertEquals(90, buckets[9]); // 512 to 1023
+        assertEquals(9, buckets[16]); // 65536 to 131071
+        assertEquals(1, buckets[22]); // 4194304 to 8388607
+
+        assertEquals(1_023, histogram.getPercentileNanos(0.5));
+        assertEquals(1_023, histogram.getPercentileNanos(0.9));
+        assertEquals(131_071, histogram.getPercentileNanos(0.91));
+        assertEquals(131_071, histogram.getPercentileNanos(0.99));
+        assertEquals(5_000_000, histogram.getPercentileNanos(1));
+    }
+
+    @Test
+    public void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyRecorder().snapshot();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMeanNanos(), 0);
+        assertEquals(0, histogram.getPercentileNanos(0.99));
+    }
+
+    @Test
+    public void extremesLandInTheEndBuckets() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.record(-5);
+        recorder.record(0);
+        recorder.record(1);
+        recorder.record(Long.MAX_VALUE / 2);
+        LatencyHistogram histogram = recorder.snapshot();
+
+        long[] buckets = histogram.getBucketCounts();
+        assertEquals(3, buckets[0]);
+        assertEquals(1, buckets[LatencyRecorder.BUCKETS - 1]);
+        assertEquals(1, histogram.getPercentileNanos(0.75));
+        assertEquals(Long.MAX_VALUE / 2, histogram.getPercentileNanos(1));
+    }
+}
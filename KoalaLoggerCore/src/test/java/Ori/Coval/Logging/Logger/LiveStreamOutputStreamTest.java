@@ -0,0 +1,209 @@
+package Ori.Coval.Logging.Logger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class LiveStreamOutputStreamTest {
+
+    private static final int ENTRY = 1;
+
+    private final ByteArrayOutputStream file = new ByteArrayOutputStream();
+    private LiveStreamOutputStream live;
+    private Socket socket;
+    private long next;
+
+    @After
+    public void tearDown() throws IOException {
+        if (socket != null) socket.close();
+        if (live != null) live.close();
+    }
+
+    /**
+     * A client that connects mid-log gets the file header and the start of the open entry, then
+     * every record from the one it joined on.
+     */
+    @Test(timeout = 10_000)
+    public void clientGetsHeaderReplayThenRecords() throws IOException {
+        live = new LiveStreamOutputStream(file, 0, 1 << 20);
+        live.write(Utils.fileHeader(""));
+        live.write(start(ENTRY, "Test/value", "int64"));
+        for (int i = 0; i < 10; i++) live.write(record(8));
+
+        connect(1 << 16);
+        for (int i = 0; i < 50; i++) live.write(record(8));
+
+        Stream stream = new Stream();
+        stream.readUntil(next - 1);
+        assertEquals(1, stream.starts());
+        assertEquals(0, stream.records.get(0)[0]);
+        assertConsecutive(stream.values, next - 1);
+        assertTrue(stream.values.get(0) >= 10);
+        assertEquals(0, live.getDroppedBytes());
+    }
+
+    /**
+     * A client that stops reading loses whole records, then once it has caught up is sent the
+     * start of the open entry again before the records carry on.
+     */
+    @Test(timeout = 30_000)
+    public void slowClientIsDroppedThenResynced() throws IOException {
+        live = new LiveStreamOutputStream(file, 0, 8192);
+        live.write(Utils.fileHeader(""));
+        live.write(start(ENTRY, "Test/value", "int64"));
+        connect(4096);
+
+        // the client reads nothing while far more than the socket buffers can hold is written
+        for (int i = 0; i < 20_000; i++) live.write(record(1000));
+        assertTrue(live.getDroppedBytes() > 0);
+
+        Stream stream = new Stream();
+        while (stream.starts() < 2 || stream.values.isEmpty()
+                || stream.values.get(stream.values.size() - 1) != next - 1) {
+            live.write(record(1000));
+            stream.readAvailable();
+            sleep();
+        }
+
+        // the records after the second start are unbroken up to the last one written
+        int resync = stream.values.size();
+        for (int i = stream.records.size() - 1; stream.records.get(i)[0] != 0; i--) resync--;
+        assertConsecutive(stream.values.subList(resync, stream.values.size()), next - 1);
+        assertTrue(stream.values.get(resync) > stream.values.get(resync - 1) + 1);
+    }
+
+    private void connect(int receiveBuffer) throws IOException {
+        socket = new Socket();
+        socket.setReceiveBufferSize(receiveBuffer);
+        socket.connect(new InetSocketAddress("127.0.0.1", live.getPort()));
+        // the client joins on the first write after it is accepted
+        while (socket.getInputStream().available() == 0) {
+            live.write(record(8));
+            sleep();
+        }
+    }
+
+    private static void assertConsecutive(List<Long> values, long last) {
+        assertTrue(!values.isEmpty());
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(last - (values.size() - 1) + i, (long) values.get(i));
+        }
+    }
+
+    /**
+     * @return a record of entry {@link #ENTRY} carrying the next value, padded to {@code size}
+     */
+    private byte[] record(int size) {
+        RecordBuffer buf = new RecordBuffer(64);
+        int p = buf.beginRecord(ENTRY, size, next);
+        Utils.putLe64(buf.data, p, next++);
+        return Arrays.copyOf(buf.data, buf.size);
+    }
+
+    private static byte[] start(int id, String name, String type) {
+        int nameLen = Utils.utf8Length(name);
+        int typeLen = Utils.utf8Length(type);
+        RecordBuffer buf = new RecordBuffer(64);
+        int p = buf.beginRecord(0, 1 + 4 + 4 + nameLen + 4 + typeLen + 4, 0);
+        buf.data[p] = 0;
+        Utils.putLe32(buf.data, p + 1, id);
+        Utils.putLe32(buf.data, p + 5, nameLen);
+        p = Utils.putUtf8(buf.data, p + 9, name);
+        Utils.putLe32(buf.data, p, typeLen);
+        p = Utils.putUtf8(buf.data, p + 4, type);
+        Utils.putLe32(buf.data, p, 0);
+        return Arrays.copyOf(buf.data, buf.size);
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * What the client has received, checked to be the file header followed by whole records.
+     */
+    private final class Stream {
+        // control records keep their payload; data records are only counted through their value
+        final List<byte[]> records = new ArrayList<>();
+        final List<Long> values = new ArrayList<>();
+        private byte[] bytes = new byte[1 << 16];
+        private int size;
+        private boolean headerRead;
+
+        void readUntil(long last) throws IOException {
+            while (values.isEmpty() || values.get(values.size() - 1) != last) {
+                fill(true);
+            }
+        }
+
+        void readAvailable() throws IOException {
+            while (socket.getInputStream().available() > 0) fill(false);
+        }
+
+        int starts() {
+            int n = 0;
+            for (byte[] r : records) {
+                if (r[0] == 0) n++;
+            }
+            return n;
+        }
+
+        private void fill(boolean block) throws IOException {
+            InputStream in = socket.getInputStream();
+            if (size == bytes.length) bytes = Arrays.copyOf(bytes, size * 2);
+            int n = in.read(bytes, size, block ? bytes.length - size : Math.min(in.available(), bytes.length - size));
+            if (n < 0) throw new IOException("the stream ended");
+            size += n;
+            parse();
+        }
+
+        private void parse() {
+            int p = 0;
+            if (!headerRead) {
+                byte[] header = Utils.fileHeader("");
+                if (size < header.length) return;
+                assertArrayEquals(header, Arrays.copyOf(bytes, header.length));
+                p = header.length;
+                headerRead = true;
+            }
+            while (p < size) {
+                int bits = bytes[p] & 0xFF;
+                int idLen = (bits & 0x3) + 1;
+                int sizeLen = (bits >> 2 & 0x3) + 1;
+                int headerLen = 1 + idLen + sizeLen + (bits >> 4 & 0x7) + 1;
+                if (size - p < headerLen) break;
+                int id = (int) Utils.readLe(bytes, p + 1, idLen);
+                int length = (int) Utils.readLe(bytes, p + 1 + idLen, sizeLen);
+                if (size - p < headerLen + length) break;
+                int payload = p + headerLen;
+                if (id == 0) {
+                    records.add(Arrays.copyOfRange(bytes, payload, payload + length));
+                } else {
+                    assertEquals(ENTRY, id);
+                    records.add(new byte[]{1});
+                    values.add(Utils.readLe(bytes, payload, 8));
+                }
+                p = payload + length;
+            }
+            // keep only the incomplete record at the end
+            System.arraycopy(bytes, p, bytes, 0, size - p);
+            size -= p;
+        }
+    }
+}
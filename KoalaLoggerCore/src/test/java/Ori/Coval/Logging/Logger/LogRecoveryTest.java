@@ -0,0 +1,118 @@
+package Ori.Coval.Logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import Ori.Coval.Logging.Reader.LogRecord;
+import Ori.Coval.Logging.Reader.WpiLogReader;
+
+public class LogRecoveryTest {
+
+    private static final int ENTRY = 0x1234;
+    private static final int RECORDS = 100;
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("recovery").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        KoalaLogCore.shutdown();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) f.delete();
+        }
+        dir.delete();
+    }
+
+    /**
+     * A log cut off inside its last record is cut back to the record before, and is intact from
+     * then on.
+     */
+    @Test
+    public void truncatedLogIsCutAfterLastCompleteRecord() throws IOException {
+        File log = new File(dir, "cut.wpilog");
+        write(log);
+        long complete = log.length();
+        try (RandomAccessFile raf = new RandomAccessFile(log, "rw")) {
+            raf.setLength(complete - 3);
+        }
+
+        assertTrue(LogRecovery.recover(log));
+        assertValues(log, RECORDS - 1);
+        assertEquals(complete - recordLength(RECORDS - 1), log.length());
+        assertFalse(LogRecovery.recover(log));
+    }
+
+    /**
+     * A memory-mapped log lost to a power cut ends in the zero padding of its last chunk, after
+     * the bytes that were forced to storage.
+     */
+    @Test
+    public void mappedLogIsCutBeforeItsPadding() throws IOException {
+        File log = new File(dir, "mapped.wpilog");
+        File survived = new File(dir, "survived.wpilog");
+        MappedFileOutputStream out = new MappedFileOutputStream(log, 1024, true);
+        KoalaLogCore.disableAsyncWriting();
+        KoalaLogCore.setup(out);
+        KoalaLogCore.startEntry(ENTRY, "Test/value", "int64", "", 0);
+        for (int i = 0; i < RECORDS; i++) {
+            KoalaLogCore.writeRecord(ENTRY, Utils.le64(i), 1000 + i);
+            // forced across chunk boundaries, as the sync thread would
+            if (i % 30 == 0) out.force();
+        }
+        out.force();
+        long forced = out.position();
+        // what storage holds now: the whole last chunk, padding included
+        Files.copy(log.toPath(), survived.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        KoalaLogCore.shutdown();
+        assertEquals(0, survived.length() % 1024);
+
+        assertTrue(LogRecovery.recover(survived));
+        assertEquals(forced, survived.length());
+        assertValues(survived, RECORDS);
+    }
+
+    private static void write(File log) throws IOException {
+        KoalaLogCore.disableAsyncWriting();
+        KoalaLogCore.setup(new FileOutputStream(log));
+        KoalaLogCore.startEntry(ENTRY, "Test/value", "int64", "", 0);
+        for (int i = 0; i < RECORDS; i++) {
+            KoalaLogCore.writeRecord(ENTRY, Utils.le64(i), 1000 + i);
+        }
+        KoalaLogCore.shutdown();
+    }
+
+    private static void assertValues(File log, int count) throws IOException {
+        try (WpiLogReader reader = WpiLogReader.open(log)) {
+            List<LogRecord> records = reader.getRecords(reader.getEntry("Test/value"));
+            assertEquals(count, records.size());
+            for (int i = 0; i < count; i++) {
+                assertEquals(1000 + i, records.get(i).getTimestamp());
+                assertEquals(i, records.get(i).getLong());
+            }
+        }
+    }
+
+    private static int recordLength(int i) {
+        RecordBuffer buf = new RecordBuffer(64);
+        buf.beginRecord(ENTRY, 8, 1000 + i);
+        return buf.size;
+    }
+}
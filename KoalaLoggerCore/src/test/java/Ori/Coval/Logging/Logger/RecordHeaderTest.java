@@ -0,0 +1,111 @@
+package Ori.Coval.Logging.Logger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import Ori.Coval.Logging.Reader.EntryInfo;
+import Ori.Coval.Logging.Reader.LogRecord;
+import Ori.Coval.Logging.Reader.WpiLogReader;
+
+/**
+ * Round-trips records whose entry ID, size and timestamp sit on each side of the points where
+ * their header fields grow by a byte.
+ */
+public class RecordHeaderTest {
+
+    private static final int[] IDS = {0xFF, 0x100, 0xFFFF, 0x10000, 0xFFFFFF, 0x1000000, Integer.MAX_VALUE};
+    private static final int[] SIZES = {0, 1, 0xFF, 0x100, 0xFFFF, 0x10000, 0xFFFFFF, 0x1000000};
+    private static final long[] TIMESTAMPS = {
+            0, 0xFF, 0x100, 0xFFFF, 0x10000, 0xFFFFFF, 0x1000000, 0xFFFFFFFFL, 0x100000000L,
+            0xFFFFFFFFFFL, 0x10000000000L, 0xFFFFFFFFFFFFL, 0x1000000000000L,
+            0xFFFFFFFFFFFFFFL, 0x100000000000000L, Long.MAX_VALUE};
+
+    // the entries of the size and timestamp records, clear of the IDs under test and of the
+    // IDs the registry hands out
+    private static final int SIZE_ENTRY = 0x1234;
+    private static final int TIMESTAMP_ENTRY = 0x1235;
+
+    private File file;
+
+    @After
+    public void tearDown() {
+        KoalaLogCore.shutdown();
+        if (file != null) file.delete();
+    }
+
+    @Test
+    public void fieldLengthsGrowAtByteBoundaries() {
+        long[] values = {0, 0xFF, 0x100, 0xFFFF, 0x10000, 0xFFFFFF, 0x1000000, Long.MAX_VALUE, -1};
+        int[] lengths = {1, 1, 2, 2, 3, 3, 4, 8, 8};
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(Long.toHexString(values[i]), lengths[i], RecordBuffer.byteLength(values[i]));
+        }
+    }
+
+    @Test
+    public void boundaryRecordsReadBack() throws IOException {
+        file = File.createTempFile("record-header", ".wpilog");
+        KoalaLogCore.disableAsyncWriting();
+        KoalaLogCore.setup(new FileOutputStream(file));
+
+        for (int id : IDS) {
+            KoalaLogCore.startEntry(id, "Test/id" + Integer.toHexString(id), "raw", "", 0);
+            KoalaLogCore.writeRecord(id, payload(8, id), 1);
+        }
+        KoalaLogCore.startEntry(SIZE_ENTRY, "Test/size", "raw", "", 0);
+        for (int size : SIZES) {
+            KoalaLogCore.writeRecord(SIZE_ENTRY, payload(size, size), 2);
+        }
+        KoalaLogCore.startEntry(TIMESTAMP_ENTRY, "Test/timestamp", "raw", "", 0);
+        for (long ts : TIMESTAMPS) {
+            KoalaLogCore.writeRecord(TIMESTAMP_ENTRY, payload(8, (int) ts), ts);
+        }
+        KoalaLogCore.shutdown();
+
+        try (WpiLogReader reader = WpiLogReader.open(file)) {
+            for (int id : IDS) {
+                EntryInfo entry = reader.getEntry("Test/id" + Integer.toHexString(id));
+                assertEquals(id, entry.getId());
+                List<LogRecord> records = reader.getRecords(entry);
+                assertEquals(1, records.size());
+                assertArrayEquals(payload(8, id), records.get(0).getRaw());
+            }
+
+            List<LogRecord> sized = reader.getRecords(reader.getEntry("Test/size"));
+            assertEquals(SIZES.length, sized.size());
+            for (int i = 0; i < SIZES.length; i++) {
+                assertEquals(SIZES[i], sized.get(i).getSize());
+                assertArrayEquals(payload(SIZES[i], SIZES[i]), sized.get(i).getRaw());
+            }
+
+            List<LogRecord> timed = reader.getRecords(reader.getEntry("Test/timestamp"));
+            assertEquals(TIMESTAMPS.length, timed.size());
+            for (int i = 0; i < TIMESTAMPS.length; i++) {
+                assertEquals(TIMESTAMPS[i], timed.get(i).getTimestamp());
+                assertArrayEquals(payload(8, (int) TIMESTAMPS[i]), timed.get(i).getRaw());
+            }
+        }
+
+        try (InputStream in = new FileInputStream(file)) {
+            assertEquals(file.length(), LogRecovery.validLength(in));
+        }
+    }
+
+    private static byte[] payload(int size, int seed) {
+        byte[] b = new byte[size];
+        for (int i = 0; i < size; i++) {
+            b[i] = (byte) (seed + i);
+        }
+        return b;
+    }
+}
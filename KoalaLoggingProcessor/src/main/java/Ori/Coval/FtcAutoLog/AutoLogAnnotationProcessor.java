@@ -2,6 +2,7 @@ package Ori.Coval.FtcAutoLog;
 
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterSpec;
@@ -32,6 +33,7 @@ import javax.tools.Diagnostic;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -41,19 +43,38 @@ import java.util.Set;
  * Annotation processor that generates an AutoLogged subclass which
  * overrides fields and methods to log via WpiLog.
  */
-@SupportedAnnotationTypes({"Ori.Coval.Logging.AutoLog", "Ori.Coval.Logging.AutoLogOutput", "Ori.Coval.Logging.AutoLogPose2d"})
+@SupportedAnnotationTypes({"Ori.Coval.Logging.AutoLog", "Ori.Coval.Logging.AutoLogOutput", "Ori.Coval.Logging.AutoLogPose2d", "Ori.Coval.Logging.AutoLogTiming"})
 @SupportedSourceVersion(SourceVersion.RELEASE_8)
 public class AutoLogAnnotationProcessor extends AbstractProcessor {
     private boolean staticRegistryWritten = false;
     // Adjust this to your WpiLog package
-    private static final ClassName KOALA_LOG = ClassName.get("Ori.Coval.Logging.Logger", "KoalaLog");
+    private static final ClassName KOALA_LOG_CORE = ClassName.get("Ori.Coval.Logging.Logger", "KoalaLogCore");
     private static final ClassName LOGGED = ClassName.get("Ori.Coval.Logging", "Logged");
     private static final ClassName AUTO_LOG_MANAGER = ClassName.get("Ori.Coval.Logging", "AutoLogManager");
     private static final ClassName SUPPLIER_LOG = ClassName.get("Ori.Coval.Logging", "SupplierLog");
+    private static final ClassName REPLAY_SOURCE = ClassName.get("Ori.Coval.Logging", "ReplaySource");
 
     List<Element> autoLogOutputElements = new ArrayList<>();
     List<Element> autoLogPose2DElements = new ArrayList<>();
 
+    // every key known at compile time, indexed by the catalog ID generated code logs it by
+    private final List<String> catalogNames = new ArrayList<>();
+    private final List<String> catalogTypes = new ArrayList<>();
+    private final Map<String, Integer> catalogIds = new HashMap<>();
+    private final List<EntryOptions> catalogOptions = new ArrayList<>();
+
+    // per-entry settings that annotations can give, in their generated form
+    private static class EntryOptions {
+        String changeOnly = "DEFAULT";
+        String minPeriodMs = "0";
+        String deadband = "0.0";
+    }
+
+    private static final String[] ENTRY_ANNOTATIONS = {
+            "Ori.Coval.Logging.AutoLogOutput",
+            "Ori.Coval.Logging.AutoLogPose2d"
+    };
+
     private final Set<String> EXCLUDED_CLASSES = new HashSet<>(Arrays.asList(
                     "LinearOpMode",
                     "OpMode",
@@ -77,6 +98,7 @@ public class AutoLogAnnotationProcessor extends AbstractProcessor {
         }
         if (!staticRegistryWritten && roundEnv.processingOver()) {
             generateStaticRegistry();
+            generateCatalog();
             staticRegistryWritten = true;
         }
         return true;
@@ -145,6 +167,52 @@ public class AutoLogAnnotationProcessor extends AbstractProcessor {
         return true;
     }
 
+    /**
+     * @return the value an annotation attribute was explicitly given, or null if it was left at its default
+     */
+    private String getExplicitAnnotationValue(Element element, String annotationName, String key) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (mirror.getAnnotationType().toString().equals(annotationName)) {
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+                        mirror.getElementValues().entrySet()) {
+                    if (entry.getKey().getSimpleName().toString().equals(key)) {
+                        return entry.getValue().getValue().toString();
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Resolves a per-entry option: the member's own annotation wins, then its @AutoLog class.
+     */
+    private String resolveOption(Element member, TypeElement autoLogClass, String key, String fallback) {
+        for (String annotation : ENTRY_ANNOTATIONS) {
+            String value = getExplicitAnnotationValue(member, annotation, key);
+            if (value != null) return value;
+        }
+        if (autoLogClass != null) {
+            String value = getExplicitAnnotationValue(autoLogClass, "Ori.Coval.Logging.AutoLog", key);
+            if (value != null) return value;
+        }
+        return fallback;
+    }
+
+    /**
+     * Records the annotation options of a member that was just given a catalog entry.
+     *
+     * @param autoLogClass the @AutoLog class the member is logged for, or null for static members
+     */
+    private void configureEntry(String key, Element member, TypeElement autoLogClass) {
+        Integer id = catalogIds.get(key);
+        if (id == null) return; // logged by name, so there is no catalog entry to configure
+        EntryOptions options = catalogOptions.get(id);
+        options.changeOnly = resolveOption(member, autoLogClass, "changeOnly", options.changeOnly);
+        options.minPeriodMs = resolveOption(member, autoLogClass, "minPeriodMs", options.minPeriodMs);
+        options.deadband = resolveOption(member, autoLogClass, "deadband", options.deadband);
+    }
+
     private void generateStaticRegistry() {
         String registryPkg = "Ori.Coval.AutoLog";
         String registryName = "AutoLogStaticRegistry";
@@ -192,6 +260,15 @@ public class AutoLogAnnotationProcessor extends AbstractProcessor {
             String memberName = elem.getSimpleName().toString();
             String key = enclosing.getSimpleName() + "/" + memberName;
 
+            TypeMirror type = isField ? elem.asType() : ((ExecutableElement) elem).getReturnType();
+            if (!isLoggableType(type) && !isNumericSupplier(type)) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "@AutoLogOutput cannot log " + type + ": use a primitive, its box, String, "
+                                + "an array of boolean, int, long, float, double, their boxes or String, "
+                                + "or a Boolean/Int/Long/DoubleSupplier", elem);
+                continue;
+            }
+
             boolean postToFtc = getAnnotationValue(
                     elem,
                     "Ori.Coval.Logging.AutoLogOutput",
@@ -234,6 +311,7 @@ public class AutoLogAnnotationProcessor extends AbstractProcessor {
                 .addModifiers(Modifier.PUBLIC)
                 .returns(void.class);
 
+        int locals = 0;
         for (Entry e : autoLogOutputEntries) {
 
             // detect suppliers by return type of static method or field type
@@ -252,26 +330,30 @@ public class AutoLogAnnotationProcessor extends AbstractProcessor {
                     if (fieldType.endsWith("IntSupplier")) invoke = ".getAsInt()";
                     if (fieldType.endsWith("LongSupplier")) invoke = ".getAsLong()";
                     if (fieldType.endsWith("BooleanSupplier")) invoke = ".getAsBoolean()";
-                    toLog.addStatement(
-                            "$T.log($S, $T.$L$L, $L)",
-                            KOALA_LOG, e.key, e.owner, e.member, invoke, e.post
-                    );
+                    toLog.addStatement("$L", logStatement(e.key, supplierWpiType(fieldType),
+                            CodeBlock.of("$T.$L$L", e.owner, e.member, invoke), e.post));
+                    configureEntry(e.key, e.elem, null);
                     continue;
                 }
                 // non‐supplier static field
-                toLog.addStatement(
-                        "$T.log($S, $T.$L, $L)",
-                        KOALA_LOG, e.key, e.owner, e.member, e.post
-                );
+                toLog.addStatement("$L", logStatement(e.key, field.asType(),
+                        CodeBlock.of("$T.$L", e.owner, e.member), e.post));
+                configureEntry(e.key, e.elem, null);
             } else {
                 if (e.elem.getKind() != ElementKind.METHOD) {
                     continue;
                 }
                 // otherwise regular static no‐arg method
-                toLog.addStatement(
-                        "$T.log($S, $T.$L(), $L)",
-                        KOALA_LOG, e.key, e.owner, e.member, e.post
-                );
+                TypeMirror returnType = ((ExecutableElement) e.elem).getReturnType();
+                CodeBlock value = CodeBlock.of("$T.$L()", e.owner, e.member);
+                if (!returnType.getKind().isPrimitive()) {
+                    // call it once: the null check must not run the method a second time
+                    String local = "value" + locals++;
+                    toLog.addStatement("$T $L = $L", TypeName.get(returnType), local, value);
+                    value = CodeBlock.of("$L", local);
+                }
+                toLog.addStatement("$L", logStatement(e.key, returnType, value, e.post));
+                configureEntry(e.key, e.elem, null);
             }
         }
 
@@ -284,9 +366,9 @@ public class AutoLogAnnotationProcessor extends AbstractProcessor {
             if (!isMethod) {
                 // field is an array of ([x,y,theta])
                 toLog.addStatement(
-                        "$T.logPose2d($S, $T.$L[0], $T.$L[1], $T.$L[2], $L)",
-                        KOALA_LOG,          // $T -> your logger
-                        e.key,              // $S -> the key literal
+                        "$T.logPose2dById($L, $T.$L[0], $T.$L[1], $T.$L[2], $L)",
+                        KOALA_LOG_CORE,     // $T -> your logger
+                        catalogId(e.key, POSE2D_TYPE), // $L -> the catalog ID of the key
                         e.owner, member,    // $T.$L[0]
                         e.owner, member,    // $T.$L[1]
                         e.owner, member,    // $T.$L[2]
@@ -295,15 +377,16 @@ public class AutoLogAnnotationProcessor extends AbstractProcessor {
             } else {
                 // no-arg static method that returns a double[]
                 toLog.addStatement(
-                        "$T.logPose2d($S, $T.$L()[0], $T.$L()[1], $T.$L()[2], $L)",
-                        KOALA_LOG,
-                        e.key,
+                        "$T.logPose2dById($L, $T.$L()[0], $T.$L()[1], $T.$L()[2], $L)",
+                        KOALA_LOG_CORE,
+                        catalogId(e.key, POSE2D_TYPE),
                         e.owner, member,     // $T.$L() returns the double[]
                         e.owner, member,
                         e.owner, member,
                         e.post
                 );
             }
+            configureEntry(e.key, e.elem, null);
         }
 
 
@@ -350,6 +433,13 @@ public class AutoLogAnnotationProcessor extends AbstractProcessor {
                 .addModifiers(Modifier.PUBLIC)
                 .addJavadoc("Auto-generated telemetry logging\n");
 
+        // Sets @ReplayInput fields from a replayed log
+        MethodSpec.Builder fromLog = MethodSpec.methodBuilder("fromLog")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(REPLAY_SOURCE, "source");
+        boolean hasReplayFields = false;
+
         List<Element> allElements = new ArrayList<>();
 
         if(getAnnotationValue(classElem, "Ori.Coval.Logging.AutoLog", "logSuperClasses")) {
@@ -376,7 +466,7 @@ public class AutoLogAnnotationProcessor extends AbstractProcessor {
 
         // collect supplier fields so we can make one constructor
         List<String> supplierFields = new ArrayList<>();
-        List<String> supplierKeys = new ArrayList<>();
+        List<Integer> supplierIds = new ArrayList<>();
 
         // Fields
         for (Element fe : allElements) {
@@ -396,12 +486,8 @@ public class AutoLogAnnotationProcessor extends AbstractProcessor {
 
                 String fname = field.getSimpleName().toString();
                 TypeMirror t = field.asType();
-                TypeKind k = t.getKind();
 
-                boolean isSupplier = (k == TypeKind.DECLARED && t.toString().equals("java.util.function.LongSupplier"))
-                        || (k == TypeKind.DECLARED && t.toString().equals("java.util.function.DoubleSupplier"))
-                        || (k == TypeKind.DECLARED && t.toString().equals("java.util.function.IntSupplier"))
-                        || (k == TypeKind.DECLARED && t.toString().equals("java.util.function.BooleanSupplier"));
+                boolean isSupplier = isNumericSupplier(t);
 
                 if (!(isLoggableType(t) || isSupplier))
                     continue;
@@ -438,25 +524,29 @@ public class AutoLogAnnotationProcessor extends AbstractProcessor {
                                         "postToFtcDashboard"
                                 );
                                 // NOTE: we use two $L slots for fname and invokeSuffix
-                                toLog.addStatement(
-                                        "$T.log($S, this.$L$L, $L)",
-                                        KOALA_LOG,
-                                        key,
-                                        fname,
-                                        invokeSuffix,
-                                        postToFtc
-                                );
+                                toLog.addStatement("$L", logStatement(key, supplierWpiType(t.toString()),
+                                        CodeBlock.of("this.$L$L", fname, invokeSuffix), postToFtc));
+                                configureEntry(key, fe, classElem);
                             }
                         }
                     }
 
                     if(!isAutoLogOutput) {
                         supplierFields.add(fname);
-                        supplierKeys.add(key);
+                        supplierIds.add(catalogId(key, supplierWpiType(t.toString())));
+                        configureEntry(key, fe, classElem);
                     }
 
                 } else {
-                    toLog.addStatement("$T.log($S, this.$L, $L)", KOALA_LOG, key, fname, postToFtcDashBoard);
+                    toLog.addStatement("$L", logStatement(key, t,
+                            CodeBlock.of("this.$L", fname), postToFtcDashBoard));
+                    configureEntry(key, fe, classElem);
+
+                    CodeBlock read = replayRead(t, false, "source", key);
+                    if (read != null && isReplayInput(fe, classElem)) {
+                        fromLog.addStatement("if (source.has($S)) this.$L = $L", key, fname, read);
+                        hasReplayFields = true;
+                    }
                 }
             } else {
 
@@ -474,12 +564,17 @@ public class AutoLogAnnotationProcessor extends AbstractProcessor {
                     VariableElement field = (VariableElement) fe;
                     String name = field.getSimpleName().toString();
                     toLog.addStatement(
-                            "$T.logPose2d($S, $L[0], $L[1], $L[2], $L)",
-                            KOALA_LOG,
-                            keyBase,
+                            "$T.logPose2dById($L, $L[0], $L[1], $L[2], $L)",
+                            KOALA_LOG_CORE,
+                            catalogId(keyBase, POSE2D_TYPE),
                             name, name, name,
                             post
                     );
+                    if (isReplayInput(fe, classElem) && !fe.getModifiers().contains(Modifier.PRIVATE)) {
+                        fromLog.addStatement("if (source.has($S)) this.$L = $L", keyBase, name,
+                                replayRead(field.asType(), true, "source", keyBase));
+                        hasReplayFields = true;
+                    }
 
                 }
                 else if (fe.getKind() == ElementKind.METHOD) {
@@ -488,13 +583,14 @@ public class AutoLogAnnotationProcessor extends AbstractProcessor {
                     String name = method.getSimpleName().toString();
                     String accessor = "this." + name + "()";
                     toLog.addStatement(
-                            "$T.logPose2d($S, $L[0], $L[1], $L[2], $L)",
-                            KOALA_LOG,
-                            keyBase,
+                            "$T.logPose2dById($L, $L[0], $L[1], $L[2], $L)",
+                            KOALA_LOG_CORE,
+                            catalogId(keyBase, POSE2D_TYPE),
                             accessor, accessor, accessor,
                             post
                     );
                 }
+                configureEntry(keyBase, fe, classElem);
             }
         }
 
@@ -520,10 +616,10 @@ public class AutoLogAnnotationProcessor extends AbstractProcessor {
             if (!supplierFields.isEmpty()) {
                 for (int i = 0; i < supplierFields.size(); i++) {
                     ctor.addStatement(
-                            "super.$L = $T.wrap($S, super.$L, $L)",
+                            "super.$L = $T.wrap($L, super.$L, $L)",
                             supplierFields.get(i),
                             SUPPLIER_LOG,
-                            supplierKeys.get(i),
+                            supplierIds.get(i),
                             supplierFields.get(i),
                             postToFtcDashBoard
                     );
@@ -538,13 +634,17 @@ public class AutoLogAnnotationProcessor extends AbstractProcessor {
 
 
         // Methods
+        String methodLogMode = getExplicitAnnotationValue(classElem, "Ori.Coval.Logging.AutoLog", "methodLogMode");
+        if (methodLogMode == null) methodLogMode = "EVERY_CALL";
+        Set<String> slotNames = new HashSet<>();
         for (Element me : allElements) {
-            if(me.getAnnotationMirrors().stream().anyMatch(m -> m.getAnnotationType().toString().equals("Ori.Coval.Logging.DoNotLog")))
-                continue;
+            if (me.getKind() != ElementKind.METHOD) continue;
+            boolean timed = hasAnnotation(me, "Ori.Coval.Logging.AutoLogTiming");
+            boolean doNotLog = hasAnnotation(me, "Ori.Coval.Logging.DoNotLog");
+            if (doNotLog && !timed) continue;
 
             if(me.getModifiers().contains(Modifier.FINAL)) continue;
 
-            if (me.getKind() != ElementKind.METHOD) continue;
             ExecutableElement method = (ExecutableElement) me;
             Set<Modifier> mmods = method.getModifiers();
 
@@ -553,11 +653,23 @@ public class AutoLogAnnotationProcessor extends AbstractProcessor {
 
             if (mmods.contains(Modifier.STATIC)) continue;
             TypeMirror rt = method.getReturnType();
-            if (!isLoggableType(rt))
-                continue;
             String mname = method.getSimpleName().toString();
+            // overloads each need their own slot fields, and coalesced ones their own entry
+            String slot = null;
+            if (timed || !methodLogMode.equals("EVERY_CALL")) {
+                slot = mname;
+                for (int n = 2; !slotNames.add(slot); n++) slot = mname + n;
+            }
+            String key = orig + "/" + (methodLogMode.equals("EVERY_CALL") ? mname : slot);
+            // @AutoLogPose2d methods are logged as a struct by toLog(); the override only replays and times them
+            boolean pose2d = isPose2d(me);
+            boolean logged = !doNotLog && !pose2d && isLoggableType(rt);
+            CodeBlock read = logged || pose2d ? replayRead(rt, pose2d, "replay$", key) : null;
+            boolean replayed = read != null && isReplayInput(me, classElem);
+            if (!logged && !timed && !replayed)
+                continue;
+            boolean isVoid = rt.getKind() == TypeKind.VOID;
             TypeName rtn = TypeName.get(rt);
-            String key = orig + "/" + mname;
             StringBuilder params = new StringBuilder();
             List<ParameterSpec> paramList = new ArrayList<>();
             for (VariableElement parameter : method.getParameters()) {
@@ -568,15 +680,55 @@ public class AutoLogAnnotationProcessor extends AbstractProcessor {
             if (params.toString().startsWith(",")) {
                 params = new StringBuilder(params.substring(1));
             }
-
             // override method
             MethodSpec.Builder overrideBuilder = MethodSpec.methodBuilder(mname)
                     .addAnnotation(Override.class)
                     .addModifiers(Modifier.PUBLIC)
                     .returns(rtn)
-                    .addStatement("$T result = super.$L($L)", rtn, mname, params.toString())
-                    .addParameters(paramList)
-                    .addStatement("return $T.log($S, result, $L)", KOALA_LOG, key, postToFtcDashBoard);
+                    .addParameters(paramList);
+            for (TypeMirror thrown : method.getThrownTypes()) {
+                overrideBuilder.addException(TypeName.get(thrown));
+            }
+            if (timed) {
+                overrideBuilder.addStatement("long start$$ = System.nanoTime()");
+            }
+            if (replayed) {
+                // while replaying, return the recorded value instead of reading hardware
+                overrideBuilder.addStatement("$T replay$$ = $T.getReplaySource()", REPLAY_SOURCE, AUTO_LOG_MANAGER)
+                        .addStatement("$T result = replay$$ != null && replay$$.has($S) ? $L : super.$L($L)",
+                                rtn, key, read, mname, params.toString());
+            } else if (isVoid) {
+                overrideBuilder.addStatement("super.$L($L)", mname, params.toString());
+            } else {
+                overrideBuilder.addStatement("$T result = super.$L($L)", rtn, mname, params.toString());
+            }
+            if (timed) {
+                boolean postTiming = "true".equals(getExplicitAnnotationValue(me, "Ori.Coval.Logging.AutoLogTiming", "postToFtcDashboard"));
+                addTimingSlots(clsBuilder, overrideBuilder, toLog, slot, "Timing/" + orig + "/" + slot, postTiming);
+            }
+            if (logged && methodLogMode.equals("EVERY_CALL")) {
+                overrideBuilder.addStatement("$L", logStatement(key, rt, CodeBlock.of("result"), postToFtcDashBoard));
+            } else if (logged) {
+                // stash the result in slots and log it once per toLog()
+                boolean minMax = methodLogMode.equals("MIN_MAX_LAST") && isNumericPrimitive(rt);
+                addMethodSlots(clsBuilder, overrideBuilder, toLog, slot, rtn, minMax);
+                toLog.beginControlFlow("if (this.$L$$called)", slot)
+                        .addStatement("this.$L$$called = false", slot);
+                if (minMax) {
+                    toLog.addStatement("$L", logStatement(key + "/min", rt, CodeBlock.of("this.$L$$min", slot), postToFtcDashBoard))
+                            .addStatement("$L", logStatement(key + "/max", rt, CodeBlock.of("this.$L$$max", slot), postToFtcDashBoard));
+                    configureEntry(key + "/min", me, classElem);
+                    configureEntry(key + "/max", me, classElem);
+                }
+                toLog.addStatement("$L", logStatement(key, rt, CodeBlock.of("this.$L$$last", slot), postToFtcDashBoard))
+                        .endControlFlow();
+            }
+            if (!isVoid) {
+                overrideBuilder.addStatement("return result");
+            }
+            if (logged) {
+                configureEntry(key, me, classElem);
+            }
 
             MethodSpec override = overrideBuilder.build();
 
@@ -586,6 +738,18 @@ public class AutoLogAnnotationProcessor extends AbstractProcessor {
 
 
         clsBuilder.addMethod(toLog.build());
+        if (hasReplayFields) {
+            clsBuilder.addMethod(fromLog.build());
+        }
+
+        if (!getAnnotationValue(classElem, "Ori.Coval.Logging.AutoLog", "parallelSampling")) {
+            clsBuilder.addMethod(MethodSpec.methodBuilder("sampleOnLoopThread")
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC)
+                    .returns(boolean.class)
+                    .addStatement("return true")
+                    .build());
+        }
 
         // Write file
         try {
@@ -597,6 +761,377 @@ public class AutoLogAnnotationProcessor extends AbstractProcessor {
         }
     }
 
+    private static final String POSE2D_TYPE = "struct:Pose2d";
+
+    /**
+     * Whether a member is replayed from the log: it or its @AutoLog class is @ReplayInput.
+     */
+    private boolean isReplayInput(Element member, TypeElement autoLogClass) {
+        return hasAnnotation(member, "Ori.Coval.Logging.ReplayInput")
+                || hasAnnotation(autoLogClass, "Ori.Coval.Logging.ReplayInput");
+    }
+
+    private static boolean hasAnnotation(Element element, String annotationName) {
+        return element.getAnnotationMirrors().stream()
+                .anyMatch(m -> m.getAnnotationType().toString().equals(annotationName));
+    }
+
+    /**
+     * Builds the expression that reads a value of type {@code tm} for {@code key} from the
+     * ReplaySource named {@code source}, or null when the type cannot be replayed.
+     */
+    private static CodeBlock replayRead(TypeMirror tm, boolean pose2d, String source, String key) {
+        if (pose2d) return CodeBlock.of("$L.getPose2d($S)", source, key);
+        switch (tm.getKind()) {
+            case BOOLEAN:
+                return CodeBlock.of("$L.getBoolean($S)", source, key);
+            case BYTE:
+            case SHORT:
+            case CHAR:
+            case INT:
+                return CodeBlock.of("($T) $L.getLong($S)", TypeName.get(tm), source, key);
+            case LONG:
+                return CodeBlock.of("$L.getLong($S)", source, key);
+            case FLOAT:
+                return CodeBlock.of("$L.getFloat($S)", source, key);
+            case DOUBLE:
+                return CodeBlock.of("$L.getDouble($S)", source, key);
+            case DECLARED:
+                switch (tm.toString()) {
+                    case "java.lang.Boolean":
+                        return CodeBlock.of("Boolean.valueOf($L.getBoolean($S))", source, key);
+                    case "java.lang.Byte":
+                        return CodeBlock.of("Byte.valueOf((byte) $L.getLong($S))", source, key);
+                    case "java.lang.Short":
+                        return CodeBlock.of("Short.valueOf((short) $L.getLong($S))", source, key);
+                    case "java.lang.Character":
+                        return CodeBlock.of("Character.valueOf((char) $L.getLong($S))", source, key);
+                    case "java.lang.Integer":
+                        return CodeBlock.of("Integer.valueOf((int) $L.getLong($S))", source, key);
+                    case "java.lang.Long":
+                        return CodeBlock.of("Long.valueOf($L.getLong($S))", source, key);
+                    case "java.lang.Float":
+                        return CodeBlock.of("Float.valueOf($L.getFloat($S))", source, key);
+                    case "java.lang.Double":
+                        return CodeBlock.of("Double.valueOf($L.getDouble($S))", source, key);
+                    case "java.lang.String":
+                        return CodeBlock.of("$L.getString($S)", source, key);
+                    default:
+                        return null;
+                }
+            case ARRAY:
+                switch (((ArrayType) tm).getComponentType().toString()) {
+                    case "boolean":
+                        return CodeBlock.of("$L.getBooleanArray($S)", source, key);
+                    case "int":
+                        return CodeBlock.of("$L.getIntArray($S)", source, key);
+                    case "long":
+                        return CodeBlock.of("$L.getLongArray($S)", source, key);
+                    case "float":
+                        return CodeBlock.of("$L.getFloatArray($S)", source, key);
+                    case "double":
+                        return CodeBlock.of("$L.getDoubleArray($S)", source, key);
+                    case "java.lang.String":
+                        return CodeBlock.of("$L.getStringArray($S)", source, key);
+                    default:
+                        return null;
+                }
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Assigns the next dense catalog ID to a key, or returns the one it already has.
+     */
+    private int catalogId(String key, String wpiType) {
+        Integer id = catalogIds.get(key);
+        if (id != null) {
+            if (!catalogTypes.get(id).equals(wpiType)) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "\"" + key + "\" is logged as both " + catalogTypes.get(id) + " and " + wpiType);
+            }
+            return id;
+        }
+        id = catalogNames.size();
+        catalogNames.add(key);
+        catalogTypes.add(wpiType);
+        catalogIds.put(key, id);
+        catalogOptions.add(new EntryOptions());
+        return id;
+    }
+
+    /**
+     * Adds the fields a coalesced method override keeps its results in, and the statements that
+     * fill them after {@code result} is computed. Field names contain a {@code $} so they can never
+     * hide a field of the logged class.
+     */
+    private static void addMethodSlots(TypeSpec.Builder cls, MethodSpec.Builder override, MethodSpec.Builder toLog,
+                                       String slot, TypeName type, boolean minMax) {
+        cls.addField(type, slot + "$last", Modifier.PRIVATE);
+        cls.addField(TypeName.BOOLEAN, slot + "$called", Modifier.PRIVATE);
+        if (minMax) {
+            cls.addField(type, slot + "$min", Modifier.PRIVATE);
+            cls.addField(type, slot + "$max", Modifier.PRIVATE);
+            override.beginControlFlow("if (!this.$L$$called)", slot)
+                    .addStatement("this.$L$$min = result", slot)
+                    .addStatement("this.$L$$max = result", slot)
+                    .nextControlFlow("else")
+                    .addStatement("if (result < this.$L$$min) this.$L$$min = result", slot, slot)
+                    .addStatement("if (result > this.$L$$max) this.$L$$max = result", slot, slot)
+                    .endControlFlow();
+        }
+        override.addStatement("this.$L$$last = result", slot)
+                .addStatement("this.$L$$called = true", slot);
+    }
+
+    /**
+     * Adds the fields an @AutoLogTiming override adds its call times to, the statements that time
+     * the call since {@code start$}, and the toLog statements that log {count, total ms, max ms}
+     * once per loop and start the next one from zero.
+     */
+    private void addTimingSlots(TypeSpec.Builder cls, MethodSpec.Builder override, MethodSpec.Builder toLog,
+                                String slot, String key, boolean post) {
+        cls.addField(TypeName.INT, slot + "$calls", Modifier.PRIVATE);
+        cls.addField(TypeName.LONG, slot + "$totalNanos", Modifier.PRIVATE);
+        cls.addField(TypeName.LONG, slot + "$maxNanos", Modifier.PRIVATE);
+        cls.addField(FieldSpec.builder(double[].class, slot + "$timing", Modifier.PRIVATE, Modifier.FINAL)
+                .initializer("new double[3]")
+                .build());
+        override.addStatement("long elapsed$$ = System.nanoTime() - start$$")
+                .addStatement("this.$L$$calls++", slot)
+                .addStatement("this.$L$$totalNanos += elapsed$$", slot)
+                .addStatement("if (elapsed$$ > this.$L$$maxNanos) this.$L$$maxNanos = elapsed$$", slot, slot);
+        toLog.beginControlFlow("if (this.$L$$calls > 0)", slot)
+                .addStatement("this.$L$$timing[0] = this.$L$$calls", slot, slot)
+                .addStatement("this.$L$$timing[1] = this.$L$$totalNanos / 1e6", slot, slot)
+                .addStatement("this.$L$$timing[2] = this.$L$$maxNanos / 1e6", slot, slot)
+                .addStatement("this.$L$$calls = 0", slot)
+                .addStatement("this.$L$$totalNanos = 0", slot)
+                .addStatement("this.$L$$maxNanos = 0", slot)
+                .addStatement("$L", logStatement(key, "double[]", CodeBlock.of("this.$L$$timing", slot), post))
+                .endControlFlow();
+        // every sample is new information, even when it repeats the last one
+        catalogOptions.get(catalogIds.get(key)).changeOnly = "OFF";
+    }
+
+    private static boolean isNumericPrimitive(TypeMirror type) {
+        switch (type.getKind()) {
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+            case FLOAT:
+            case DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Builds the statement that logs a value of Java type {@code type}. Boxed values are
+     * unboxed explicitly so the primitive overload is always the one called, and every reference
+     * value is skipped while it is null instead of throwing.
+     */
+    private CodeBlock logStatement(String key, TypeMirror type, CodeBlock value, boolean post) {
+        String wpiType = wpiTypeOf(type);
+        if (type.getKind().isPrimitive()) {
+            return logStatement(key, wpiType, value, post);
+        }
+        String primitive = unboxedType(type);
+        CodeBlock arg = primitive != null && wpiType != null
+                ? CodeBlock.of("($L) $L", primitive, value)
+                : value;
+        return CodeBlock.of("if ($L != null) $L", value, logStatement(key, wpiType, arg, post));
+    }
+
+    /**
+     * @return the primitive a boxed type is logged as, e.g. long for Integer, or null if
+     * {@code type} is not a boxed primitive
+     */
+    private static String unboxedType(TypeMirror type) {
+        switch (type.toString()) {
+            case "java.lang.Boolean":
+                return "boolean";
+            case "java.lang.Byte":
+            case "java.lang.Short":
+            case "java.lang.Character":
+            case "java.lang.Integer":
+            case "java.lang.Long":
+                return "long";
+            case "java.lang.Float":
+                return "float";
+            case "java.lang.Double":
+                return "double";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Builds the statement that logs {@code value} under {@code key} by catalog ID.
+     *
+     * @param wpiType the entry type, as given by {@link #wpiTypeOf}; never null
+     */
+    private CodeBlock logStatement(String key, String wpiType, CodeBlock value, boolean post) {
+        return CodeBlock.of("$T.logById($L, $L, $L)", KOALA_LOG_CORE, catalogId(key, wpiType), value, post);
+    }
+
+    /**
+     * @return the WPILOG type a value of this Java type is logged as,
+     * or null if KoalaLogCore has no by-ID overload for it
+     */
+    private String wpiTypeOf(TypeMirror tm) {
+        switch (tm.getKind()) {
+            case BOOLEAN:
+                return "boolean";
+            case BYTE:
+            case SHORT:
+            case CHAR:
+            case INT:
+            case LONG:
+                return "int64";
+            case FLOAT:
+                return "float";
+            case DOUBLE:
+                return "double";
+            case DECLARED:
+                switch (tm.toString()) {
+                    case "java.lang.Boolean":
+                        return "boolean";
+                    case "java.lang.Byte":
+                    case "java.lang.Short":
+                    case "java.lang.Character":
+                    case "java.lang.Integer":
+                    case "java.lang.Long":
+                        return "int64";
+                    case "java.lang.Float":
+                        return "float";
+                    case "java.lang.Double":
+                        return "double";
+                    case "java.lang.String":
+                        return "string";
+                    default:
+                        return null;
+                }
+            case ARRAY:
+                TypeMirror comp = ((ArrayType) tm).getComponentType();
+                switch (comp.toString()) {
+                    case "boolean":
+                    case "java.lang.Boolean":
+                        return "boolean[]";
+                    case "int":
+                    case "long":
+                    case "java.lang.Integer":
+                    case "java.lang.Long":
+                        return "int64[]";
+                    case "float":
+                    case "java.lang.Float":
+                        return "float[]";
+                    case "double":
+                    case "java.lang.Double":
+                        return "double[]";
+                    case "java.lang.String":
+                        return "string[]";
+                    default:
+                        return null;
+                }
+            default:
+                return null;
+        }
+    }
+
+    private static boolean isNumericSupplier(TypeMirror t) {
+        switch (t.toString()) {
+            case "java.util.function.BooleanSupplier":
+            case "java.util.function.IntSupplier":
+            case "java.util.function.LongSupplier":
+            case "java.util.function.DoubleSupplier":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private String supplierWpiType(String supplierType) {
+        if (supplierType.endsWith("DoubleSupplier")) return "double";
+        if (supplierType.endsWith("BooleanSupplier")) return "boolean";
+        return "int64"; // IntSupplier and LongSupplier
+    }
+
+    /**
+     * @return the ordinal of a {@code ChangeOnly} constant, which is how KoalaLogCore receives it
+     */
+    private static int changeOnlyOrdinal(String changeOnly) {
+        switch (changeOnly) {
+            case "ON":
+                return 1;
+            case "OFF":
+                return 2;
+            default:
+                return 0;
+        }
+    }
+
+    private void generateCatalog() {
+        CodeBlock.Builder names = CodeBlock.builder().add("{");
+        CodeBlock.Builder types = CodeBlock.builder().add("{");
+        CodeBlock.Builder changeOnly = CodeBlock.builder().add("{");
+        CodeBlock.Builder minPeriodMs = CodeBlock.builder().add("{");
+        CodeBlock.Builder deadband = CodeBlock.builder().add("{");
+        for (int i = 0; i < catalogNames.size(); i++) {
+            String separator = i == 0 ? "" : ", ";
+            EntryOptions options = catalogOptions.get(i);
+            names.add("$L$S", separator, catalogNames.get(i));
+            types.add("$L$S", separator, catalogTypes.get(i));
+            changeOnly.add("$L$L", separator, changeOnlyOrdinal(options.changeOnly));
+            minPeriodMs.add("$L$LL", separator, options.minPeriodMs);
+            deadband.add("$L$L", separator, options.deadband);
+        }
+        names.add("}");
+        types.add("}");
+        changeOnly.add("}");
+        minPeriodMs.add("}");
+        deadband.add("}");
+
+        TypeSpec catalog = TypeSpec.classBuilder("AutoLogCatalog")
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addJavadoc("Every entry known at compile time, indexed by the catalog ID generated code logs it by.\n")
+                .addField(FieldSpec.builder(String[].class, "NAMES", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                        .initializer(names.build())
+                        .build())
+                .addField(FieldSpec.builder(String[].class, "TYPES", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                        .initializer(types.build())
+                        .build())
+                .addField(FieldSpec.builder(byte[].class, "CHANGE_ONLY", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                        .initializer(changeOnly.build())
+                        .build())
+                .addField(FieldSpec.builder(long[].class, "MIN_PERIOD_MS", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                        .initializer(minPeriodMs.build())
+                        .build())
+                .addField(FieldSpec.builder(double[].class, "DEADBAND", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                        .initializer(deadband.build())
+                        .build())
+                .addStaticBlock(CodeBlock.builder()
+                        .addStatement("$T.registerCatalog(NAMES, TYPES, CHANGE_ONLY, MIN_PERIOD_MS, DEADBAND)", KOALA_LOG_CORE)
+                        .build())
+                .build();
+
+        try {
+            JavaFile.builder("Ori.Coval.AutoLog", catalog)
+                    .build()
+                    .writeTo(processingEnv.getFiler());
+        } catch (FilerException ignored) {
+            // already written
+        } catch (IOException ex) {
+            processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Could not write AutoLogCatalog: " + ex.getMessage()
+            );
+        }
+    }
+
     private String getPackageName(TypeElement t) {
         Element e = t;
         while (e != null && !(e instanceof PackageElement)) {
@@ -606,34 +1141,8 @@ public class AutoLogAnnotationProcessor extends AbstractProcessor {
     }
 
     private boolean isLoggableType(TypeMirror tm) {
-        TypeKind k = tm.getKind();
-
-        // 1) primitives
-        if (k.isPrimitive()) return true;
-
-        // 2) boxed types and String
-        if (k == TypeKind.DECLARED) {
-            String name = tm.toString();
-            switch (name) {
-                case "java.lang.Boolean":
-                case "java.lang.Byte":
-                case "java.lang.Character":
-                case "java.lang.Short":
-                case "java.lang.Integer":
-                case "java.lang.Long":
-                case "java.lang.Float":
-                case "java.lang.Double":
-                case "java.lang.String":
-                    return true;
-            }
-        }
-
-        // 3) arrays of any of the above (including wrapper arrays, primitive arrays, String[])
-        if (k == TypeKind.ARRAY) {
-            ArrayType at = (ArrayType) tm;
-            return isLoggableType(at.getComponentType());
-        }
-
-        return false;
+        // only the types KoalaLogCore has a by-ID overload for: primitives, their boxes, String,
+        // and arrays of boolean, int, long, float, double, their boxes and String
+        return wpiTypeOf(tm) != null;
     }
 }